@@ -0,0 +1,34 @@
+package com.observetask.userservice.benchmark;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.observetask.userservice.cache.PrincipalCacheEntityListener;
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.repository.UserRepository;
+
+/**
+ * JPA-only slice of the service (entities, repositories, Flyway) for repository benchmarks
+ * Redis, Kafka and security are left out so nothing but Postgres is needed
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+    RedisAutoConfiguration.class,
+    RedisRepositoriesAutoConfiguration.class,
+    KafkaAutoConfiguration.class,
+    SecurityAutoConfiguration.class,
+    UserDetailsServiceAutoConfiguration.class
+})
+@EntityScan(basePackageClasses = User.class)
+@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+@Import(PrincipalCacheEntityListener.class)
+public class BenchmarkJpaApplication {
+}
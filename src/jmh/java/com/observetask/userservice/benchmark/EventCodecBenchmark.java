@@ -0,0 +1,102 @@
+package com.observetask.userservice.benchmark;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.observetask.userservice.event.DomainEvent;
+import com.observetask.userservice.event.EventCodec;
+import com.observetask.userservice.event.InvitationEvent;
+import com.observetask.userservice.event.UserEvent;
+import com.observetask.userservice.event.UserRoleEvent;
+
+/**
+ * Kafka payload encoding: the EventCodec binary format against the previous Jackson JSON path
+ * Payload sizes in bytes are reported as the jsonBytes / binaryBytes secondary results
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    @Param({"user", "role", "invitation"})
+    public String event;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private DomainEvent domainEvent;
+    private Class<? extends DomainEvent> eventClass;
+    private byte[] json;
+    private byte[] binary;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long jsonBytes;
+        public long binaryBytes;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID organizationId = UUID.randomUUID();
+        Instant now = Instant.now();
+        domainEvent = switch (event) {
+            case "user" -> new UserEvent(UserEvent.UPDATED, userId, "jane.doe@example.com", "Jane", "Doe", true, now);
+            case "role" -> new UserRoleEvent(UserRoleEvent.ASSIGNED, userId, organizationId, "TEAM_ADMIN", now);
+            default -> new InvitationEvent(InvitationEvent.INVITED, UUID.randomUUID(), organizationId,
+                    "new.member@example.com", "MEMBER", "PENDING", userId, LocalDateTime.now().plusDays(7), now);
+        };
+        eventClass = domainEvent.getClass();
+        json = objectMapper.writeValueAsBytes(domainEvent);
+        binary = EventCodec.encode(domainEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeJson(PayloadSize size) throws Exception {
+        byte[] payload = objectMapper.writeValueAsBytes(domainEvent);
+        size.jsonBytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public byte[] encodeBinary(PayloadSize size) {
+        byte[] payload = EventCodec.encode(domainEvent);
+        size.binaryBytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public DomainEvent decodeJsonTyped() throws Exception {
+        return objectMapper.readValue(json, eventClass);
+    }
+
+    @Benchmark
+    public DomainEvent decodeJsonLegacy() {
+        return EventCodec.decode(json);
+    }
+
+    @Benchmark
+    public DomainEvent decodeBinary() {
+        return EventCodec.decode(binary);
+    }
+}
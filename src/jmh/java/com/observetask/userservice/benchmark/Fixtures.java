@@ -0,0 +1,70 @@
+package com.observetask.userservice.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.AuthProvider;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.entity.UserRole;
+import com.observetask.userservice.security.UserPrincipal;
+
+/**
+ * Deterministic test data shared by the benchmarks
+ */
+final class Fixtures {
+
+    private static final String[] FIRST_NAMES = {"Ada", "Grace", "Alan", "Edsger", "Barbara", "Donald", "Leslie", "Frances", "Ken", "Radia"};
+    private static final String[] LAST_NAMES = {"Lovelace", "Hopper", "Turing", "Dijkstra", "Liskov", "Knuth", "Lamport", "Allen", "Thompson", "Perlman"};
+    private static final String[] DOMAINS = {"acme.io", "example.com", "observetask.dev", "corp.test"};
+
+    private Fixtures() {
+    }
+
+    static String firstName(int n) {
+        return FIRST_NAMES[n % FIRST_NAMES.length];
+    }
+
+    static String lastName(int n) {
+        return LAST_NAMES[(n / FIRST_NAMES.length) % LAST_NAMES.length] + (n / (FIRST_NAMES.length * LAST_NAMES.length));
+    }
+
+    static String email(int n) {
+        return "user" + n + "@" + DOMAINS[n % DOMAINS.length];
+    }
+
+    static User user(UUID id, int n) {
+        return User.builder()
+                .id(id)
+                .email(email(n))
+                .firstName(firstName(n))
+                .lastName(lastName(n))
+                .authProvider(AuthProvider.LOCAL)
+                .emailVerified(true)
+                .isActive(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    static UserRole membership(User user, UUID organizationId, Role role) {
+        return UserRole.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .organizationId(organizationId)
+                .role(role)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    static UserPrincipal principal(UUID userId, UUID organizationId) {
+        return UserPrincipal.builder()
+                .userId(userId)
+                .organizationId(organizationId)
+                .role(Role.TEAM_MEMBER.name())
+                .email(email(0))
+                .firstName(firstName(0))
+                .lastName(lastName(0))
+                .isActive(true)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.observetask.userservice.benchmark;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.observetask.userservice.dto.TokenValidationResult;
+import com.observetask.userservice.security.InMemoryJwtKeyStore;
+import com.observetask.userservice.security.JwtUtils;
+import com.observetask.userservice.security.SigningAlgorithm;
+import com.observetask.userservice.security.TokenRevocationService;
+import com.observetask.userservice.security.UserPrincipal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Access token issue and verify, cold (signature check) and warm (verified-token cache hit)
+ * The revocation filter is empty, so revocation checks never leave the process. The cold
+ * path alternates two tokens through a single-slot cache, so every validation misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final long ACCESS_TOKEN_EXPIRATION_MS = Duration.ofMinutes(15).toMillis();
+    private static final long REFRESH_TOKEN_EXPIRATION_MS = Duration.ofDays(7).toMillis();
+
+    @Param({"RS256", "EdDSA"})
+    public String algorithm;
+
+    private JwtUtils jwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private UserPrincipal principal;
+    private String token;
+    private String[] coldTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        InMemoryJwtKeyStore keyStore = new InMemoryJwtKeyStore(SigningAlgorithm.fromCode(algorithm),
+                Duration.ofDays(1), Duration.ofMinutes(20), Clock.systemUTC());
+        TokenRevocationService revocationService = new TokenRevocationService(null, null,
+                new RedisMessageListenerContainer(), new SimpleMeterRegistry(),
+                Duration.ofMinutes(5), 10_000, 0.01, Duration.ofSeconds(30));
+        jwtUtils = new JwtUtils(keyStore, revocationService, "observetask",
+                ACCESS_TOKEN_EXPIRATION_MS, REFRESH_TOKEN_EXPIRATION_MS, 16_384);
+        principal = Fixtures.principal(UUID.randomUUID(), UUID.randomUUID());
+        token = jwtUtils.generateAccessToken(principal);
+        uncachedJwtUtils = new JwtUtils(keyStore, revocationService, "observetask",
+                ACCESS_TOKEN_EXPIRATION_MS, REFRESH_TOKEN_EXPIRATION_MS, 1);
+        coldTokens = new String[] {
+            token, jwtUtils.generateAccessToken(Fixtures.principal(UUID.randomUUID(), UUID.randomUUID()))
+        };
+    }
+
+    @Benchmark
+    public String issue() {
+        return jwtUtils.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public TokenValidationResult verifyCold() {
+        next ^= 1;
+        return uncachedJwtUtils.validateToken(coldTokens[next]);
+    }
+
+    @Benchmark
+    public TokenValidationResult verifyCached() {
+        return jwtUtils.validateToken(token);
+    }
+}
@@ -0,0 +1,76 @@
+package com.observetask.userservice.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.observetask.userservice.dto.UserProfile;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.entity.UserRole;
+import com.observetask.userservice.security.UserPrincipal;
+
+/**
+ * Per-request object mapping and role checks on the authentication path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private User user;
+    private UserRole membership;
+    private UserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        UUID organizationId = UUID.randomUUID();
+        user = Fixtures.user(UUID.randomUUID(), 0);
+        membership = Fixtures.membership(user, organizationId, Role.TEAM_ADMIN);
+        principal = UserPrincipal.from(user, membership);
+    }
+
+    @Benchmark
+    public UserPrincipal principalFromEntities() {
+        return UserPrincipal.from(user, membership);
+    }
+
+    @Benchmark
+    public UserProfile profileFromPrincipal() {
+        return UserProfile.from(principal);
+    }
+
+    @Benchmark
+    public UserPrincipal principalCopy() {
+        return principal.toBuilder().build();
+    }
+
+    @Benchmark
+    public void roleChecks(Blackhole blackhole) {
+        for (Role actor : Role.values()) {
+            for (Role target : Role.values()) {
+                blackhole.consume(actor.hasAuthorityOver(target));
+                blackhole.consume(actor.canAssignRole(target));
+            }
+        }
+    }
+
+    @Benchmark
+    public Role roleFromClaim() {
+        return Role.valueOf(principal.getRole());
+    }
+}
@@ -0,0 +1,176 @@
+package com.observetask.userservice.benchmark;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.entity.UserRole;
+import com.observetask.userservice.repository.OrganizationMember;
+import com.observetask.userservice.repository.UserRepository;
+import com.observetask.userservice.repository.UserRoleRepository;
+import com.observetask.userservice.repository.UserSearchRow;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Hot UserRepository/UserRoleRepository queries against an embedded Postgres
+ *
+ * The schema comes from the real Flyway migrations (pg_trgm included), so the
+ * plans match production; no Docker or Testcontainers needed. One organization
+ * is seeded with the given number of members.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000"})
+    public int members;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserRoleRepository userRoleRepository;
+
+    private UUID organizationId;
+    private UUID probeUserId;
+    private String probeEmail;
+    private OrganizationMember deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        DataSource bootstrap = postgres.getPostgresDatabase();
+        try (Connection connection = bootstrap.getConnection()) {
+            connection.createStatement().execute("CREATE SCHEMA IF NOT EXISTS observetask_users");
+        }
+
+        context = new SpringApplicationBuilder(BenchmarkJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.observetask.userservice=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        userRepository = context.getBean(UserRepository.class);
+        userRoleRepository = context.getBean(UserRoleRepository.class);
+
+        organizationId = UUID.randomUUID();
+        seed(context.getBean(DataSource.class));
+
+        User probe = userRepository.findByEmail(Fixtures.email(members / 2)).orElseThrow();
+        probeUserId = probe.getId();
+        probeEmail = probe.getEmail();
+        List<OrganizationMember> firstHalf = userRepository.findMembers(organizationId, Limit.of(members / 2));
+        deepCursor = firstHalf.get(firstHalf.size() - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Benchmark
+    public Optional<User> loginLookup() {
+        return userRepository.findWithRolesByEmail(probeEmail);
+    }
+
+    @Benchmark
+    public Optional<UserRole> principalLoad() {
+        return userRoleRepository.findWithUserByUserIdAndOrganizationId(probeUserId, organizationId);
+    }
+
+    @Benchmark
+    public List<OrganizationMember> memberFirstPage() {
+        return userRepository.findMembers(organizationId, Limit.of(PAGE_SIZE + 1));
+    }
+
+    @Benchmark
+    public List<OrganizationMember> memberDeepPage() {
+        return userRepository.findMembersAfter(organizationId, deepCursor.joinedAt(), deepCursor.membershipId(), Limit.of(PAGE_SIZE + 1));
+    }
+
+    @Benchmark
+    public List<UserSearchRow> memberSearch() {
+        return userRepository.searchOrganizationMembers(organizationId, "ada", "%ada%", "ada%", 21, 0);
+    }
+
+    @Benchmark
+    public List<User> emailDomain() {
+        return userRepository.findByEmailDomain("corp.test");
+    }
+
+    private void seed(DataSource dataSource) throws SQLException {
+        String insertUser = "INSERT INTO observetask_users.users (id, email, password_hash, first_name, last_name, email_verified) "
+                + "VALUES (?, ?, ?, ?, ?, true)";
+        String insertRole = "INSERT INTO observetask_users.user_roles (user_id, organization_id, role, created_at) VALUES (?, ?, ?, ?)";
+        LocalDateTime joined = LocalDateTime.now().minusDays(members);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement users = connection.prepareStatement(insertUser);
+             PreparedStatement roles = connection.prepareStatement(insertRole)) {
+            connection.setAutoCommit(false);
+            for (int n = 0; n < members; n++) {
+                UUID userId = UUID.randomUUID();
+                users.setObject(1, userId);
+                users.setString(2, Fixtures.email(n));
+                users.setString(3, "$2a$12$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchmarkbe");
+                users.setString(4, Fixtures.firstName(n));
+                users.setString(5, Fixtures.lastName(n));
+                users.addBatch();
+                roles.setObject(1, userId);
+                roles.setObject(2, organizationId);
+                roles.setString(3, n == 0 ? "ORG_ADMIN" : "TEAM_MEMBER");
+                roles.setTimestamp(4, Timestamp.valueOf(joined.plusMinutes(n)));
+                roles.addBatch();
+                if (n % 1000 == 999) {
+                    users.executeBatch();
+                    roles.executeBatch();
+                }
+            }
+            users.executeBatch();
+            roles.executeBatch();
+            connection.commit();
+            connection.createStatement().execute("ANALYZE observetask_users.users");
+            connection.createStatement().execute("ANALYZE observetask_users.user_roles");
+        }
+    }
+}
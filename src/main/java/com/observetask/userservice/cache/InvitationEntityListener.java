@@ -0,0 +1,35 @@
+package com.observetask.userservice.cache;
+
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.observetask.userservice.entity.Invitation;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA callback on Invitation that turns row changes into WorkspaceInvalidationEvents
+ * The JDBC batch insert in InvitationService publishes its own event
+ */
+@Component
+public class InvitationEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InvitationEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Invitation invitation) {
+        if (invitation.getEmail() != null) {
+            eventPublisher.publishEvent(WorkspaceInvalidationEvent.invitations(List.of(invitation.getEmail())));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.observetask.userservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.observetask.userservice.entity.UserRole;
+import com.observetask.userservice.repository.UserRoleRepository;
+import com.observetask.userservice.security.UserPrincipal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache of UserPrincipal per (userId, organizationId)
+ *
+ * A null organizationId stands for the user's default (oldest) membership.
+ * The local tier is a size- and TTL-bounded Caffeine cache; the optional
+ * Redis tier (principal-cache.redis.enabled) is one hash per user so a
+ * user-wide invalidation is a single DEL. A miss in both loads the membership
+ * and user in one fetch-join query.
+ *
+ * Entries are evicted after commit whenever a User or UserRole row changes
+ * (PrincipalCacheEntityListener, PrincipalCacheInvalidationAspect), and the
+ * eviction is broadcast so other pods drop their local copy too.
+ */
+@Slf4j
+@Component
+public class PrincipalCache implements MessageListener {
+
+    static final String KEY_PREFIX = "observetask:principal:";
+    public static final String CHANNEL = "observetask:principal-invalidation";
+
+    private static final String DEFAULT_MEMBERSHIP = "default";
+    private static final String ALL_ORGANIZATIONS = "*";
+
+    private final UserRoleRepository userRoleRepository;
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final boolean redisEnabled;
+    private final Duration ttl;
+    private final Cache<PrincipalKey, UserPrincipal> local;
+
+    private final Counter redisHits;
+    private final Counter redisMisses;
+
+    public PrincipalCache(UserRoleRepository userRoleRepository,
+                          StringRedisTemplate redis,
+                          ObjectMapper objectMapper,
+                          RedisMessageListenerContainer listenerContainer,
+                          MeterRegistry meterRegistry,
+                          @Value("${principal-cache.maximum-size:50000}") long maximumSize,
+                          @Value("${principal-cache.ttl:PT5M}") Duration ttl,
+                          @Value("${principal-cache.redis.enabled:false}") boolean redisEnabled) {
+        this.userRoleRepository = userRoleRepository;
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.redisEnabled = redisEnabled;
+        this.ttl = ttl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "principal");
+        this.redisHits = Counter.builder("principal.cache.redis").tag("result", "hit").register(meterRegistry);
+        this.redisMisses = Counter.builder("principal.cache.redis").tag("result", "miss").register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Principal for the given membership, or for the default membership when organizationId is null
+     * Returns a copy; callers may modify it freely
+     */
+    public Optional<UserPrincipal> get(UUID userId, UUID organizationId) {
+        UserPrincipal cached = local.get(new PrincipalKey(userId, organizationId), this::loadShared);
+        return cached == null ? Optional.empty() : Optional.of(cached.toBuilder().build());
+    }
+
+    /**
+     * Seed the cache with a principal that was just built from fresh rows (e.g. on login)
+     */
+    public void put(UserPrincipal principal, boolean defaultMembership) {
+        UserPrincipal copy = principal.toBuilder().build();
+        local.put(new PrincipalKey(copy.getUserId(), copy.getOrganizationId()), copy);
+        writeShared(copy.getUserId(), field(copy.getOrganizationId()), copy);
+        if (defaultMembership) {
+            local.put(new PrincipalKey(copy.getUserId(), null), copy);
+            writeShared(copy.getUserId(), DEFAULT_MEMBERSHIP, copy);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(PrincipalInvalidationEvent event) {
+        evictLocal(event.userId(), event.organizationId());
+        try {
+            if (redisEnabled) {
+                if (event.affectsAllOrganizations()) {
+                    redis.delete(KEY_PREFIX + event.userId());
+                } else {
+                    redis.opsForHash().delete(KEY_PREFIX + event.userId(), field(event.organizationId()), DEFAULT_MEMBERSHIP);
+                }
+            }
+            redis.convertAndSend(CHANNEL, event.userId() + " "
+                    + (event.affectsAllOrganizations() ? ALL_ORGANIZATIONS : event.organizationId()));
+        } catch (DataAccessException e) {
+            log.warn("Principal invalidation for user {} not propagated, other pods expire it by TTL: {}", event.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply an invalidation broadcast by another pod (or echoed back to this one)
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(' ');
+        try {
+            UUID userId = UUID.fromString(body.substring(0, separator));
+            String organization = body.substring(separator + 1);
+            evictLocal(userId, ALL_ORGANIZATIONS.equals(organization) ? null : UUID.fromString(organization));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.warn("Ignoring malformed principal invalidation message: {}", body);
+        }
+    }
+
+    private void evictLocal(UUID userId, UUID organizationId) {
+        if (organizationId == null) {
+            local.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+        } else {
+            local.invalidate(new PrincipalKey(userId, organizationId));
+            local.invalidate(new PrincipalKey(userId, null));
+        }
+    }
+
+    private UserPrincipal loadShared(PrincipalKey key) {
+        if (redisEnabled) {
+            UserPrincipal shared = readShared(key);
+            if (shared != null) {
+                redisHits.increment();
+                return shared;
+            }
+            redisMisses.increment();
+        }
+        UserPrincipal loaded = loadFromDatabase(key);
+        if (loaded != null) {
+            writeShared(key.userId(), field(key.organizationId()), loaded);
+        }
+        return loaded;
+    }
+
+    private UserPrincipal loadFromDatabase(PrincipalKey key) {
+        Optional<UserRole> membership;
+        if (key.organizationId() != null) {
+            membership = userRoleRepository.findWithUserByUserIdAndOrganizationId(key.userId(), key.organizationId());
+        } else {
+            List<UserRole> memberships = userRoleRepository.findWithUserByUserIdOrderByCreatedAt(key.userId());
+            membership = memberships.stream().findFirst();
+        }
+        return membership.map(userRole -> UserPrincipal.from(userRole.getUser(), userRole)).orElse(null);
+    }
+
+    private UserPrincipal readShared(PrincipalKey key) {
+        try {
+            Object json = redis.opsForHash().get(KEY_PREFIX + key.userId(), field(key.organizationId()));
+            return json == null ? null : objectMapper.readValue(json.toString(), UserPrincipal.class);
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.debug("Principal cache Redis read failed for user {}: {}", key.userId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeShared(UUID userId, String field, UserPrincipal principal) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            String key = KEY_PREFIX + userId;
+            redis.opsForHash().put(key, field, objectMapper.writeValueAsString(principal));
+            redis.expire(key, ttl);
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.debug("Principal cache Redis write failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static String field(UUID organizationId) {
+        return organizationId == null ? DEFAULT_MEMBERSHIP : organizationId.toString();
+    }
+
+    private record PrincipalKey(UUID userId, UUID organizationId) {}
+}
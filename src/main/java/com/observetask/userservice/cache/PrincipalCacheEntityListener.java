@@ -0,0 +1,36 @@
+package com.observetask.userservice.cache;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.entity.UserRole;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA callback on User and UserRole that turns row changes into PrincipalInvalidationEvents
+ * Bulk JPQL updates bypass entity callbacks and are covered by PrincipalCacheInvalidationAspect
+ */
+@Component
+public class PrincipalCacheEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PrincipalCacheEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof User user && user.getId() != null) {
+            eventPublisher.publishEvent(PrincipalInvalidationEvent.user(user.getId()));
+        } else if (entity instanceof UserRole userRole && userRole.getUser() != null && userRole.getUser().getId() != null) {
+            eventPublisher.publishEvent(PrincipalInvalidationEvent.membership(userRole.getUser().getId(), userRole.getOrganizationId()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.observetask.userservice.cache;
+
+import java.util.UUID;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes PrincipalInvalidationEvents for bulk JPQL writes that bypass JPA entity callbacks
+ */
+@Aspect
+@Component
+public class PrincipalCacheInvalidationAspect {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PrincipalCacheInvalidationAspect(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @AfterReturning("execution(* com.observetask.userservice.repository.UserRepository.softDeleteUser(..)) && args(userId)")
+    public void afterUserBulkUpdate(UUID userId) {
+        eventPublisher.publishEvent(PrincipalInvalidationEvent.user(userId));
+    }
+
+    @AfterReturning("execution(* com.observetask.userservice.repository.UserRoleRepository.deleteAllByUserId(..)) && args(userId)")
+    public void afterMembershipsDeleted(UUID userId) {
+        eventPublisher.publishEvent(PrincipalInvalidationEvent.user(userId));
+    }
+
+    @AfterReturning("execution(* com.observetask.userservice.repository.UserRoleRepository.deleteByUserIdAndOrganizationId(..)) && args(userId, organizationId)")
+    public void afterMembershipDeleted(UUID userId, UUID organizationId) {
+        eventPublisher.publishEvent(PrincipalInvalidationEvent.membership(userId, organizationId));
+    }
+}
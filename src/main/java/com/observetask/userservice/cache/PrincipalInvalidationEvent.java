@@ -0,0 +1,25 @@
+package com.observetask.userservice.cache;
+
+import java.util.UUID;
+
+/**
+ * Published when a User or UserRole row changes
+ * organizationId is null when every membership of the user is affected
+ */
+public record PrincipalInvalidationEvent(
+    UUID userId,
+    UUID organizationId
+) {
+    // Factory methods
+    public static PrincipalInvalidationEvent user(UUID userId) {
+        return new PrincipalInvalidationEvent(userId, null);
+    }
+
+    public static PrincipalInvalidationEvent membership(UUID userId, UUID organizationId) {
+        return new PrincipalInvalidationEvent(userId, organizationId);
+    }
+
+    public boolean affectsAllOrganizations() {
+        return organizationId == null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.observetask.userservice.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published when invitations addressed to these (normalized) emails are created or change status
+ */
+public record WorkspaceInvalidationEvent(
+    Set<String> emails
+) {
+    // Factory methods
+    public static WorkspaceInvalidationEvent invitations(Collection<String> emails) {
+        return new WorkspaceInvalidationEvent(Set.copyOf(emails));
+    }
+}
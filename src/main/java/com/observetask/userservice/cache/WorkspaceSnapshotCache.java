@@ -0,0 +1,204 @@
+package com.observetask.userservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.observetask.userservice.dto.WorkspaceSnapshot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache of each user's WorkspaceSnapshot with its ETag
+ *
+ * A miss builds the snapshot in one query: Postgres aggregates memberships
+ * and actionable invitations into a JSON document and hashes it, so the ETag
+ * changes exactly when the content does. An entry lives until its TTL or
+ * until the first of its invitations expires, whichever comes first.
+ *
+ * Entries are dropped after commit when a UserRole row changes (through the
+ * PrincipalInvalidationEvents PrincipalCache already broadcasts) or when an
+ * invitation to the user's email changes (WorkspaceInvalidationEvent,
+ * broadcast on this cache's own channel by email).
+ */
+@Slf4j
+@Component
+public class WorkspaceSnapshotCache implements MessageListener {
+
+    static final String CHANNEL = "observetask:workspace-invalidation";
+
+    private static final String LOAD_SNAPSHOT =
+            "WITH me AS (" +
+            "    SELECT id, lower(email) AS email FROM observetask_users.users WHERE id = ? AND is_active" +
+            "), pending AS (" +
+            "    SELECT i.* FROM observetask_users.invitations i, me " +
+            "    WHERE i.email = me.email AND i.status = 'PENDING' AND i.expires_at > now()" +
+            "), doc AS (" +
+            "    SELECT me.email, json_build_object(" +
+            "        'memberships', COALESCE((" +
+            "            SELECT json_agg(json_build_object('organizationId', ur.organization_id, 'role', ur.role, " +
+            "                'joinedAt', ur.created_at) ORDER BY ur.created_at, ur.organization_id) " +
+            "            FROM observetask_users.user_roles ur WHERE ur.user_id = me.id), '[]'), " +
+            "        'invitations', COALESCE((" +
+            "            SELECT json_agg(json_build_object('id', p.id, 'organizationId', p.organization_id, 'role', p.role, " +
+            "                'invitedBy', p.invited_by, 'expiresAt', p.expires_at) ORDER BY p.created_at DESC, p.id) " +
+            "            FROM pending p), '[]')" +
+            "    )::text AS body " +
+            "    FROM me" +
+            ") " +
+            "SELECT doc.email, doc.body, md5(doc.body) AS etag, (SELECT min(expires_at) FROM pending) AS next_expiry FROM doc";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, Versioned> snapshots;
+    // which cached user an invitation email belongs to; entries may outlive their snapshot, never the reverse
+    private final Cache<String, UUID> usersByEmail;
+
+    public WorkspaceSnapshotCache(JdbcTemplate jdbcTemplate,
+                                  StringRedisTemplate redis,
+                                  ObjectMapper objectMapper,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${workspaces.cache.maximum-size:100000}") long maximumSize,
+                                  @Value("${workspaces.cache.ttl:PT10M}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<UUID, Versioned>() {
+                    @Override
+                    public long expireAfterCreate(UUID userId, Versioned entry, long currentTime) {
+                        return lifetime(entry, ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID userId, Versioned entry, long currentTime, long currentDuration) {
+                        return lifetime(entry, ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID userId, Versioned entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "workspaces");
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        listenerContainer.addMessageListener(this, new ChannelTopic(PrincipalCache.CHANNEL));
+    }
+
+    /**
+     * Snapshot of an active user; empty when the user does not exist or is deactivated
+     */
+    public Optional<Versioned> get(UUID userId) {
+        return Optional.ofNullable(snapshots.get(userId, this::load));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChange(PrincipalInvalidationEvent event) {
+        // PrincipalCache broadcasts this one to other pods
+        snapshots.invalidate(event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvitationChange(WorkspaceInvalidationEvent event) {
+        Set<String> emails = event.emails().stream().map(WorkspaceSnapshotCache::normalize).collect(Collectors.toSet());
+        evictByEmail(emails);
+        try {
+            redis.convertAndSend(CHANNEL, String.join("\n", emails));
+        } catch (DataAccessException e) {
+            log.warn("Workspace invalidation for {} emails not propagated, other pods expire it by TTL: {}", emails.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply an invalidation broadcast by another pod (or echoed back to this one)
+     * Invitation messages carry emails, one per line; principal messages start with the user id
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!CHANNEL.equals(new String(message.getChannel(), StandardCharsets.UTF_8))) {
+            int separator = body.indexOf(' ');
+            try {
+                snapshots.invalidate(UUID.fromString(separator < 0 ? body : body.substring(0, separator)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed principal invalidation message: {}", body);
+            }
+            return;
+        }
+        evictByEmail(body.lines().collect(Collectors.toSet()));
+    }
+
+    private void evictByEmail(Set<String> emails) {
+        usersByEmail.getAllPresent(emails).values().forEach(snapshots::invalidate);
+    }
+
+    private Versioned load(UUID userId) {
+        List<Versioned> rows = jdbcTemplate.query(LOAD_SNAPSHOT, (rs, rowNum) -> {
+            usersByEmail.put(rs.getString("email"), userId);
+            Timestamp nextExpiry = rs.getTimestamp("next_expiry");
+            return new Versioned('"' + rs.getString("etag") + '"', parse(rs.getString("body")),
+                    nextExpiry == null ? null : nextExpiry.toInstant());
+        }, userId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private WorkspaceSnapshot parse(String body) {
+        try {
+            return objectMapper.readValue(body, WorkspaceSnapshot.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable workspace snapshot", e);
+        }
+    }
+
+    private static Duration lifetime(Versioned entry, Duration ttl) {
+        if (entry.nextExpiry() == null) {
+            return ttl;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), entry.nextExpiry());
+        return untilExpiry.isNegative() ? Duration.ZERO : untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A snapshot with its strong ETag (quoted, ready for the header) and the moment its first invitation expires
+     */
+    public record Versioned(String etag, WorkspaceSnapshot snapshot, Instant nextExpiry) {}
+}
@@ -0,0 +1,80 @@
+package com.observetask.userservice.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.observetask.userservice.security.InMemoryJwtKeyStore;
+import com.observetask.userservice.security.JdbcJwtKeyStore;
+import com.observetask.userservice.security.JwtKeyStore;
+import com.observetask.userservice.security.SigningAlgorithm;
+
+/**
+ * Signing key configuration for ObserveTask access tokens
+ * jwt.signing.store=jdbc (default) shares keys across replicas; memory is for tests and offline runs
+ */
+@Configuration
+public class JwtKeyStoreConfig {
+
+    /**
+     * Retired keys stay verifiable for the access token lifetime plus this margin
+     */
+    private static final Duration RETENTION_MARGIN = Duration.ofMinutes(5);
+
+    private static final int ENCRYPTION_KEY_BYTES = 32;
+
+    @Bean
+    @ConditionalOnMissingBean(JwtKeyStore.class)
+    @ConditionalOnProperty(name = "jwt.signing.store", havingValue = "jdbc", matchIfMissing = true)
+    public JwtKeyStore jdbcJwtKeyStore(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${jwt.signing.algorithm:RS256}") String algorithm,
+                                       @Value("${jwt.signing.rotation-interval:P1D}") Duration rotationInterval,
+                                       @Value("${jwt.access-token-expiration}") long accessTokenExpirationMs,
+                                       @Value("${jwt.signing.key-encryption-key:}") String encryptionKey) {
+        return new JdbcJwtKeyStore(jdbcTemplate, new TransactionTemplate(transactionManager), signingAlgorithm(algorithm),
+                rotationInterval, retention(accessTokenExpirationMs), encryptionKey(encryptionKey), Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(JwtKeyStore.class)
+    @ConditionalOnProperty(name = "jwt.signing.store", havingValue = "memory")
+    public JwtKeyStore inMemoryJwtKeyStore(@Value("${jwt.signing.algorithm:RS256}") String algorithm,
+                                           @Value("${jwt.signing.rotation-interval:P1D}") Duration rotationInterval,
+                                           @Value("${jwt.access-token-expiration}") long accessTokenExpirationMs) {
+        return new InMemoryJwtKeyStore(signingAlgorithm(algorithm), rotationInterval, retention(accessTokenExpirationMs), Clock.systemUTC());
+    }
+
+    private static SigningAlgorithm signingAlgorithm(String algorithm) {
+        SigningAlgorithm signingAlgorithm = SigningAlgorithm.fromCode(algorithm);
+        if (signingAlgorithm == null) {
+            throw new IllegalArgumentException("Unsupported jwt.signing.algorithm: " + algorithm);
+        }
+        return signingAlgorithm;
+    }
+
+    private static Duration retention(long accessTokenExpirationMs) {
+        return Duration.ofMillis(accessTokenExpirationMs).plus(RETENTION_MARGIN);
+    }
+
+    private static SecretKey encryptionKey(String base64) {
+        byte[] key = base64.isBlank() ? new byte[0] : Base64.getDecoder().decode(base64.trim());
+        if (key.length != ENCRYPTION_KEY_BYTES) {
+            throw new IllegalStateException("jwt.signing.key-encryption-key must be a base64-encoded "
+                    + ENCRYPTION_KEY_BYTES + "-byte key when jwt.signing.store=jdbc");
+        }
+        return new SecretKeySpec(key, "AES");
+    }
+}
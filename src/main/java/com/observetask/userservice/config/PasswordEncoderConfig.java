@@ -1,5 +1,6 @@
 package com.observetask.userservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -13,7 +14,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class PasswordEncoderConfig {
 
     /**
-     * BCrypt password encoder with 12 salt rounds
+     * BCrypt password encoder with 12 salt rounds by default
      * 12 rounds provides strong security while maintaining reasonable performance
      * 
      * Performance reference:
@@ -21,10 +22,14 @@ public class PasswordEncoderConfig {
      * - 12 rounds: ~400ms per hash (recommended for 2024)
      * - 14 rounds: ~1.6s per hash
      * 
-     * @return BCryptPasswordEncoder configured with 12 salt rounds
+     * Raising security.password.bcrypt-strength does not require a mass reset:
+     * hashes below the configured strength are re-encoded on the next successful login
+     * (see PasswordHashingService). Hashing always runs on the dedicated hashing pool.
+     * 
+     * @return BCryptPasswordEncoder configured with the configured salt rounds
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:12}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.observetask.userservice.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.observetask.userservice.dto.LoginRequest;
+import com.observetask.userservice.dto.LoginResponse;
+import com.observetask.userservice.dto.RefreshTokenRequest;
+import com.observetask.userservice.service.AuthService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private static final int MAX_DEVICE_INFO_LENGTH = 500;
+
+    private final AuthService authService;
+
+    @PostMapping("/login")
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(authService.login(request, httpRequest.getRemoteAddr(), deviceInfo(httpRequest)));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest request, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(authService.refresh(request, httpRequest.getRemoteAddr(), deviceInfo(httpRequest)));
+    }
+
+    static String deviceInfo(HttpServletRequest request) {
+        String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+        if (userAgent == null || userAgent.length() <= MAX_DEVICE_INFO_LENGTH) {
+            return userAgent;
+        }
+        return userAgent.substring(0, MAX_DEVICE_INFO_LENGTH);
+    }
+}
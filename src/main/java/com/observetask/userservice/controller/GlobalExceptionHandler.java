@@ -0,0 +1,80 @@
+package com.observetask.userservice.controller;
+
+import java.time.Instant;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.observetask.userservice.dto.ErrorResponse;
+import com.observetask.userservice.exception.HashingCapacityExceededException;
+import com.observetask.userservice.exception.InvalidCursorException;
+import com.observetask.userservice.exception.LoginRateLimitedException;
+import com.observetask.userservice.exception.ProvisioningRunConflictException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Maps service exceptions to ErrorResponse bodies
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<ErrorResponse> handleBadCredentials(BadCredentialsException e, HttpServletRequest request) {
+        return error(HttpStatus.UNAUTHORIZED, "INVALID_CREDENTIALS", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException e, HttpServletRequest request) {
+        return error(HttpStatus.FORBIDDEN, "ACCESS_DENIED", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<ErrorResponse> handleHashingCapacityExceeded(HashingCapacityExceededException e, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(body("TOO_MANY_REQUESTS", e.getMessage(), request));
+    }
+
+    @ExceptionHandler(LoginRateLimitedException.class)
+    public ResponseEntity<ErrorResponse> handleLoginRateLimited(LoginRateLimitedException e, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(body("TOO_MANY_REQUESTS", e.getMessage(), request));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException e, HttpServletRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(ProvisioningRunConflictException.class)
+    public ResponseEntity<ErrorResponse> handleProvisioningRunConflict(ProvisioningRunConflictException e, HttpServletRequest request) {
+        return error(HttpStatus.CONFLICT, "PROVISIONING_RUN_CONFLICT", e.getMessage(), request);
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException e, HttpServletRequest request) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .findFirst()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .orElse("Invalid request");
+        return error(HttpStatus.BAD_REQUEST, "VALIDATION_FAILED", message, request);
+    }
+
+    static ResponseEntity<ErrorResponse> error(HttpStatus status, String code, String message, HttpServletRequest request) {
+        return ResponseEntity.status(status).body(body(code, message, request));
+    }
+
+    private static ErrorResponse body(String code, String message, HttpServletRequest request) {
+        return new ErrorResponse(code, message, Instant.now().toString(), request.getRequestURI());
+    }
+}
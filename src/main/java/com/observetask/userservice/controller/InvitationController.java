@@ -0,0 +1,45 @@
+package com.observetask.userservice.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.observetask.userservice.dto.BulkInviteRequest;
+import com.observetask.userservice.security.UserPrincipal;
+import com.observetask.userservice.service.InvitationService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/organizations/{organizationId}/invitations")
+@RequiredArgsConstructor
+public class InvitationController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final InvitationService invitationService;
+
+    /**
+     * Invite up to 10,000 people at once; one result line per row, streamed as chunks commit
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<StreamingResponseBody> bulkInvite(@PathVariable UUID organizationId,
+                                                            @Valid @RequestBody BulkInviteRequest request,
+                                                            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.canManageOrganization(organizationId)) {
+            throw new AccessDeniedException("Inviting members requires organization admin");
+        }
+        StreamingResponseBody body = out -> invitationService.inviteAll(organizationId, principal, request.invitations(), out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
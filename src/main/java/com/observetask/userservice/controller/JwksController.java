@@ -0,0 +1,65 @@
+package com.observetask.userservice.controller;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.observetask.userservice.security.JwtKeyStore;
+import com.observetask.userservice.security.JwtSigningKey;
+
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+
+/**
+ * Publishes the public signing keys so other services can verify access tokens locally
+ */
+@RestController
+public class JwksController {
+
+    /**
+     * Short enough that a freshly published next key is seen well before it starts signing
+     */
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final JwtKeyStore keyStore;
+
+    private volatile Rendered rendered = new Rendered(List.of(), "{\"keys\":[]}");
+
+    public JwksController(JwtKeyStore keyStore) {
+        this.keyStore = keyStore;
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        List<JwtSigningKey> keys = keyStore.publishedKeys();
+        Rendered current = rendered;
+        if (!current.keys().equals(keys)) {
+            current = new Rendered(keys, render(keys));
+            rendered = current;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CACHE_CONTROL)
+                .body(current.json());
+    }
+
+    private static String render(List<JwtSigningKey> keys) {
+        StringJoiner json = new StringJoiner(",", "{\"keys\":[", "]}");
+        for (JwtSigningKey key : keys) {
+            PublicJwk<?> jwk = Jwks.builder().key(key.publicKey())
+                    .id(key.keyId())
+                    .algorithm(key.algorithm().getCode())
+                    .publicKeyUse("sig")
+                    .build();
+            json.add(Jwks.json(jwk));
+        }
+        return json.toString();
+    }
+
+    private record Rendered(List<JwtSigningKey> keys, String json) {}
+}
@@ -0,0 +1,115 @@
+package com.observetask.userservice.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.observetask.userservice.dto.MemberCounts;
+import com.observetask.userservice.dto.MemberPageResponse;
+import com.observetask.userservice.dto.UserSearchResponse;
+import com.observetask.userservice.entity.OrganizationCounters;
+import com.observetask.userservice.repository.InactiveMember;
+import com.observetask.userservice.repository.OrganizationCountersRepository;
+import com.observetask.userservice.repository.UserRepository;
+import com.observetask.userservice.security.UserPrincipal;
+import com.observetask.userservice.service.MemberDirectoryService;
+import com.observetask.userservice.service.MemberDirectoryService.ExportFormat;
+import com.observetask.userservice.service.UserSearchService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/organizations/{organizationId}/users")
+@RequiredArgsConstructor
+public class OrganizationUserController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final int MAX_INACTIVE = 1000;
+
+    private final UserSearchService userSearchService;
+    private final MemberDirectoryService memberDirectoryService;
+    private final OrganizationCountersRepository organizationCountersRepository;
+    private final UserRepository userRepository;
+
+    @GetMapping
+    public ResponseEntity<MemberPageResponse> list(@PathVariable UUID organizationId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size,
+                                                   @AuthenticationPrincipal UserPrincipal principal) {
+        requireAccess(principal, organizationId);
+        return ResponseEntity.ok(memberDirectoryService.listMembers(organizationId, cursor, size));
+    }
+
+    /**
+     * Member and invitation counts from the precomputed counters; one primary-key read
+     */
+    @GetMapping("/counts")
+    public ResponseEntity<MemberCounts> counts(@PathVariable UUID organizationId,
+                                               @AuthenticationPrincipal UserPrincipal principal) {
+        requireAccess(principal, organizationId);
+        return ResponseEntity.ok(MemberCounts.from(organizationCountersRepository.findById(organizationId)
+                .orElseGet(() -> OrganizationCounters.empty(organizationId))));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable UUID organizationId,
+                                                        @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                        @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.canManageOrganization(organizationId)) {
+            throw new AccessDeniedException("Exporting members requires organization admin");
+        }
+        String filename = "members-" + organizationId + (format == ExportFormat.CSV ? ".csv" : ".ndjson");
+        StreamingResponseBody body = out -> memberDirectoryService.export(organizationId, format, out);
+        return ResponseEntity.ok()
+                .contentType(format == ExportFormat.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Members with no activity since the given time, longest inactive first, for license reclamation
+     * Activity is written in batches every few seconds, so the most recent touches may not show yet
+     */
+    @GetMapping("/inactive")
+    public ResponseEntity<List<InactiveMember>> inactive(@PathVariable UUID organizationId,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                                         @RequestParam(defaultValue = "100") int limit,
+                                                         @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.canManageOrganization(organizationId)) {
+            throw new AccessDeniedException("Listing inactive members requires organization admin");
+        }
+        return ResponseEntity.ok(userRepository.findInactiveMembers(organizationId, since,
+                Limit.of(Math.max(1, Math.min(limit, MAX_INACTIVE)))));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchResponse> search(@PathVariable UUID organizationId,
+                                                     @RequestParam("q") String query,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "20") int size,
+                                                     @AuthenticationPrincipal UserPrincipal principal) {
+        requireAccess(principal, organizationId);
+        return ResponseEntity.ok(userSearchService.search(organizationId, query, page, size));
+    }
+
+    static void requireAccess(UserPrincipal principal, UUID organizationId) {
+        if (!principal.canAccessOrganization(organizationId)) {
+            throw new AccessDeniedException("Not a member of this organization");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.observetask.userservice.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.observetask.userservice.dto.PermissionCheckRequest;
+import com.observetask.userservice.dto.PermissionCheckResponse;
+import com.observetask.userservice.security.PermissionEvaluator;
+import com.observetask.userservice.security.UserPrincipal;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/permissions")
+@RequiredArgsConstructor
+public class PermissionController {
+
+    private final PermissionEvaluator permissionEvaluator;
+
+    /**
+     * Evaluate up to 1,000 (user, organization, action) checks in one call
+     * The caller must be able to read every organization it asks about, and users
+     * are only answered for organizations they are members of
+     */
+    @PostMapping("/evaluate")
+    public ResponseEntity<PermissionCheckResponse> evaluate(@Valid @RequestBody PermissionCheckRequest request,
+                                                            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!request.checks().stream().allMatch(check -> principal.canAccessOrganization(check.organizationId()))) {
+            throw new AccessDeniedException("Permission checks are limited to organizations the caller can access");
+        }
+        return ResponseEntity.ok(new PermissionCheckResponse(permissionEvaluator.evaluateFor(principal.getUserId(), request.checks())));
+    }
+}
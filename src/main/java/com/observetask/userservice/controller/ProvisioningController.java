@@ -0,0 +1,60 @@
+package com.observetask.userservice.controller;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.dto.ProvisionedIdentity;
+import com.observetask.userservice.dto.ProvisioningSummary;
+import com.observetask.userservice.entity.AuthProvider;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.security.UserPrincipal;
+import com.observetask.userservice.service.ProvisioningService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/organizations/{organizationId}/provisioning")
+@RequiredArgsConstructor
+public class ProvisioningController {
+
+    private final ProvisioningService provisioningService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Sync the organization's identities from a directory feed (NDJSON or a JSON array), read as a stream
+     * Resend the same feed with the returned runId to resume an interrupted run
+     */
+    @PostMapping("/{provider}")
+    public ResponseEntity<ProvisioningSummary> sync(@PathVariable UUID organizationId,
+                                                    @PathVariable AuthProvider provider,
+                                                    @RequestParam(required = false) UUID runId,
+                                                    @RequestParam(defaultValue = "false") boolean fullSync,
+                                                    @AuthenticationPrincipal UserPrincipal principal,
+                                                    HttpServletRequest request) throws IOException {
+        if (!principal.canManageOrganization(organizationId)) {
+            throw new AccessDeniedException("Provisioning requires organization admin");
+        }
+        if (!provider.isSsoProvider()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only SSO identities can be provisioned");
+        }
+        try (MappingIterator<ProvisionedIdentity> feed =
+                     objectMapper.readerFor(ProvisionedIdentity.class).readValues(request.getInputStream())) {
+            return ResponseEntity.ok(provisioningService.sync(organizationId, provider,
+                    runId == null ? UUID.randomUUID() : runId, fullSync, Role.valueOf(principal.getRole()), feed));
+        }
+    }
+}
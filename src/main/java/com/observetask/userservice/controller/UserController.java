@@ -0,0 +1,73 @@
+package com.observetask.userservice.controller;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.observetask.userservice.cache.PrincipalCache;
+import com.observetask.userservice.cache.WorkspaceSnapshotCache;
+import com.observetask.userservice.dto.SessionInfo;
+import com.observetask.userservice.dto.UserProfile;
+import com.observetask.userservice.dto.WorkspaceSnapshot;
+import com.observetask.userservice.security.SessionRegistry;
+import com.observetask.userservice.security.UserPrincipal;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/users")
+@RequiredArgsConstructor
+public class UserController {
+
+    private final PrincipalCache principalCache;
+    private final SessionRegistry sessionRegistry;
+    private final WorkspaceSnapshotCache workspaceSnapshotCache;
+
+    @GetMapping("/profile")
+    public ResponseEntity<UserProfile> profile(@AuthenticationPrincipal UserPrincipal principal) {
+        return principalCache.get(principal.getUserId(), principal.getOrganizationId())
+                .map(UserProfile::from)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The caller's memberships and pending invitations
+     * Sent with an ETag; a request whose If-None-Match still matches gets an empty 304
+     */
+    @GetMapping("/workspaces")
+    public ResponseEntity<WorkspaceSnapshot> workspaces(@AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceSnapshotCache.get(principal.getUserId())
+                .map(versioned -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .eTag(versioned.etag())
+                        .body(versioned.snapshot()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The caller's signed-in devices (refresh-token families)
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionInfo>> sessions(@AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(sessionRegistry.list(principal.getUserId()));
+    }
+
+    /**
+     * Sign one of the caller's devices out; its refresh token stops working at once, its access token at expiry
+     */
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> revokeSession(@PathVariable UUID sessionId, @AuthenticationPrincipal UserPrincipal principal) {
+        return sessionRegistry.revoke(principal.getUserId(), sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
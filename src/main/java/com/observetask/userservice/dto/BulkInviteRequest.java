@@ -0,0 +1,20 @@
+package com.observetask.userservice.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Invitations to create in one organization; rows are validated one by one and reported per row
+ */
+public record BulkInviteRequest(
+    @NotEmpty @Size(max = 10_000) List<Entry> invitations
+) {
+    public record Entry(
+        String email,
+        String role,
+        String firstName,
+        String lastName
+    ) {}
+}
@@ -0,0 +1,30 @@
+package com.observetask.userservice.dto;
+
+/**
+ * Outcome of one bulk invitation row, streamed back in request order as NDJSON
+ * The token is returned once, to the inviting admin, for INVITED rows only; it is never logged or published
+ */
+public record BulkInviteResult(
+    int index,
+    String email,
+    Status status,
+    String invitationId,
+    String token,
+    String message
+) {
+    public enum Status {
+        INVITED,
+        ALREADY_INVITED,   // a pending, unexpired invitation to the organization exists
+        ALREADY_MEMBER,
+        DUPLICATE,         // the same email appears earlier in the request
+        INVALID
+    }
+
+    public static BulkInviteResult invited(int index, String email, String invitationId, String token) {
+        return new BulkInviteResult(index, email, Status.INVITED, invitationId, token, null);
+    }
+
+    public static BulkInviteResult rejected(int index, String email, Status status, String message) {
+        return new BulkInviteResult(index, email, status, null, null, message);
+    }
+}
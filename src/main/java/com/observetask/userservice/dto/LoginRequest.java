@@ -1,5 +1,10 @@
 package com.observetask.userservice.dto;
 
-public class LoginRequest {
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
 
-}
+public record LoginRequest(
+    @NotBlank @Email String email,
+    @NotBlank String password,
+    String organizationId
+) {}
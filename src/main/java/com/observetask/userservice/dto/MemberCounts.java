@@ -0,0 +1,25 @@
+package com.observetask.userservice.dto;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.OrganizationCounters;
+import com.observetask.userservice.entity.Role;
+
+public record MemberCounts(
+    UUID organizationId,
+    int activeMembers,
+    Map<Role, Integer> activeMembersByRole,
+    int pendingInvitations
+) {
+    // Factory method for easy creation
+    public static MemberCounts from(OrganizationCounters counters) {
+        Map<Role, Integer> byRole = new EnumMap<>(Role.class);
+        for (Role role : Role.values()) {
+            byRole.put(role, counters.getActiveMembers(role));
+        }
+        return new MemberCounts(counters.getOrganizationId(), counters.getActiveMembers(), byRole,
+                counters.getPendingInvitations());
+    }
+}
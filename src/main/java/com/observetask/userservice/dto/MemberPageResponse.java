@@ -0,0 +1,9 @@
+package com.observetask.userservice.dto;
+
+import java.util.List;
+
+public record MemberPageResponse(
+    List<UserProfile> members,
+    int size,
+    String nextCursor // null on the last page
+) {}
@@ -0,0 +1,24 @@
+package com.observetask.userservice.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.observetask.userservice.security.Permission;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Authorization questions from another service, answered together by PermissionEvaluator
+ */
+public record PermissionCheckRequest(
+    @NotEmpty @Size(max = 1_000) List<@Valid @NotNull Check> checks
+) {
+    public record Check(
+        @NotNull UUID userId,
+        @NotNull UUID organizationId,
+        @NotNull Permission action
+    ) {}
+}
@@ -0,0 +1,8 @@
+package com.observetask.userservice.dto;
+
+/**
+ * One answer per check, in request order
+ */
+public record PermissionCheckResponse(
+    boolean[] allowed
+) {}
@@ -0,0 +1,17 @@
+package com.observetask.userservice.dto;
+
+/**
+ * One identity of a directory feed; active=false deprovisions it, role applies to new memberships only
+ */
+public record ProvisionedIdentity(
+    String externalId,
+    String email,
+    String firstName,
+    String lastName,
+    Boolean active,
+    String role
+) {
+    public boolean isActive() {
+        return active == null || active;
+    }
+}
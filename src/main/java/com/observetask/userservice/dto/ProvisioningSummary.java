@@ -0,0 +1,25 @@
+package com.observetask.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Totals of a provisioning run so far; rejections are listed for this request only and capped
+ * deactivated counts memberships removed from the organization, updated includes members added from other tenants
+ */
+public record ProvisioningSummary(
+    String runId,
+    String status,
+    long processedRows,
+    long resumedFromRow,
+    int created,
+    int updated,
+    int deactivated,
+    int rejected,
+    List<Rejection> rejections
+) {
+    public record Rejection(
+        long row,
+        String externalId,
+        String reason
+    ) {}
+}
@@ -4,5 +4,6 @@ import jakarta.validation.constraints.NotBlank;
 
 public record RefreshTokenRequest(
     @NotBlank(message = "Refresh token is required")
-    String refreshToken
+    String refreshToken,
+    String organizationId
 ) {}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.observetask.userservice.dto;
+
+import java.time.Instant;
+
+/**
+ * One signed-in device: a refresh-token family, from its login until the current token expires
+ */
+public record SessionInfo(
+    String id,
+    Instant startedAt,
+    Instant expiresAt,
+    String deviceInfo,
+    String ipAddress
+) {}
@@ -1,5 +1,7 @@
 package com.observetask.userservice.dto;
 
+import com.observetask.userservice.security.UserPrincipal;
+
 public record UserProfile(
     String id,
     String email,
@@ -9,6 +11,19 @@ public record UserProfile(
     String organizationId,
     boolean isActive
 ) {
+    // Factory method for easy creation
+    public static UserProfile from(UserPrincipal principal) {
+        return new UserProfile(
+            principal.getUserId().toString(),
+            principal.getEmail(),
+            principal.getFirstName(),
+            principal.getLastName(),
+            principal.getRole(),
+            principal.getOrganizationId() != null ? principal.getOrganizationId().toString() : null,
+            principal.isActive()
+        );
+    }
+
     public String fullName() {
         if (firstName != null && lastName != null) {
             return firstName + " " + lastName;
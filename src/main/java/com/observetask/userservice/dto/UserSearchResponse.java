@@ -0,0 +1,14 @@
+package com.observetask.userservice.dto;
+
+import java.util.List;
+
+public record UserSearchResponse(
+    List<UserProfile> results,
+    int page,
+    int size,
+    boolean hasMore
+) {
+    public static UserSearchResponse empty(int page, int size) {
+        return new UserSearchResponse(List.of(), page, size, false);
+    }
+}
@@ -0,0 +1,21 @@
+package com.observetask.userservice.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.Role;
+
+/**
+ * Everything the organization switcher needs: the caller's memberships, oldest (default) first,
+ * and the invitations still waiting for their email, newest first
+ */
+public record WorkspaceSnapshot(
+    List<Membership> memberships,
+    List<PendingInvitation> invitations
+) {
+
+    public record Membership(UUID organizationId, Role role, Instant joinedAt) {}
+
+    public record PendingInvitation(UUID id, UUID organizationId, Role role, UUID invitedBy, Instant expiresAt) {}
+}
@@ -0,0 +1,35 @@
+package com.observetask.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "jwt_blacklist", schema = "observetask_users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlacklistedToken {
+
+    @Id
+    @Column(name = "token_jti", nullable = false, length = 255)
+    private String tokenJti;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Helper methods
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiresAt);
+    }
+}
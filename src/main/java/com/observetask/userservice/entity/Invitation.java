@@ -7,11 +7,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.hibernate.annotations.CreationTimestamp;
 
+import com.observetask.userservice.cache.InvitationEntityListener;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "invitations", schema = "observetask_users")
+@EntityListeners(InvitationEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,8 +42,9 @@ public class Invitation {
     @Column(name = "role", nullable = false, length = 20)
     private Role role;
 
-    @Column(name = "token", nullable = false, unique = true, length = 255)
-    private String token;
+    // SHA-256 of the token sent in the invitation link; the token itself is never stored
+    @Column(name = "token_digest", nullable = false, length = 32)
+    private byte[] tokenDigest;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 20)
@@ -0,0 +1,60 @@
+package com.observetask.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.hibernate.annotations.Immutable;
+
+import java.util.UUID;
+
+/**
+ * Per-organization counters maintained by database triggers (V11); read-only here
+ */
+@Entity
+@Immutable
+@Table(name = "organization_counters", schema = "observetask_users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrganizationCounters {
+
+    @Id
+    @Column(name = "organization_id", nullable = false)
+    private UUID organizationId;
+
+    @Column(name = "super_admins", nullable = false)
+    private int superAdmins;
+
+    @Column(name = "org_admins", nullable = false)
+    private int orgAdmins;
+
+    @Column(name = "team_admins", nullable = false)
+    private int teamAdmins;
+
+    @Column(name = "team_members", nullable = false)
+    private int teamMembers;
+
+    @Column(name = "pending_invitations", nullable = false)
+    private int pendingInvitations; // PENDING rows, including expired ones the sweeper has not marked yet
+
+    // Helper methods
+    public int getActiveMembers() {
+        return superAdmins + orgAdmins + teamAdmins + teamMembers;
+    }
+
+    public int getActiveMembers(Role role) {
+        return switch (role) {
+            case SUPER_ADMIN -> superAdmins;
+            case ORG_ADMIN -> orgAdmins;
+            case TEAM_ADMIN -> teamAdmins;
+            case TEAM_MEMBER -> teamMembers;
+        };
+    }
+
+    public static OrganizationCounters empty(UUID organizationId) {
+        return OrganizationCounters.builder().organizationId(organizationId).build();
+    }
+}
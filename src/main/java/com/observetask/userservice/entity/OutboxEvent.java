@@ -0,0 +1,50 @@
+package com.observetask.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "outbox_events", schema = "observetask_users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // Read model for OutboxRelay; rows are inserted by DomainEventPublisher, which draws the id
+    // under a per-aggregate lock so id order is commit order per aggregate
+    @Id
+    @Column(name = "id", updatable = false)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, unique = true)
+    private UUID eventId; // sent as a header so consumers can drop redeliveries
+
+    @Column(name = "topic", nullable = false, length = 255)
+    private String topic;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId; // Kafka key
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    // Exactly one of payload (JSON) and payloadBinary (EventCodec) is set, see outbox.payload-format
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", columnDefinition = "jsonb")
+    private String payload;
+
+    @Column(name = "payload_binary")
+    private byte[] payloadBinary;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -24,14 +26,23 @@ public class RefreshToken {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @Column(name = "token_hash", nullable = false, unique = true, length = 255)
     private String tokenHash;
 
+    // All tokens descending from one login share a family; reuse of a consumed token revokes it
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
 
+    @Column(name = "used_at")
+    private LocalDateTime usedAt; // set when the token is rotated; null while it can still be used
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -48,7 +59,7 @@ public class RefreshToken {
     }
 
     public boolean isValid() {
-        return !isExpired();
+        return !isExpired() && usedAt == null;
     }
 
     public long getDaysUntilExpiration() {
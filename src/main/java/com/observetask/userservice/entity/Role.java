@@ -6,6 +6,14 @@ public enum Role {
     TEAM_ADMIN("TEAM_ADMIN", "Team administrator"),
     TEAM_MEMBER("TEAM_MEMBER", "Team member");
 
+    // Roles each role may assign, one bit per role ordinal (bit 0 = SUPER_ADMIN)
+    private static final int[] ASSIGNABLE_ROLES = {
+        0b1111, // SUPER_ADMIN: any role
+        0b1110, // ORG_ADMIN: all except SUPER_ADMIN
+        0b1000, // TEAM_ADMIN: only TEAM_MEMBER
+        0b0000  // TEAM_MEMBER: none
+    };
+
     private final String code;
     private final String description;
 
@@ -39,20 +47,10 @@ public enum Role {
 
     /**
      * Check if this role can assign the given role
+     * A table lookup and a mask; no branches on the hot authorization path
      */
     public boolean canAssignRole(Role roleToAssign) {
-        switch (this) {
-            case SUPER_ADMIN:
-                return true; // Can assign any role
-            case ORG_ADMIN:
-                return roleToAssign != SUPER_ADMIN; // Can assign all except SUPER_ADMIN
-            case TEAM_ADMIN:
-                return roleToAssign == TEAM_MEMBER; // Can only assign TEAM_MEMBER
-            case TEAM_MEMBER:
-                return false; // Cannot assign any roles
-            default:
-                return false;
-        }
+        return (ASSIGNABLE_ROLES[ordinal()] & (1 << roleToAssign.ordinal())) != 0;
     }
 
     /**
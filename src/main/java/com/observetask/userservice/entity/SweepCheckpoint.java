@@ -0,0 +1,34 @@
+package com.observetask.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "sweep_checkpoints", schema = "observetask_users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SweepCheckpoint {
+
+    @Id
+    @Column(name = "task", nullable = false, length = 64)
+    private String task;
+
+    @Column(name = "checkpoint_at", nullable = false)
+    private LocalDateTime checkpointAt; // rows expiring before this are done
+
+    @Column(name = "rows_processed", nullable = false)
+    @Builder.Default
+    private Long rowsProcessed = 0L; // lifetime total
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -5,9 +5,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.observetask.userservice.cache.PrincipalCacheEntityListener;
+import com.observetask.userservice.security.RegisteredEmailListener;
+
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -15,6 +20,8 @@ import java.util.List;
 import java.util.UUID;
 @Entity
 @Table(name = "users", schema = "observetask_users")
+@EntityListeners({PrincipalCacheEntityListener.class, RegisteredEmailListener.class})
+@NamedEntityGraph(name = "User.roles", attributeNodes = @NamedAttributeNode("roles"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +36,9 @@ public class User {
     @Column(name = "email", nullable = false, unique = true, length = 255)
     private String email;
 
+    @Column(name = "email_domain", insertable = false, updatable = false, length = 255)
+    private String emailDomain; // generated by the database from email
+
     @Column(name = "password_hash", nullable = true, length = 255)
     private String passwordHash; // null for SSO users
 
@@ -62,14 +72,23 @@ public class User {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Written only in batches by UserActivityTracker, never through the entity
+    @Column(name = "last_active_at", insertable = false, updatable = false)
+    private LocalDateTime lastActiveAt;
+
     // One user can have multiple roles across different organizations
+    // Excluded from equals/hashCode/toString: touching a lazy collection there costs a query per user
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<UserRole> roles = new ArrayList<>();
 
     // One user can have multiple refresh tokens (different devices)
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<RefreshToken> refreshTokens = new ArrayList<>();
 
     // Helper methods
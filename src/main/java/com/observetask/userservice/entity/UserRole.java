@@ -5,14 +5,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
+import com.observetask.userservice.cache.PrincipalCacheEntityListener;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "user_roles", schema = "observetask_users",
        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "organization_id"}))
+@EntityListeners(PrincipalCacheEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +30,8 @@ public class UserRole {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @Column(name = "organization_id", nullable = false)
@@ -0,0 +1,25 @@
+package com.observetask.userservice.event;
+
+import java.util.UUID;
+
+/**
+ * Event published to Kafka through the transactional outbox
+ * Events of one aggregate share a Kafka key, so consumers see them in order
+ */
+public interface DomainEvent {
+
+    String USER_TOPIC = "observetask.user.events";
+    String INVITATION_TOPIC = "observetask.invitation.events";
+
+    /**
+     * Event type, e.g. user.created
+     */
+    String type();
+
+    /**
+     * Kafka key and ordering scope
+     */
+    UUID aggregateId();
+
+    String topic();
+}
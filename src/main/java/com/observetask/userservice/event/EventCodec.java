@@ -0,0 +1,341 @@
+package com.observetask.userservice.event;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Compact, versioned binary encoding of DomainEvents for Kafka payloads
+ *
+ * Layout: MAGIC, FORMAT_VERSION, schema id, then the record's components in
+ * declaration order. Strings are a varint of (UTF-8 length + 1) with 0 for
+ * null; known event types are a one-byte dictionary index instead; UUIDs are
+ * a presence byte plus 16 bytes; timestamps are zigzag-varint epoch seconds
+ * plus varint nanos. Schemas evolve by appending fields only: older decoders
+ * ignore trailing bytes, newer decoders default fields an older writer did
+ * not send.
+ *
+ * decode() also accepts the JSON payloads written before the binary format
+ * (first byte '{' or whitespace, never MAGIC), so consumers can switch before
+ * producers do.
+ */
+public final class EventCodec {
+
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.observetask.event.v1";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    static final byte MAGIC = (byte) 0xE7;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final byte USER_EVENT = 1;
+    private static final byte USER_ROLE_EVENT = 2;
+    private static final byte INVITATION_EVENT = 3;
+
+    // Append only: the index is the wire code
+    private static final List<String> KNOWN_TYPES = List.of(
+            UserEvent.CREATED, UserEvent.UPDATED, UserEvent.DEACTIVATED,
+            UserRoleEvent.ASSIGNED, UserRoleEvent.UPDATED, UserRoleEvent.REMOVED,
+            InvitationEvent.INVITED, InvitationEvent.STATUS_CHANGED);
+    private static final int LITERAL_TYPE = 0xFF;
+
+    private static final Map<String, Class<? extends DomainEvent>> JSON_TYPES = Map.of(
+            UserEvent.CREATED, UserEvent.class,
+            UserEvent.UPDATED, UserEvent.class,
+            UserEvent.DEACTIVATED, UserEvent.class,
+            UserRoleEvent.ASSIGNED, UserRoleEvent.class,
+            UserRoleEvent.UPDATED, UserRoleEvent.class,
+            UserRoleEvent.REMOVED, UserRoleEvent.class,
+            InvitationEvent.INVITED, InvitationEvent.class,
+            InvitationEvent.STATUS_CHANGED, InvitationEvent.class);
+
+    // BigDecimal keeps nanosecond timestamps exact while the payload is held as a tree
+    private static final ObjectMapper JSON = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private EventCodec() {
+    }
+
+    public static byte[] encode(DomainEvent event) {
+        Output out = new Output(128);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        if (event instanceof UserEvent e) {
+            out.writeByte(USER_EVENT);
+            out.writeType(e.type());
+            out.writeUuid(e.userId());
+            out.writeString(e.email());
+            out.writeString(e.firstName());
+            out.writeString(e.lastName());
+            out.writeBoolean(e.active());
+            out.writeInstant(e.occurredAt());
+        } else if (event instanceof UserRoleEvent e) {
+            out.writeByte(USER_ROLE_EVENT);
+            out.writeType(e.type());
+            out.writeUuid(e.userId());
+            out.writeUuid(e.organizationId());
+            out.writeString(e.role());
+            out.writeInstant(e.occurredAt());
+        } else if (event instanceof InvitationEvent e) {
+            out.writeByte(INVITATION_EVENT);
+            out.writeType(e.type());
+            out.writeUuid(e.invitationId());
+            out.writeUuid(e.organizationId());
+            out.writeString(e.email());
+            out.writeString(e.role());
+            out.writeString(e.status());
+            out.writeUuid(e.invitedBy());
+            out.writeLocalDateTime(e.expiresAt());
+            out.writeInstant(e.occurredAt());
+        } else {
+            throw new IllegalArgumentException("No binary schema for " + event.getClass().getName());
+        }
+        return out.toByteArray();
+    }
+
+    public static DomainEvent decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Empty event payload");
+        }
+        return isBinary(data) ? decodeBinary(data) : decodeJson(data);
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    private static DomainEvent decodeBinary(byte[] data) {
+        Input in = new Input(data);
+        in.readByte(); // MAGIC
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported event format version " + version);
+        }
+        byte schema = in.readByte();
+        return switch (schema) {
+            case USER_EVENT -> new UserEvent(in.readType(), in.readUuid(), in.readString(), in.readString(),
+                    in.readString(), in.readBoolean(), in.readInstant());
+            case USER_ROLE_EVENT -> new UserRoleEvent(in.readType(), in.readUuid(), in.readUuid(), in.readString(),
+                    in.readInstant());
+            case INVITATION_EVENT -> new InvitationEvent(in.readType(), in.readUuid(), in.readUuid(), in.readString(),
+                    in.readString(), in.readString(), in.readUuid(), in.readLocalDateTime(), in.readInstant());
+            default -> throw new IllegalArgumentException("Unknown event schema " + schema);
+        };
+    }
+
+    private static DomainEvent decodeJson(byte[] data) {
+        try {
+            JsonNode tree = JSON.readTree(data);
+            String type = tree.path("type").asText(null);
+            Class<? extends DomainEvent> eventClass = type == null ? null : JSON_TYPES.get(type);
+            if (eventClass == null) {
+                throw new IllegalArgumentException("Unknown event type " + type);
+            }
+            return JSON.treeToValue(tree, eventClass);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON event payload", e);
+        }
+    }
+
+    private static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeType(String type) {
+            int code = KNOWN_TYPES.indexOf(type);
+            if (code >= 0) {
+                writeByte(code);
+            } else {
+                writeByte(LITERAL_TYPE);
+                writeString(type);
+            }
+        }
+
+        void writeUuid(UUID value) {
+            if (value == null) {
+                writeByte(0);
+                return;
+            }
+            writeByte(1);
+            writeLong(value.getMostSignificantBits());
+            writeLong(value.getLeastSignificantBits());
+        }
+
+        void writeInstant(Instant value) {
+            if (value == null) {
+                writeByte(0);
+                return;
+            }
+            writeByte(1);
+            writeVarLong(zigzag(value.getEpochSecond()));
+            writeVarLong(value.getNano());
+        }
+
+        void writeLocalDateTime(LocalDateTime value) {
+            writeInstant(value == null ? null : value.toInstant(ZoneOffset.UTC));
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] data;
+        private int position;
+
+        Input(byte[] data) {
+            this.data = data;
+        }
+
+        private boolean exhausted() {
+            return position >= data.length;
+        }
+
+        byte readByte() {
+            if (exhausted()) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            return data[position++];
+        }
+
+        // Fields a newer schema appended are absent in older payloads and read as defaults
+
+        boolean readBoolean() {
+            return !exhausted() && readByte() != 0;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in event payload");
+        }
+
+        String readString() {
+            if (exhausted()) {
+                return null;
+            }
+            long length = readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > data.length - position) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        String readType() {
+            int code = readByte() & 0xFF;
+            if (code == LITERAL_TYPE) {
+                return readString();
+            }
+            if (code >= KNOWN_TYPES.size()) {
+                throw new IllegalArgumentException("Unknown event type code " + code);
+            }
+            return KNOWN_TYPES.get(code);
+        }
+
+        UUID readUuid() {
+            if (exhausted() || readByte() == 0) {
+                return null;
+            }
+            return new UUID(readLong(), readLong());
+        }
+
+        Instant readInstant() {
+            if (exhausted() || readByte() == 0) {
+                return null;
+            }
+            long zigzag = readVarLong();
+            long epochSecond = (zigzag >>> 1) ^ -(zigzag & 1);
+            return Instant.ofEpochSecond(epochSecond, readVarLong());
+        }
+
+        LocalDateTime readLocalDateTime() {
+            Instant instant = readInstant();
+            return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.observetask.userservice.event;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.Invitation;
+
+/**
+ * Invitation lifecycle event; never carries the invitation token
+ */
+public record InvitationEvent(
+    String type,
+    UUID invitationId,
+    UUID organizationId,
+    String email,
+    String role,
+    String status,
+    UUID invitedBy,
+    LocalDateTime expiresAt,
+    Instant occurredAt
+) implements DomainEvent {
+
+    public static final String INVITED = "user.invited";
+    public static final String STATUS_CHANGED = "invitation.status.changed";
+
+    // Factory methods
+    public static InvitationEvent invited(Invitation invitation) {
+        return of(INVITED, invitation);
+    }
+
+    public static InvitationEvent statusChanged(Invitation invitation) {
+        return of(STATUS_CHANGED, invitation);
+    }
+
+    private static InvitationEvent of(String type, Invitation invitation) {
+        return new InvitationEvent(type, invitation.getId(), invitation.getOrganizationId(), invitation.getEmail(),
+                invitation.getRole().name(), invitation.getStatus().name(), invitation.getInvitedBy(),
+                invitation.getExpiresAt(), Instant.now());
+    }
+
+    @Override
+    public UUID aggregateId() {
+        return invitationId;
+    }
+
+    @Override
+    public String topic() {
+        return INVITATION_TOPIC;
+    }
+}
@@ -0,0 +1,183 @@
+package com.observetask.userservice.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.observetask.userservice.entity.OutboxEvent;
+import com.observetask.userservice.repository.OutboxEventRepository;
+import com.observetask.userservice.sweeper.AdvisoryLock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the outbox to Kafka in batches
+ *
+ * A batch is read in id order, sent without waiting per record (the producer
+ * lingers and compresses), flushed, and only the acknowledged rows are
+ * deleted. When a send fails, later events of the same aggregate stay in the
+ * outbox as well and are resent after it, so the last delivery of every event
+ * is in per-aggregate order; delivery is at-least-once and consumers dedupe on
+ * the event-id header.
+ *
+ * Ids are in commit order per aggregate (DomainEventPublisher draws them
+ * under a per-aggregate transaction lock), so a later event of an aggregate
+ * never becomes visible before an earlier one; reading in id order and
+ * relaying from one pod at a time (advisory lock) keeps that order on the
+ * wire. Events of different aggregates may be sent in any relative order.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    static final long LOCK_KEY = 0x4f54_4f55_5442_4f58L;
+
+    static final String EVENT_ID_HEADER = "event-id";
+    static final String EVENT_TYPE_HEADER = "event-type";
+    static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final AdvisoryLock advisoryLock;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final Counter published;
+    private final Counter failed;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       @Qualifier("outboxKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate,
+                       AdvisoryLock advisoryLock,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:PT30S}") Duration sendTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.advisoryLock = advisoryLock;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.published = Counter.builder("outbox.relay.events").tag("result", "published").register(meterRegistry);
+        this.failed = Counter.builder("outbox.relay.events").tag("result", "failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch.duration").register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Seconds between append and publish of the last relayed event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:PT0.2S}")
+    public void relay() {
+        try {
+            advisoryLock.runExclusively(LOCK_KEY, this::drain);
+        } catch (DataAccessException e) {
+            log.warn("Outbox relay run failed, retrying next run: {}", e.getMessage());
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long startedAt = System.nanoTime();
+            int relayed = publishBatch();
+            batchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (relayed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publish one batch; returns the number of events removed from the outbox, or -1 if any send failed
+     */
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatch(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(kafkaTemplate.send(toRecord(event)));
+        }
+        kafkaTemplate.flush();
+
+        List<Long> acknowledged = new ArrayList<>(batch.size());
+        Set<UUID> failedAggregates = new HashSet<>();
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (awaitAck(sends.get(i), deadline, event) && !failedAggregates.contains(event.getAggregateId())) {
+                acknowledged.add(event.getId());
+            } else {
+                failedAggregates.add(event.getAggregateId());
+            }
+        }
+
+        if (!acknowledged.isEmpty()) {
+            outboxEventRepository.deleteByIdIn(acknowledged);
+            published.increment(acknowledged.size());
+            LocalDateTime lastCreatedAt = batch.get(batch.size() - 1).getCreatedAt();
+            if (lastCreatedAt != null) {
+                lagMillis.set(Duration.between(lastCreatedAt, LocalDateTime.now()).toMillis());
+            }
+        }
+        if (!failedAggregates.isEmpty()) {
+            failed.increment(batch.size() - acknowledged.size());
+            log.warn("Outbox relay left {} of {} events for retry ({} aggregates)",
+                    batch.size() - acknowledged.size(), batch.size(), failedAggregates.size());
+            return -1;
+        }
+        return acknowledged.size();
+    }
+
+    private static boolean awaitAck(CompletableFuture<SendResult<String, byte[]>> send, long deadline, OutboxEvent event) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Outbox event {} not acknowledged: {}", event.getEventId(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        boolean binary = event.getPayloadBinary() != null;
+        byte[] value = binary ? event.getPayloadBinary() : event.getPayload().getBytes(StandardCharsets.UTF_8);
+        String contentType = binary ? EventCodec.BINARY_CONTENT_TYPE : EventCodec.JSON_CONTENT_TYPE;
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), event.getAggregateId().toString(), value);
+        record.headers().add(EVENT_ID_HEADER, event.getEventId().toString().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(EVENT_TYPE_HEADER, event.getEventType().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
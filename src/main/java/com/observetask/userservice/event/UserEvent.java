@@ -0,0 +1,49 @@
+package com.observetask.userservice.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.User;
+
+public record UserEvent(
+    String type,
+    UUID userId,
+    String email,
+    String firstName,
+    String lastName,
+    boolean active,
+    Instant occurredAt
+) implements DomainEvent {
+
+    public static final String CREATED = "user.created";
+    public static final String UPDATED = "user.updated";
+    public static final String DEACTIVATED = "user.deactivated";
+
+    // Factory methods
+    public static UserEvent created(User user) {
+        return of(CREATED, user);
+    }
+
+    public static UserEvent updated(User user) {
+        return of(UPDATED, user);
+    }
+
+    public static UserEvent deactivated(User user) {
+        return of(DEACTIVATED, user);
+    }
+
+    private static UserEvent of(String type, User user) {
+        return new UserEvent(type, user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                Boolean.TRUE.equals(user.getIsActive()), Instant.now());
+    }
+
+    @Override
+    public UUID aggregateId() {
+        return userId;
+    }
+
+    @Override
+    public String topic() {
+        return USER_TOPIC;
+    }
+}
@@ -0,0 +1,50 @@
+package com.observetask.userservice.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.UserRole;
+
+/**
+ * Membership change; keyed by the user so it is ordered with that user's UserEvents
+ */
+public record UserRoleEvent(
+    String type,
+    UUID userId,
+    UUID organizationId,
+    String role,
+    Instant occurredAt
+) implements DomainEvent {
+
+    public static final String ASSIGNED = "user.role.assigned";
+    public static final String UPDATED = "user.role.updated";
+    public static final String REMOVED = "user.role.removed";
+
+    // Factory methods
+    public static UserRoleEvent assigned(UserRole userRole) {
+        return of(ASSIGNED, userRole);
+    }
+
+    public static UserRoleEvent updated(UserRole userRole) {
+        return of(UPDATED, userRole);
+    }
+
+    public static UserRoleEvent removed(UUID userId, UUID organizationId) {
+        return new UserRoleEvent(REMOVED, userId, organizationId, null, Instant.now());
+    }
+
+    private static UserRoleEvent of(String type, UserRole userRole) {
+        return new UserRoleEvent(type, userRole.getUser().getId(), userRole.getOrganizationId(),
+                userRole.getRole().name(), Instant.now());
+    }
+
+    @Override
+    public UUID aggregateId() {
+        return userId;
+    }
+
+    @Override
+    public String topic() {
+        return USER_TOPIC;
+    }
+}
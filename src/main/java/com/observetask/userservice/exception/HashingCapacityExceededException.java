@@ -0,0 +1,12 @@
+package com.observetask.userservice.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated and a request is shed instead of queued
+ * Mapped to HTTP 429 so clients back off rather than pile onto the CPU
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.observetask.userservice.exception;
+
+/**
+ * Thrown when a pagination cursor cannot be decoded (tampered, truncated or from another listing)
+ * Mapped to HTTP 400
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.observetask.userservice.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a login attempt exceeds the rate limit of its email, client address or organization
+ * Mapped to HTTP 429 with Retry-After; the same for known and unknown emails, so it reveals nothing about accounts
+ */
+public class LoginRateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginRateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
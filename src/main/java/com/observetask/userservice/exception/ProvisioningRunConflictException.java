@@ -0,0 +1,12 @@
+package com.observetask.userservice.exception;
+
+/**
+ * Thrown when a provisioning run id is reused for another organization or provider, or resumed twice at once
+ * Mapped to HTTP 409
+ */
+public class ProvisioningRunConflictException extends RuntimeException {
+
+    public ProvisioningRunConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,60 @@
+package com.observetask.userservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.entity.BlacklistedToken;
+
+@Repository
+public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, String> {
+
+    /**
+     * Record a revoked token id; revoking the same jti twice is a no-op
+     * The key includes expires_at (the partition key), which is the token's own expiry and so the same both times
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO observetask_users.jwt_blacklist (token_jti, expires_at) VALUES (:jti, :expiresAt) " +
+                   "ON CONFLICT (token_jti, expires_at) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String tokenJti, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Check if a token id is revoked and not yet expired
+     */
+    @Query("SELECT COUNT(b) > 0 FROM BlacklistedToken b WHERE b.tokenJti = :jti AND b.expiresAt > CURRENT_TIMESTAMP")
+    Boolean existsActiveByTokenJti(@Param("jti") String tokenJti);
+
+    /**
+     * Unexpired revocations recorded since the given time (incremental sync between pods)
+     * Bounded by expires_at so it is served from idx_jwt_blacklist_expires_at
+     */
+    @Query("SELECT b FROM BlacklistedToken b WHERE b.expiresAt > :now AND b.createdAt >= :since")
+    List<BlacklistedToken> findActiveCreatedSince(@Param("now") LocalDateTime now, @Param("since") LocalDateTime since);
+
+    /**
+     * Delete one batch of revocations that expired in [from, cutoff); an expired token needs no revocation entry
+     * @deprecated jwt_blacklist is partitioned by expiry day; PartitionMaintenance drops expired days whole
+     */
+    @Deprecated
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM observetask_users.jwt_blacklist WHERE token_jti IN (" +
+                   "SELECT token_jti FROM observetask_users.jwt_blacklist " +
+                   "WHERE expires_at >= :from AND expires_at < :cutoff " +
+                   "ORDER BY expires_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("from") LocalDateTime from, @Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    /**
+     * All unexpired revocations (warm-up on startup)
+     */
+    @Query("SELECT b FROM BlacklistedToken b WHERE b.expiresAt > :now")
+    List<BlacklistedToken> findActive(@Param("now") LocalDateTime now);
+}
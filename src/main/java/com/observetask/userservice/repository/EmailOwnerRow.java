@@ -0,0 +1,13 @@
+package com.observetask.userservice.repository;
+
+/**
+ * Which identity an email address belongs to
+ */
+public interface EmailOwnerRow {
+
+    String getEmail();
+
+    String getAuthProvider();
+
+    String getExternalId();
+}
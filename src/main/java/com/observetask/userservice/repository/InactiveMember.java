@@ -0,0 +1,21 @@
+package com.observetask.userservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.Role;
+
+/**
+ * An active member with no recorded activity since some point, for license reclamation
+ * lastActiveAt is null for members who have never been seen since activity tracking began
+ */
+public record InactiveMember(
+    UUID userId,
+    String email,
+    String firstName,
+    String lastName,
+    Role role,
+    LocalDateTime joinedAt,
+    LocalDateTime lastActiveAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.observetask.userservice.repository;
+
+/**
+ * An invited email that is already a member of, or already has a pending invitation to, the organization
+ */
+public interface InvitationConflict {
+
+    String getEmail();
+
+    Boolean getMember();
+}
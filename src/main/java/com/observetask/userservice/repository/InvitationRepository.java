@@ -2,7 +2,6 @@ package com.observetask.userservice.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -20,11 +19,6 @@ public interface InvitationRepository extends JpaRepository<Invitation, UUID> {
 
     // ✅ AUTOMATIC METHODS (No @Query needed)
     
-    /**
-     * Find invitation by token
-     */
-    Optional<Invitation> findByToken(String token);
-    
     /**
      * Find invitations by email address
      */
@@ -85,6 +79,23 @@ public interface InvitationRepository extends JpaRepository<Invitation, UUID> {
     @Query("SELECT COUNT(i) > 0 FROM Invitation i WHERE i.email = :email AND i.organizationId = :orgId AND i.status = 'PENDING' AND i.expiresAt > CURRENT_TIMESTAMP")
     Boolean existsPendingInvitationByEmailAndOrganization(@Param("email") String email, @Param("orgId") UUID organizationId);
     
+    /**
+     * Set-based duplicate check for bulk invitations: which of the given emails are already members
+     * of the organization, or have a pending, unexpired invitation to it; one statement for the whole chunk
+     */
+    @Query(value = "SELECT e.email AS \"email\", c.member AS \"member\" " +
+                   "FROM unnest(CAST(:emails AS text[])) AS e(email) " +
+                   "CROSS JOIN LATERAL (SELECT " +
+                   "  EXISTS (SELECT 1 FROM observetask_users.users u " +
+                   "          JOIN observetask_users.user_roles ur ON ur.user_id = u.id " +
+                   "          WHERE u.email = e.email AND ur.organization_id = :orgId) AS member, " +
+                   "  EXISTS (SELECT 1 FROM observetask_users.invitations i " +
+                   "          WHERE i.email = e.email AND i.organization_id = :orgId " +
+                   "          AND i.status = 'PENDING' AND i.expires_at > CURRENT_TIMESTAMP) AS invited) c " +
+                   "WHERE c.member OR c.invited",
+           nativeQuery = true)
+    List<InvitationConflict> findConflicts(@Param("orgId") UUID organizationId, @Param("emails") String[] emails);
+
     /**
      * Mark invitation as accepted (UPDATE operation)
      */
@@ -111,7 +122,9 @@ public interface InvitationRepository extends JpaRepository<Invitation, UUID> {
     
     /**
      * Delete old invitations (cleanup) - only expired or revoked ones older than cutoff
+     * @deprecated one unbounded DELETE; use deleteOldBatch (ExpirationSweeper)
      */
+    @Deprecated
     @Modifying
     @Transactional
     @Query("DELETE FROM Invitation i WHERE i.expiresAt < :cutoffDate AND i.status IN ('EXPIRED', 'REVOKED')")
@@ -143,12 +156,38 @@ public interface InvitationRepository extends JpaRepository<Invitation, UUID> {
     
     /**
      * Bulk expire invitations that have passed their expiration time
+     * @deprecated one unbounded UPDATE; use expirePendingBatch (ExpirationSweeper)
      */
+    @Deprecated
     @Modifying
     @Transactional
     @Query("UPDATE Invitation i SET i.status = 'EXPIRED' WHERE i.status = 'PENDING' AND i.expiresAt < CURRENT_TIMESTAMP")
     Integer expireOutdatedInvitations();
     
+    /**
+     * Mark one batch of pending invitations that expired in [from, cutoff) as EXPIRED
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE observetask_users.invitations SET status = 'EXPIRED' WHERE id IN (" +
+                   "SELECT id FROM observetask_users.invitations " +
+                   "WHERE status = 'PENDING' AND expires_at >= :from AND expires_at < :cutoff " +
+                   "ORDER BY expires_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int expirePendingBatch(@Param("from") LocalDateTime from, @Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    /**
+     * Delete one batch of expired or revoked invitations whose expiry lies in [from, cutoff)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM observetask_users.invitations WHERE id IN (" +
+                   "SELECT id FROM observetask_users.invitations " +
+                   "WHERE status IN ('EXPIRED', 'REVOKED') AND expires_at >= :from AND expires_at < :cutoff " +
+                   "ORDER BY expires_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteOldBatch(@Param("from") LocalDateTime from, @Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
     /**
      * Find invitations by invited user with role filter
      */
@@ -0,0 +1,25 @@
+package com.observetask.userservice.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.observetask.userservice.entity.OrganizationCounters;
+
+/**
+ * O(1) reads of the trigger-maintained organization counters; an organization without a row has no members
+ */
+@Repository
+public interface OrganizationCountersRepository extends JpaRepository<OrganizationCounters, UUID> {
+
+    /**
+     * Active members plus pending invitations: the seats an organization has committed
+     */
+    @Query(value = "SELECT COALESCE((SELECT super_admins + org_admins + team_admins + team_members + pending_invitations " +
+                   "FROM observetask_users.organization_counters WHERE organization_id = :organizationId), 0)",
+           nativeQuery = true)
+    int countCommittedSeats(@Param("organizationId") UUID organizationId);
+}
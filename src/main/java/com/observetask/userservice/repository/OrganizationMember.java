@@ -0,0 +1,36 @@
+package com.observetask.userservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.observetask.userservice.dto.UserProfile;
+import com.observetask.userservice.entity.Role;
+
+/**
+ * One organization membership joined with its user, selected as a constructor expression
+ * so listings and exports never put entities in the persistence context
+ * (membershipId, joinedAt) is the keyset position of the row
+ */
+public record OrganizationMember(
+    UUID membershipId,
+    LocalDateTime joinedAt,
+    UUID userId,
+    String email,
+    String firstName,
+    String lastName,
+    Role role,
+    UUID organizationId,
+    Boolean active
+) {
+    public UserProfile toProfile() {
+        return new UserProfile(
+            userId.toString(),
+            email,
+            firstName,
+            lastName,
+            role.name(),
+            organizationId.toString(),
+            Boolean.TRUE.equals(active)
+        );
+    }
+}
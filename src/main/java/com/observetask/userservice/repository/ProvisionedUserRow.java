@@ -0,0 +1,23 @@
+package com.observetask.userservice.repository;
+
+import java.util.UUID;
+
+/**
+ * Current state of a provisioned identity, with whether it already belongs to the organization being synced
+ */
+public interface ProvisionedUserRow {
+
+    UUID getId();
+
+    String getExternalId();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    Boolean getActive();
+
+    Boolean getMember();
+}
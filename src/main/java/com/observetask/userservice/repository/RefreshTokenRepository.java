@@ -27,10 +27,10 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
 
     void deleteByUserId(UUID userId);
 
-    @Query("SELECT COUNT(rt) FROM RefreshToken rt WHERE rt.expiresAt > CURRENT_TIMESTAMP AND rt.user.id = :userId")
+    @Query("SELECT COUNT(rt) FROM RefreshToken rt WHERE rt.expiresAt > CURRENT_TIMESTAMP AND rt.usedAt IS NULL AND rt.user.id = :userId")
     Long countActiveTokensByUser(@Param("userId") UUID userId);
 
-    @Query("SELECT COUNT(rt) > 0 FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash AND rt.expiresAt > CURRENT_TIMESTAMP")
+    @Query("SELECT COUNT(rt) > 0 FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash AND rt.expiresAt > CURRENT_TIMESTAMP AND rt.usedAt IS NULL")
     Boolean existsValidToken(@Param("tokenHash") String tokenHash);
 
     @Query("SELECT rt FROM RefreshToken rt WHERE rt.expiresAt BETWEEN CURRENT_TIMESTAMP AND :alertTime")
@@ -39,10 +39,28 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
     @Query("SELECT rt from RefreshToken rt WHERE rt.expiresAt < CURRENT_TIMESTAMP")
     List<RefreshToken> findExpiredTokens();
 
+    /**
+     * @deprecated one unbounded DELETE; expired tokens are removed with their partition by PartitionMaintenance
+     */
+    @Deprecated
     @Modifying
     @Transactional
     
     @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < CURRENT_TIMESTAMP")
     void deleteExpiredTokens();
 
+    /**
+     * Delete one batch of tokens that expired in [from, cutoff); rows locked by other transactions are skipped
+     * @deprecated jwt_refresh_tokens is partitioned by expiry day; PartitionMaintenance drops expired days whole
+     */
+    @Deprecated
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM observetask_users.jwt_refresh_tokens WHERE id IN (" +
+                   "SELECT id FROM observetask_users.jwt_refresh_tokens " +
+                   "WHERE expires_at >= :from AND expires_at < :cutoff " +
+                   "ORDER BY expires_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("from") LocalDateTime from, @Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
 }
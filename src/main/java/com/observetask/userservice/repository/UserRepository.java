@@ -1,15 +1,20 @@
 package com.observetask.userservice.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.observetask.userservice.entity.AuthProvider;
 import com.observetask.userservice.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,6 +22,10 @@ import java.util.UUID;
 @Repository
 public interface UserRepository extends JpaRepository<User,UUID> {
     Optional<User> findByEmail(String email);
+
+    // Login path: the user and all memberships in one query
+    @EntityGraph("User.roles")
+    Optional<User> findWithRolesByEmail(String email);
     Optional<User> findByExternalIdAndAuthProvider(String externalId, AuthProvider authProvider); 
     Boolean existsByEmail(String email);
     Boolean existsByExternalIdAndAuthProvider(String externalId,AuthProvider authProvider);
@@ -32,35 +41,150 @@ public interface UserRepository extends JpaRepository<User,UUID> {
            "AND u.isActive = true")
     List<User> findLocalUsersWithoutPassword();
 
+    /**
+     * @deprecated loads the whole organization; use the keyset listing {@link #findMembersAfter}
+     */
+    @Deprecated
+    @EntityGraph("User.roles")
     @Query("SELECT DISTINCT u FROM User u " +
            "JOIN u.roles r " +
            "WHERE r.organizationId = :organizationId " +
            "AND u.isActive = true")
     List<User> findByOrganizationId(@Param("organizationId") UUID organizationId);
 
+    /**
+     * @deprecated offset paging plus a count query; use {@link #findMembersAfter} instead
+     */
+    @Deprecated
     @Query("SELECT DISTINCT u FROM User u " +
            "JOIN u.roles r " +
            "WHERE r.organizationId = :organizationId " +
            "AND u.isActive = true")
     Page<User> findByOrganizationId(@Param("organizationId") UUID organizationId, Pageable pageable);
 
-    @Query("SELECT u FROM User u " +
-           "WHERE u.isActive = true " +
-           "AND (LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
+    /**
+     * First page of an organization's active members in (joinedAt, membershipId) order
+     * Walks idx_user_roles_org_keyset; the page size comes from the Limit, no count query
+     */
+    @Query("SELECT new com.observetask.userservice.repository.OrganizationMember(" +
+           "ur.id, ur.createdAt, u.id, u.email, u.firstName, u.lastName, ur.role, ur.organizationId, u.isActive) " +
+           "FROM UserRole ur JOIN ur.user u " +
+           "WHERE ur.organizationId = :organizationId " +
+           "AND u.isActive = true " +
+           "ORDER BY ur.createdAt, ur.id")
+    List<OrganizationMember> findMembers(@Param("organizationId") UUID organizationId, Limit limit);
+
+    /**
+     * Members strictly after the given keyset position
+     * HQL has no row-value comparison; the redundant createdAt >= bound keeps it a single index range
+     */
+    @Query("SELECT new com.observetask.userservice.repository.OrganizationMember(" +
+           "ur.id, ur.createdAt, u.id, u.email, u.firstName, u.lastName, ur.role, ur.organizationId, u.isActive) " +
+           "FROM UserRole ur JOIN ur.user u " +
+           "WHERE ur.organizationId = :organizationId " +
+           "AND u.isActive = true " +
+           "AND ur.createdAt >= :joinedAt " +
+           "AND (ur.createdAt > :joinedAt OR ur.id > :membershipId) " +
+           "ORDER BY ur.createdAt, ur.id")
+    List<OrganizationMember> findMembersAfter(@Param("organizationId") UUID organizationId,
+                                              @Param("joinedAt") LocalDateTime joinedAt,
+                                              @Param("membershipId") UUID membershipId,
+                                              Limit limit);
+
+    /**
+     * Active members of an organization not seen since the given time, longest inactive first
+     * A member never seen counts from account creation; starts from the organization's memberships
+     */
+    @Query("SELECT new com.observetask.userservice.repository.InactiveMember(" +
+           "u.id, u.email, u.firstName, u.lastName, ur.role, ur.createdAt, u.lastActiveAt) " +
+           "FROM UserRole ur JOIN ur.user u " +
+           "WHERE ur.organizationId = :organizationId " +
+           "AND u.isActive = true " +
+           "AND COALESCE(u.lastActiveAt, u.createdAt) < :since " +
+           "ORDER BY COALESCE(u.lastActiveAt, u.createdAt), u.id")
+    List<InactiveMember> findInactiveMembers(@Param("organizationId") UUID organizationId,
+                                             @Param("since") LocalDateTime since,
+                                             Limit limit);
+
+    /**
+     * Provisioning diff: current rows of the given external identities, served by UNIQUE(auth_provider, external_id)
+     * The lookup spans all tenants; member tells whether the sync may change the row or only add the membership
+     */
+    @Query(value = "SELECT u.id AS \"id\", u.external_id AS \"externalId\", u.email AS \"email\", " +
+                   "u.first_name AS \"firstName\", u.last_name AS \"lastName\", u.is_active AS \"active\", " +
+                   "EXISTS (SELECT 1 FROM observetask_users.user_roles ur " +
+                   "        WHERE ur.user_id = u.id AND ur.organization_id = :organizationId) AS \"member\" " +
+                   "FROM observetask_users.users u " +
+                   "WHERE u.auth_provider = :authProvider AND u.external_id = ANY(CAST(:externalIds AS text[]))",
+           nativeQuery = true)
+    List<ProvisionedUserRow> findProvisionedUsers(@Param("authProvider") String authProvider,
+                                                  @Param("organizationId") UUID organizationId,
+                                                  @Param("externalIds") String[] externalIds);
+
+    /**
+     * Owners of the given email addresses, to reject provisioned identities whose email belongs to another account
+     */
+    @Query(value = "SELECT u.email AS \"email\", u.auth_provider AS \"authProvider\", u.external_id AS \"externalId\" " +
+                   "FROM observetask_users.users u WHERE u.email = ANY(CAST(:emails AS text[]))",
+           nativeQuery = true)
+    List<EmailOwnerRow> findEmailOwners(@Param("emails") String[] emails);
+
+    // Served by idx_users_full_name_trgm; the expression must match the index exactly
+    @Query(value = "SELECT u.* FROM observetask_users.users u " +
+                   "WHERE u.is_active = true " +
+                   "AND lower(u.first_name || ' ' || u.last_name) LIKE '%' || lower(:searchTerm) || '%'",
+           nativeQuery = true)
     List<User> findByNameContaining(@Param("searchTerm") String searchTerm);
 
-   
+    // Served by idx_users_email_domain on the generated email_domain column
     @Query("SELECT u FROM User u " +
            "WHERE u.isActive = true " +
-           "AND u.email LIKE CONCAT('%@', :domain)")
+           "AND u.emailDomain = LOWER(:domain)")
     List<User> findByEmailDomain(@Param("domain") String domain);
 
-   
-    @Query("SELECT COUNT(DISTINCT u) FROM User u " +
-           "JOIN u.roles r " +
-           "WHERE r.organizationId = :organizationId " +
-           "AND u.isActive = true")
+    /**
+     * Ranked typeahead over one organization's active members
+     * Patterns are pre-escaped, lower-cased LIKE patterns; name prefix matches rank first, then trigram similarity
+     */
+    @Query(value = "SELECT u.id AS \"id\", u.email AS \"email\", u.first_name AS \"firstName\", " +
+                   "u.last_name AS \"lastName\", ur.role AS \"role\", ur.organization_id AS \"organizationId\", " +
+                   "u.is_active AS \"active\" " +
+                   "FROM observetask_users.users u " +
+                   "JOIN observetask_users.user_roles ur ON ur.user_id = u.id " +
+                   "WHERE ur.organization_id = :orgId " +
+                   "AND u.is_active = true " +
+                   "AND (lower(u.first_name || ' ' || u.last_name) LIKE :pattern OR lower(u.email) LIKE :pattern) " +
+                   "ORDER BY (lower(u.first_name || ' ' || u.last_name) LIKE :prefix) DESC, " +
+                   "public.similarity(lower(u.first_name || ' ' || u.last_name), :term) DESC, " +
+                   "u.last_name, u.first_name, u.id " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<UserSearchRow> searchOrganizationMembers(@Param("orgId") UUID organizationId,
+                                                  @Param("term") String term,
+                                                  @Param("pattern") String pattern,
+                                                  @Param("prefix") String prefix,
+                                                  @Param("limit") int limit,
+                                                  @Param("offset") int offset);
+
+    /**
+     * All active members of an organization as search rows (in-memory search index build)
+     */
+    @Query(value = "SELECT u.id AS \"id\", u.email AS \"email\", u.first_name AS \"firstName\", " +
+                   "u.last_name AS \"lastName\", ur.role AS \"role\", ur.organization_id AS \"organizationId\", " +
+                   "u.is_active AS \"active\" " +
+                   "FROM observetask_users.users u " +
+                   "JOIN observetask_users.user_roles ur ON ur.user_id = u.id " +
+                   "WHERE ur.organization_id = :orgId AND u.is_active = true",
+           nativeQuery = true)
+    List<UserSearchRow> findActiveMemberRows(@Param("orgId") UUID organizationId);
+
+    /**
+     * Active members of an organization, read from organization_counters instead of a COUNT(DISTINCT) join
+     * A user has at most one membership per organization, so the per-role counts add up to distinct users
+     */
+    @Query(value = "SELECT COALESCE((SELECT super_admins + org_admins + team_admins + team_members " +
+                   "FROM observetask_users.organization_counters WHERE organization_id = :organizationId), 0)",
+           nativeQuery = true)
     long countActiveUsersByOrganization(@Param("organizationId") UUID organizationId);
 
    
@@ -70,8 +194,15 @@ public interface UserRepository extends JpaRepository<User,UUID> {
     List<User> findUsersWithoutOrganization();
 
    
+    @Modifying
+    @Transactional
     @Query("UPDATE User u SET u.isActive = false WHERE u.id = :userId")
     void softDeleteUser(@Param("userId") UUID userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :userId")
+    int updatePasswordHash(@Param("userId") UUID userId, @Param("passwordHash") String passwordHash);
     
 
 
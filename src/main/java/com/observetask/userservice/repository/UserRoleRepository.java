@@ -27,20 +27,26 @@ public interface UserRoleRepository extends JpaRepository<UserRole,UUID> {
 
     Long countByOrganizationIdAndRole(UUID organizationId,Role role);
 
+    @Query("SELECT ur FROM UserRole ur JOIN FETCH ur.user WHERE ur.user.id = :userId AND ur.organizationId = :orgId")
+    Optional<UserRole> findWithUserByUserIdAndOrganizationId(@Param("userId") UUID userId, @Param("orgId") UUID organizationId);
+
+    @Query("SELECT ur FROM UserRole ur JOIN FETCH ur.user WHERE ur.user.id = :userId ORDER BY ur.createdAt ASC")
+    List<UserRole> findWithUserByUserIdOrderByCreatedAt(@Param("userId") UUID userId);
+
     @Query("SELECT ur FROM UserRole ur WHERE ur.organizationId = :orgId AND ur.role IN :higherRoles")
     List<UserRole> findUsersWithHigherAuthority(@Param("orgId") UUID organizationId, @Param("higherRoles") List<Role> higherRoles);
 
     @Modifying
     @Transactional
-    @Query("DELETE FROM UserRole ur WHERE ur.userId = :userId AND ur.organizationId = :orgId")
+    @Query("DELETE FROM UserRole ur WHERE ur.user.id = :userId AND ur.organizationId = :orgId")
     void deleteByUserIdAndOrganizationId(@Param("userId") UUID userId, @Param("orgId") UUID organizationId);
 
-    @Query("SELECT DISTINCT ur.organizationId FROM UserRole ur WHERE ur.userId = :userId AND ur.role IN ('SUPER_ADMIN', 'ORG_ADMIN', 'TEAM_ADMIN')")
+    @Query("SELECT DISTINCT ur.organizationId FROM UserRole ur WHERE ur.user.id = :userId AND ur.role IN ('SUPER_ADMIN', 'ORG_ADMIN', 'TEAM_ADMIN')")
     List<UUID> findOrganizationsWhereUserIsAdmin(@Param("userId") UUID userId);
 
     @Modifying
     @Transactional
-    @Query("DELETE FROM UserRole ur WHERE ur.userId = :userId")
+    @Query("DELETE FROM UserRole ur WHERE ur.user.id = :userId")
     void deleteAllByUserId(@Param("userId") UUID userId);
     
 
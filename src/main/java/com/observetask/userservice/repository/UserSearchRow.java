@@ -0,0 +1,37 @@
+package com.observetask.userservice.repository;
+
+import java.util.UUID;
+
+import com.observetask.userservice.dto.UserProfile;
+
+/**
+ * Read-only projection of an organization member returned by the search queries
+ */
+public interface UserSearchRow {
+
+    UUID getId();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getRole();
+
+    UUID getOrganizationId();
+
+    Boolean getActive();
+
+    default UserProfile toProfile() {
+        return new UserProfile(
+            getId().toString(),
+            getEmail(),
+            getFirstName(),
+            getLastName(),
+            getRole(),
+            getOrganizationId().toString(),
+            Boolean.TRUE.equals(getActive())
+        );
+    }
+}
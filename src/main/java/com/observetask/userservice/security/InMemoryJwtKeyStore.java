@@ -0,0 +1,90 @@
+package com.observetask.userservice.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.observetask.userservice.security.JwtKeyRing.RetiredKey;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Process-local key store that generates its own key pairs
+ *
+ * For tests, benchmarks and single-process offline runs only (jwt.signing.store
+ * = memory): keys are lost on restart and differ per pod, so tokens signed by
+ * one replica do not verify on another. Deployments use JdbcJwtKeyStore.
+ *
+ * The key ring is replaced atomically on rotation; readers never lock.
+ */
+@Slf4j
+public class InMemoryJwtKeyStore implements JwtKeyStore {
+
+    private final SigningAlgorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration retention;
+    private final Clock clock;
+
+    private volatile JwtKeyRing ring;
+
+    /**
+     * @param rotationInterval how long a key stays active before it is rotated
+     * @param retention        how long a retired key stays verifiable (at least the access token lifetime)
+     */
+    public InMemoryJwtKeyStore(SigningAlgorithm algorithm, Duration rotationInterval, Duration retention, Clock clock) {
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.retention = retention;
+        this.clock = clock;
+        Instant now = clock.instant();
+        this.ring = JwtKeyRing.of(JwtSigningKey.generate(algorithm, now), JwtSigningKey.generate(algorithm, now), List.of(), now);
+    }
+
+    @Override
+    public JwtSigningKey activeKey() {
+        return ring.active();
+    }
+
+    @Override
+    public Optional<JwtSigningKey> findByKeyId(String keyId) {
+        return keyId == null ? Optional.empty() : ring.find(keyId, clock.instant());
+    }
+
+    @Override
+    public List<JwtSigningKey> publishedKeys() {
+        return ring.published(clock.instant());
+    }
+
+    @Override
+    public synchronized JwtSigningKey rotate() {
+        Instant now = clock.instant();
+        JwtKeyRing current = ring;
+
+        List<RetiredKey> retired = new ArrayList<>(current.retired().size() + 1);
+        for (RetiredKey key : current.retired()) {
+            if (!now.isAfter(key.verifiableUntil())) {
+                retired.add(key);
+            }
+        }
+        retired.add(new RetiredKey(current.active(), now.plus(retention)));
+
+        ring = JwtKeyRing.of(current.next(), JwtSigningKey.generate(algorithm, now), retired, now);
+        log.info("Rotated JWT signing key: active={}, retired={}", current.next().keyId(), current.active().keyId());
+        return current.next();
+    }
+
+    /**
+     * Rotate once the active key has been in use for the rotation interval
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.rotation-check-interval:PT1M}")
+    public void rotateIfDue() {
+        if (ring.isRotationDue(clock.instant(), rotationInterval)) {
+            rotate();
+        }
+    }
+}
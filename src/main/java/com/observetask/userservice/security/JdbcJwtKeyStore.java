@@ -0,0 +1,301 @@
+package com.observetask.userservice.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.observetask.userservice.security.JwtKeyRing.RetiredKey;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Key store shared by all replicas through the jwt_signing_keys table
+ *
+ * Every pod signs with the ACTIVE key and publishes ACTIVE, NEXT and the
+ * still-verifiable RETIRED keys, so any pod verifies any pod's tokens and
+ * the JWKS is the same whichever pod serves it. Rings are cached in memory
+ * and reloaded every refresh-interval; an unknown kid triggers an early
+ * reload, rate-limited so forged kids cannot turn into a query per request.
+ * Because NEXT is published one full rotation interval before it signs, a
+ * pod that has not reloaded yet still knows the key another pod just
+ * promoted.
+ *
+ * Rotation and the initial bootstrap run in one transaction under a table
+ * lock, so concurrent pods rotate once. Private keys are stored PKCS#8
+ * encrypted with AES-256-GCM (the kid is the associated data) under the
+ * jwt.signing.key-encryption-key secret; retired keys are only ever loaded
+ * without their private half.
+ */
+@Slf4j
+public class JdbcJwtKeyStore implements JwtKeyStore {
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final String NEXT = "NEXT";
+    private static final String RETIRED = "RETIRED";
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final Duration MISS_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SigningAlgorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration retention;
+    private final SecretKey encryptionKey;
+    private final Clock clock;
+
+    private volatile JwtKeyRing ring;
+    private volatile Instant lastMissReload = Instant.MIN;
+
+    public JdbcJwtKeyStore(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           SigningAlgorithm algorithm,
+                           Duration rotationInterval,
+                           Duration retention,
+                           SecretKey encryptionKey,
+                           Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.retention = retention;
+        this.encryptionKey = encryptionKey;
+        this.clock = clock;
+        this.ring = transactionTemplate.execute(status -> {
+            JwtKeyRing loaded = load();
+            if (loaded != null) {
+                return loaded;
+            }
+            lockTable();
+            loaded = load();
+            if (loaded == null) {
+                Instant now = clock.instant();
+                insert(JwtSigningKey.generate(algorithm, now), ACTIVE, now);
+                insert(JwtSigningKey.generate(algorithm, now), NEXT, null);
+                log.info("Bootstrapped shared JWT signing keys");
+                loaded = load();
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public JwtSigningKey activeKey() {
+        return ring.active();
+    }
+
+    @Override
+    public Optional<JwtSigningKey> findByKeyId(String keyId) {
+        if (keyId == null) {
+            return Optional.empty();
+        }
+        Instant now = clock.instant();
+        Optional<JwtSigningKey> key = ring.find(keyId, now);
+        if (key.isEmpty() && !ring.byKeyId().containsKey(keyId) && now.isAfter(lastMissReload.plus(MISS_RELOAD_INTERVAL))) {
+            lastMissReload = now;
+            refresh();
+            key = ring.find(keyId, now);
+        }
+        return key;
+    }
+
+    @Override
+    public List<JwtSigningKey> publishedKeys() {
+        return ring.published(clock.instant());
+    }
+
+    @Override
+    public JwtSigningKey rotate() {
+        return rotate(false);
+    }
+
+    /**
+     * Rotate once the shared active key has been in use for the rotation interval
+     * Every pod checks; the first to take the table lock rotates, the others see the new ring
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.rotation-check-interval:PT1M}")
+    public void rotateIfDue() {
+        if (!ring.isRotationDue(clock.instant(), rotationInterval)) {
+            return;
+        }
+        try {
+            rotate(true);
+        } catch (DataAccessException e) {
+            log.warn("JWT key rotation failed, retrying next check: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval:PT30S}")
+    public void refresh() {
+        try {
+            JwtKeyRing loaded = transactionTemplate.execute(status -> load());
+            if (loaded != null) {
+                ring = loaded;
+            }
+        } catch (DataAccessException e) {
+            log.warn("JWT key reload failed, keeping the current keys: {}", e.getMessage());
+        }
+    }
+
+    private JwtSigningKey rotate(boolean onlyIfDue) {
+        JwtKeyRing rotated = transactionTemplate.execute(status -> {
+            lockTable();
+            JwtKeyRing current = load();
+            Instant now = clock.instant();
+            if (onlyIfDue && !current.isRotationDue(now, rotationInterval)) {
+                return current;
+            }
+            jdbcTemplate.update("DELETE FROM observetask_users.jwt_signing_keys WHERE status = ? AND verifiable_until < ?",
+                    RETIRED, Timestamp.from(now));
+            jdbcTemplate.update("UPDATE observetask_users.jwt_signing_keys SET status = ?, verifiable_until = ? WHERE kid = ?",
+                    RETIRED, Timestamp.from(now.plus(retention)), current.active().keyId());
+            jdbcTemplate.update("UPDATE observetask_users.jwt_signing_keys SET status = ?, activated_at = ? WHERE kid = ?",
+                    ACTIVE, Timestamp.from(now), current.next().keyId());
+            insert(JwtSigningKey.generate(algorithm, now), NEXT, null);
+            log.info("Rotated JWT signing key: active={}, retired={}", current.next().keyId(), current.active().keyId());
+            return load();
+        });
+        ring = rotated;
+        return rotated.active();
+    }
+
+    private void lockTable() {
+        jdbcTemplate.execute("LOCK TABLE observetask_users.jwt_signing_keys IN SHARE ROW EXCLUSIVE MODE");
+    }
+
+    /**
+     * Current ring, or null before the table has been bootstrapped
+     */
+    private JwtKeyRing load() {
+        Instant now = clock.instant();
+        List<StoredKey> rows = jdbcTemplate.query(
+                "SELECT kid, algorithm, status, public_key, private_key, created_at, activated_at, verifiable_until " +
+                "FROM observetask_users.jwt_signing_keys " +
+                "WHERE status <> ? OR verifiable_until >= ?",
+                this::mapRow, RETIRED, Timestamp.from(now));
+
+        JwtSigningKey active = null;
+        JwtSigningKey next = null;
+        Instant activatedAt = null;
+        List<RetiredKey> retired = new ArrayList<>();
+        for (StoredKey row : rows) {
+            switch (row.status()) {
+                case ACTIVE -> {
+                    active = row.withPrivateKey(decrypt(row));
+                    activatedAt = row.activatedAt();
+                }
+                case NEXT -> next = row.withPrivateKey(decrypt(row));
+                default -> retired.add(new RetiredKey(row.publicOnly(), row.verifiableUntil()));
+            }
+        }
+        if (active == null || next == null) {
+            return null;
+        }
+        return JwtKeyRing.of(active, next, retired, activatedAt);
+    }
+
+    private void insert(JwtSigningKey key, String status, Instant activatedAt) {
+        jdbcTemplate.update(
+                "INSERT INTO observetask_users.jwt_signing_keys (kid, algorithm, status, public_key, private_key, created_at, activated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                key.keyId(), key.algorithm().getCode(), status, key.publicKey().getEncoded(), encrypt(key),
+                Timestamp.from(key.createdAt()), activatedAt == null ? null : Timestamp.from(activatedAt));
+    }
+
+    private byte[] encrypt(JwtSigningKey key) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(key.keyId().getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(key.privateKey().getEncoded());
+            return ByteBuffer.allocate(IV_BYTES + sealed.length).put(iv).put(sealed).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt signing key " + key.keyId(), e);
+        }
+    }
+
+    private PrivateKey decrypt(StoredKey row) {
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, row.sealedPrivateKey(), 0, IV_BYTES));
+            cipher.updateAAD(row.keyId().getBytes(StandardCharsets.UTF_8));
+            byte[] encoded = cipher.doFinal(row.sealedPrivateKey(), IV_BYTES, row.sealedPrivateKey().length - IV_BYTES);
+            return KeyFactory.getInstance(row.algorithm().getKeyAlgorithm()).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to decrypt signing key " + row.keyId()
+                    + "; is jwt.signing.key-encryption-key the one the keys were stored with?", e);
+        }
+    }
+
+    private StoredKey mapRow(ResultSet rs, int rowNum) throws SQLException {
+        SigningAlgorithm keyAlgorithm = SigningAlgorithm.fromCode(rs.getString("algorithm"));
+        if (keyAlgorithm == null) {
+            throw new IllegalStateException("Unsupported algorithm for signing key " + rs.getString("kid"));
+        }
+        try {
+            PublicKey publicKey = KeyFactory.getInstance(keyAlgorithm.getKeyAlgorithm())
+                    .generatePublic(new X509EncodedKeySpec(rs.getBytes("public_key")));
+            return new StoredKey(rs.getString("kid"), keyAlgorithm, rs.getString("status"), publicKey,
+                    rs.getBytes("private_key"), instant(rs, "created_at"), instant(rs, "activated_at"),
+                    instant(rs, "verifiable_until"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unreadable public key for signing key " + rs.getString("kid"), e);
+        }
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+
+    private record StoredKey(
+        String keyId,
+        SigningAlgorithm algorithm,
+        String status,
+        PublicKey publicKey,
+        byte[] sealedPrivateKey,
+        Instant createdAt,
+        Instant activatedAt,
+        Instant verifiableUntil
+    ) {
+
+        JwtSigningKey withPrivateKey(PrivateKey privateKey) {
+            return new JwtSigningKey(keyId, algorithm, publicKey, privateKey, createdAt);
+        }
+
+        JwtSigningKey publicOnly() {
+            return withPrivateKey(null);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.observetask.userservice.security;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.observetask.userservice.service.UserActivityTracker;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates requests carrying a bearer access token
+ * Requests without a valid token continue unauthenticated and are rejected by the authorization rules
+ * Each authenticated request marks its user active in memory (UserActivityTracker)
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtUtils jwtUtils;
+    private final UserActivityTracker userActivityTracker;
+
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserActivityTracker userActivityTracker) {
+        this.jwtUtils = jwtUtils;
+        this.userActivityTracker = userActivityTracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = JwtUtils.extractBearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            jwtUtils.getPrincipal(token).ifPresent(principal -> {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        principal, token, List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole())));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                userActivityTracker.touch(principal.getUserId());
+            });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,64 @@
+package com.observetask.userservice.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable snapshot of a key store's keys; stores swap whole rings so readers never lock
+ */
+record JwtKeyRing(
+    JwtSigningKey active,
+    JwtSigningKey next,
+    List<RetiredKey> retired,
+    Instant activatedAt,
+    Map<String, JwtSigningKey> byKeyId,
+    Map<String, Instant> verifiableUntil
+) {
+
+    record RetiredKey(JwtSigningKey key, Instant verifiableUntil) {}
+
+    static JwtKeyRing of(JwtSigningKey active, JwtSigningKey next, List<RetiredKey> retired, Instant activatedAt) {
+        Map<String, JwtSigningKey> byKeyId = new HashMap<>();
+        Map<String, Instant> verifiableUntil = new HashMap<>();
+        for (RetiredKey key : retired) {
+            byKeyId.put(key.key().keyId(), key.key());
+            verifiableUntil.put(key.key().keyId(), key.verifiableUntil());
+        }
+        byKeyId.put(active.keyId(), active);
+        byKeyId.put(next.keyId(), next);
+        return new JwtKeyRing(active, next, List.copyOf(retired), activatedAt, Map.copyOf(byKeyId), Map.copyOf(verifiableUntil));
+    }
+
+    Optional<JwtSigningKey> find(String keyId, Instant now) {
+        JwtSigningKey key = byKeyId.get(keyId);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Instant until = verifiableUntil.get(keyId);
+        if (until != null && now.isAfter(until)) {
+            return Optional.empty();
+        }
+        return Optional.of(key);
+    }
+
+    List<JwtSigningKey> published(Instant now) {
+        List<JwtSigningKey> keys = new ArrayList<>(byKeyId.size());
+        keys.add(active);
+        keys.add(next);
+        for (RetiredKey key : retired) {
+            if (!now.isAfter(key.verifiableUntil())) {
+                keys.add(key.key());
+            }
+        }
+        return keys;
+    }
+
+    boolean isRotationDue(Instant now, Duration rotationInterval) {
+        return !now.isBefore(activatedAt.plus(rotationInterval));
+    }
+}
@@ -0,0 +1,37 @@
+package com.observetask.userservice.security;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Source of the key pairs used to sign and verify access tokens
+ *
+ * At any time there is one active key that signs new tokens, an optional next
+ * key that is already published so edge caches pick it up before it signs
+ * anything, and retired keys that stay verifiable until the tokens they
+ * signed have expired.
+ */
+public interface JwtKeyStore {
+
+    /**
+     * Key used to sign new tokens
+     */
+    JwtSigningKey activeKey();
+
+    /**
+     * Look up a key by "kid" for verification (active, next or not yet expired retired key)
+     */
+    Optional<JwtSigningKey> findByKeyId(String keyId);
+
+    /**
+     * Keys to publish through the JWKS endpoint
+     */
+    List<JwtSigningKey> publishedKeys();
+
+    /**
+     * Promote the next key to active and retire the current one
+     *
+     * @return the newly active key
+     */
+    JwtSigningKey rotate();
+}
@@ -0,0 +1,44 @@
+package com.observetask.userservice.security;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+
+import io.jsonwebtoken.security.Jwks;
+
+/**
+ * One signing key pair, identified by the "kid" header of the tokens it signs
+ * privateKey is null for keys that are only held for verification
+ */
+public record JwtSigningKey(
+    String keyId,
+    SigningAlgorithm algorithm,
+    PublicKey publicKey,
+    PrivateKey privateKey,
+    Instant createdAt
+) {
+
+    public boolean canSign() {
+        return privateKey != null;
+    }
+
+    /**
+     * Generate a fresh key pair; the kid is the RFC 7638 thumbprint of the public key
+     */
+    public static JwtSigningKey generate(SigningAlgorithm algorithm, Instant now) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.getKeyAlgorithm());
+            if (algorithm.getKeySize() > 0) {
+                generator.initialize(algorithm.getKeySize());
+            }
+            KeyPair pair = generator.generateKeyPair();
+            String keyId = Jwks.builder().key(pair.getPublic()).idFromThumbprint().build().getId();
+            return new JwtSigningKey(keyId, algorithm, pair.getPublic(), pair.getPrivate(), now);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate " + algorithm.getCode() + " signing key", e);
+        }
+    }
+}
@@ -1,5 +1,320 @@
 package com.observetask.userservice.security;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.observetask.userservice.dto.TokenValidationResult;
+
+import io.jsonwebtoken.Jwts;
+
+/**
+ * JWT issuing and validation engine for ObserveTask access tokens
+ *
+ * Tokens are issued through jjwt with an asymmetric key pair from the
+ * JwtKeyStore and carry the key's "kid" header, so other services can verify
+ * them against the published JWKS without calling this service. Validation
+ * here is done locally: the public key is looked up by "kid", claims are
+ * streamed straight into a TokenValidationResult without building an
+ * intermediate claims Map, signatures are checked with pooled pre-initialized
+ * verifiers, and verified tokens are kept in a bounded cache
+ * until they expire so a repeat validation is a single slot lookup. Every
+ * validation, cached or not, is checked against the TokenRevocationService.
+ */
+@Component
 public class JwtUtils {
 
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    static final String CLAIM_ORGANIZATION = "org";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_EMAIL = "email";
+    static final String CLAIM_FIRST_NAME = "given_name";
+    static final String CLAIM_LAST_NAME = "family_name";
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    private static final VerifiedToken MISSING = rejected("Token is missing");
+    private static final VerifiedToken MALFORMED = rejected("Malformed token");
+    private static final VerifiedToken UNSUPPORTED_ALGORITHM = rejected("Unsupported token algorithm");
+    private static final VerifiedToken UNKNOWN_KEY = rejected("Unknown token signing key");
+    private static final VerifiedToken INVALID_SIGNATURE = rejected("Invalid token signature");
+    private static final VerifiedToken INVALID_ISSUER = rejected("Invalid token issuer");
+    private static final VerifiedToken MISSING_SUBJECT = rejected("Token subject is missing");
+    private static final VerifiedToken EXPIRED = rejected("Token has expired");
+    private static final VerifiedToken REVOKED = rejected("Token has been revoked");
+
+    private final JwtKeyStore keyStore;
+    private final TokenRevocationService revocationService;
+    private final String issuer;
+    private final long accessTokenExpirationMs;
+    private final long refreshTokenExpirationMs;
+    private final VerifiedTokenCache cache;
+    private final SignatureVerifierPool verifiers = new SignatureVerifierPool();
+
+    public JwtUtils(JwtKeyStore keyStore,
+                    TokenRevocationService revocationService,
+                    @Value("${jwt.issuer:observetask}") String issuer,
+                    @Value("${jwt.access-token-expiration}") long accessTokenExpirationMs,
+                    @Value("${jwt.refresh-token-expiration}") long refreshTokenExpirationMs,
+                    @Value("${jwt.validation-cache.max-entries:16384}") int cacheMaxEntries) {
+        this.keyStore = keyStore;
+        this.revocationService = revocationService;
+        this.issuer = issuer;
+        this.accessTokenExpirationMs = accessTokenExpirationMs;
+        this.refreshTokenExpirationMs = refreshTokenExpirationMs;
+        this.cache = new VerifiedTokenCache(cacheMaxEntries);
+    }
+
+    /**
+     * Issue a signed access token for the given principal
+     */
+    public String generateAccessToken(UserPrincipal principal) {
+        long now = System.currentTimeMillis();
+        JwtSigningKey key = keyStore.activeKey();
+        return Jwts.builder()
+                .header().keyId(key.keyId()).and()
+                .id(UUID.randomUUID().toString())
+                .issuer(issuer)
+                .subject(principal.getUserId().toString())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + accessTokenExpirationMs))
+                .claim(CLAIM_ORGANIZATION, principal.getOrganizationId() != null ? principal.getOrganizationId().toString() : null)
+                .claim(CLAIM_ROLE, principal.getRole())
+                .claim(CLAIM_EMAIL, principal.getEmail())
+                .claim(CLAIM_FIRST_NAME, principal.getFirstName())
+                .claim(CLAIM_LAST_NAME, principal.getLastName())
+                .signWith(key.privateKey(), key.algorithm().getJwsAlgorithm())
+                .compact();
+    }
+
+    /**
+     * Generate an opaque refresh token; only its hash is ever stored
+     */
+    public String generateRefreshToken() {
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return BASE64_URL_ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * SHA-256 hex digest of a refresh token, as stored in jwt_refresh_tokens.token_hash
+     */
+    public static String hashRefreshToken(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Validate an access token and return its claims
+     * Never throws; failures are reported through TokenValidationResult.invalid
+     */
+    public TokenValidationResult validateToken(String token) {
+        return resolve(token).result();
+    }
+
+    /**
+     * Validate an access token and map its claims to a UserPrincipal
+     */
+    public Optional<UserPrincipal> getPrincipal(String token) {
+        VerifiedToken verified = resolve(token);
+        return verified.result().valid() ? Optional.of(verified.toPrincipal()) : Optional.empty();
+    }
+
+    /**
+     * Strip the "Bearer " prefix from an Authorization header value
+     */
+    public static String extractBearerToken(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        return authorizationHeader.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    /**
+     * Revoke a valid access token until its expiry (logout, forced sign-out)
+     *
+     * @return false if the token was not valid to begin with
+     */
+    public boolean revokeToken(String token) {
+        VerifiedToken verified = resolve(token);
+        if (!verified.result().valid() || verified.jti() == null) {
+            return false;
+        }
+        revocationService.revoke(verified.jti(), TokenRevocationService.toLocalDateTime(verified.expiresAtMillis()));
+        return true;
+    }
+
+    public long getAccessTokenExpirationMs() {
+        return accessTokenExpirationMs;
+    }
+
+    public long getRefreshTokenExpirationMs() {
+        return refreshTokenExpirationMs;
+    }
+
+    private VerifiedToken resolve(String token) {
+        if (token == null || token.isEmpty()) {
+            return MISSING;
+        }
+        long now = System.currentTimeMillis();
+        VerifiedToken verified = cache.get(token, now);
+        if (verified == null) {
+            verified = verify(token, now);
+            if (!verified.result().valid()) {
+                return verified;
+            }
+            cache.put(verified);
+        }
+        if (revocationService.isRevoked(verified.jti())) {
+            return REVOKED;
+        }
+        return verified;
+    }
+
+    private VerifiedToken verify(String token, long now) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd <= headerEnd + 1 || payloadEnd == token.length() - 1
+                || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return MALFORMED;
+        }
+
+        byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+        try {
+            Header header = readHeader(decode(ascii, 0, headerEnd));
+            if (header == null) {
+                return MALFORMED;
+            }
+            SigningAlgorithm algorithm = SigningAlgorithm.fromCode(header.algorithm());
+            if (algorithm == null) {
+                return UNSUPPORTED_ALGORITHM;
+            }
+            JwtSigningKey key = keyStore.findByKeyId(header.keyId()).orElse(null);
+            if (key == null) {
+                return UNKNOWN_KEY;
+            }
+            if (key.algorithm() != algorithm) {
+                return UNSUPPORTED_ALGORITHM;
+            }
+
+            ByteBuffer signature = decode(ascii, payloadEnd + 1, ascii.length - payloadEnd - 1);
+            if (!verifiers.verify(key, ascii, payloadEnd, remaining(signature))) {
+                return INVALID_SIGNATURE;
+            }
+
+            return readClaims(token, decode(ascii, headerEnd + 1, payloadEnd - headerEnd - 1), now);
+        } catch (IllegalArgumentException | IOException e) {
+            return MALFORMED;
+        }
+    }
+
+    private Header readHeader(ByteBuffer header) throws IOException {
+        try (JsonParser parser = JSON.createParser(header.array(), header.arrayOffset() + header.position(), header.remaining())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String algorithm = null;
+            String keyId = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "alg" -> algorithm = parser.getValueAsString();
+                    case "kid" -> keyId = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            return new Header(algorithm, keyId);
+        }
+    }
+
+    private VerifiedToken readClaims(String token, ByteBuffer payload, long now) throws IOException {
+        String jti = null;
+        String tokenIssuer = null;
+        String subject = null;
+        String organizationId = null;
+        String role = null;
+        String email = null;
+        String firstName = null;
+        String lastName = null;
+        long expiresAtSeconds = -1;
+
+        try (JsonParser parser = JSON.createParser(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return MALFORMED;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "jti" -> jti = parser.getValueAsString();
+                    case "iss" -> tokenIssuer = parser.getValueAsString();
+                    case "sub" -> subject = parser.getValueAsString();
+                    case "exp" -> expiresAtSeconds = parser.getValueAsLong(-1);
+                    case CLAIM_ORGANIZATION -> organizationId = parser.getValueAsString();
+                    case CLAIM_ROLE -> role = parser.getValueAsString();
+                    case CLAIM_EMAIL -> email = parser.getValueAsString();
+                    case CLAIM_FIRST_NAME -> firstName = parser.getValueAsString();
+                    case CLAIM_LAST_NAME -> lastName = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (!issuer.equals(tokenIssuer)) {
+            return INVALID_ISSUER;
+        }
+        if (subject == null) {
+            return MISSING_SUBJECT;
+        }
+        long expiresAtMillis = expiresAtSeconds * 1000;
+        if (expiresAtSeconds < 0 || now >= expiresAtMillis) {
+            return EXPIRED;
+        }
+        return new VerifiedToken(token, jti, expiresAtMillis, firstName, lastName,
+                TokenValidationResult.valid(subject, organizationId, role, email));
+    }
+
+    private static ByteBuffer decode(byte[] ascii, int offset, int length) {
+        return BASE64_URL.decode(ByteBuffer.wrap(ascii, offset, length));
+    }
+
+    private static byte[] remaining(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static VerifiedToken rejected(String message) {
+        return new VerifiedToken(null, null, 0, null, null, TokenValidationResult.invalid(message));
+    }
+
+    private record Header(String algorithm, String keyId) {}
 }
@@ -0,0 +1,300 @@
+package com.observetask.userservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.observetask.userservice.exception.LoginRateLimitedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shields the login path from credential stuffing before it reaches Postgres or BCrypt
+ *
+ * Every attempt draws from three token buckets: its client address, its
+ * organization (when one is requested) and its email. Buckets are GCRA
+ * cells, a single timestamp updated with compare-and-set, so the local check
+ * is lock-free. An attempt the local buckets admit is then checked against
+ * the cluster-wide buckets in Redis in one script; a Redis rejection is
+ * copied into the local bucket, so the rest of a flood is turned away
+ * without a round trip. When Redis is unreachable the local buckets alone
+ * apply.
+ *
+ * Emails that did not match any user are remembered for unknown-email-ttl;
+ * attempts for them fail without a query. The entry is dropped on every pod
+ * as soon as a user with that email is created.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter implements MessageListener {
+
+    static final String KEY_PREFIX = "observetask:login-limit:";
+    static final String CHANNEL = "observetask:registered-email";
+
+    /**
+     * KEYS: buckets. ARGV: (interval ms, tolerance ms) per bucket. Consumes one token from every bucket or none;
+     * returns {0, 0}, or {index of the first full bucket, ms until it admits again}
+     */
+    private static final RedisScript<List> ACQUIRE = new DefaultRedisScript<>(
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n" +
+            "local next = {}\n" +
+            "for i, key in ipairs(KEYS) do\n" +
+            "  local interval = tonumber(ARGV[2 * i - 1])\n" +
+            "  local tolerance = tonumber(ARGV[2 * i])\n" +
+            "  local tat = math.max(tonumber(redis.call('GET', key) or now), now)\n" +
+            "  if tat - now > tolerance then return {i, tat - now - tolerance} end\n" +
+            "  next[i] = tat + interval\n" +
+            "end\n" +
+            "for i, key in ipairs(KEYS) do\n" +
+            "  redis.call('SET', key, next[i], 'PX', next[i] - now)\n" +
+            "end\n" +
+            "return {0, 0}",
+            List.class);
+
+    private final StringRedisTemplate redis;
+    private final boolean redisEnabled;
+    private final Limit emailLimit;
+    private final Limit addressLimit;
+    private final Limit organizationLimit;
+    private final Cache<String, Bucket> buckets;
+    private final Cache<String, Boolean> unknownEmails;
+
+    private final Counter emailRejections;
+    private final Counter addressRejections;
+    private final Counter organizationRejections;
+    private final Counter unknownEmailRejections;
+    private final Counter redisFailures;
+
+    public LoginRateLimiter(StringRedisTemplate redis,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${login.rate-limit.redis.enabled:true}") boolean redisEnabled,
+                            @Value("${login.rate-limit.email.capacity:10}") int emailCapacity,
+                            @Value("${login.rate-limit.email.period:PT15M}") Duration emailPeriod,
+                            @Value("${login.rate-limit.ip.capacity:100}") int addressCapacity,
+                            @Value("${login.rate-limit.ip.period:PT1M}") Duration addressPeriod,
+                            @Value("${login.rate-limit.organization.capacity:1000}") int organizationCapacity,
+                            @Value("${login.rate-limit.organization.period:PT1M}") Duration organizationPeriod,
+                            @Value("${login.rate-limit.maximum-buckets:500000}") long maximumBuckets,
+                            @Value("${login.rate-limit.unknown-email-ttl:PT10M}") Duration unknownEmailTtl,
+                            @Value("${login.rate-limit.maximum-unknown-emails:500000}") long maximumUnknownEmails) {
+        this.redis = redis;
+        this.redisEnabled = redisEnabled;
+        this.emailLimit = new Limit("email", emailCapacity, emailPeriod);
+        this.addressLimit = new Limit("ip", addressCapacity, addressPeriod);
+        this.organizationLimit = new Limit("organization", organizationCapacity, organizationPeriod);
+        // an idle bucket is full again after its period; dropping it then loses nothing
+        Duration longestPeriod = List.of(emailPeriod, addressPeriod, organizationPeriod).stream().max(Duration::compareTo).get();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(longestPeriod)
+                .build();
+        this.unknownEmails = Caffeine.newBuilder()
+                .maximumSize(maximumUnknownEmails)
+                .expireAfterWrite(unknownEmailTtl)
+                .recordStats()
+                .build();
+
+        this.emailRejections = rejectionCounter(meterRegistry, "email");
+        this.addressRejections = rejectionCounter(meterRegistry, "ip");
+        this.organizationRejections = rejectionCounter(meterRegistry, "organization");
+        this.unknownEmailRejections = rejectionCounter(meterRegistry, "unknown_email");
+        this.redisFailures = Counter.builder("auth.login.rate_limit.redis_failures")
+                .description("Login rate checks that fell back to local buckets because Redis was unreachable")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.rate_limit.buckets", buckets, Cache::estimatedSize)
+                .description("Login rate limit buckets held locally")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownEmails, "login_unknown_emails");
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Take one attempt from the address, organization and email buckets
+     * @throws LoginRateLimitedException if any of them is empty, locally or cluster-wide
+     */
+    public void acquire(String email, String ipAddress, String organizationId) {
+        List<Bucket> attempt = new ArrayList<>(3);
+        attempt.add(bucket(addressLimit, ipAddress == null ? "unknown" : ipAddress));
+        if (organizationId != null && !organizationId.isBlank()) {
+            attempt.add(bucket(organizationLimit, organizationId.trim().toLowerCase(Locale.ROOT)));
+        }
+        attempt.add(bucket(emailLimit, normalize(email)));
+
+        long now = System.currentTimeMillis();
+        for (Bucket bucket : attempt) {
+            long waitMillis = bucket.tryAcquire(now);
+            if (waitMillis > 0) {
+                throw rejected(bucket, waitMillis);
+            }
+        }
+        if (redisEnabled) {
+            acquireShared(attempt, now);
+        }
+    }
+
+    /**
+     * True if the email recently matched no user; the caller fails the attempt without looking it up
+     */
+    public boolean isUnknownEmail(String email) {
+        if (unknownEmails.getIfPresent(normalize(email)) == null) {
+            return false;
+        }
+        unknownEmailRejections.increment();
+        return true;
+    }
+
+    public void recordUnknownEmail(String email) {
+        unknownEmails.put(normalize(email), Boolean.TRUE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegistered(RegisteredEmailEvent event) {
+        String email = normalize(event.email());
+        unknownEmails.invalidate(email);
+        try {
+            redis.convertAndSend(CHANNEL, email);
+        } catch (DataAccessException e) {
+            log.warn("Registered email not propagated, other pods forget it as unknown by TTL: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A user registered on another pod (or echoed back to this one)
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        unknownEmails.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void acquireShared(List<Bucket> attempt, long now) {
+        List<String> keys = new ArrayList<>(attempt.size());
+        Object[] args = new Object[attempt.size() * 2];
+        for (int i = 0; i < attempt.size(); i++) {
+            Bucket bucket = attempt.get(i);
+            keys.add(KEY_PREFIX + bucket.key);
+            args[2 * i] = String.valueOf(bucket.limit.intervalMillis());
+            args[2 * i + 1] = String.valueOf(bucket.limit.toleranceMillis());
+        }
+        List<?> result;
+        try {
+            result = redis.execute(ACQUIRE, keys, args);
+        } catch (DataAccessException e) {
+            redisFailures.increment();
+            log.debug("Login rate limit checked locally only, Redis unavailable: {}", e.getMessage());
+            return;
+        }
+        int full = ((Number) result.get(0)).intValue();
+        if (full > 0) {
+            Bucket bucket = attempt.get(full - 1);
+            long waitMillis = ((Number) result.get(1)).longValue();
+            bucket.holdUntil(now + waitMillis);
+            throw rejected(bucket, waitMillis);
+        }
+    }
+
+    private Bucket bucket(Limit limit, String value) {
+        String key = limit.scope() + ":" + value;
+        return buckets.get(key, k -> new Bucket(k, limit));
+    }
+
+    private LoginRateLimitedException rejected(Bucket bucket, long waitMillis) {
+        switch (bucket.limit.scope()) {
+            case "email" -> emailRejections.increment();
+            case "ip" -> addressRejections.increment();
+            default -> organizationRejections.increment();
+        }
+        return new LoginRateLimitedException("Too many login attempts, try again later",
+                Duration.ofSeconds(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis + 999))));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.login.rate_limited")
+                .description("Login attempts rejected before the user lookup and password check")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * capacity attempts per period: one token is added every period / capacity, at most capacity held
+     */
+    record Limit(String scope, int capacity, Duration period) {
+
+        long intervalMillis() {
+            return Math.max(1, period.toMillis() / capacity);
+        }
+
+        long toleranceMillis() {
+            return intervalMillis() * (capacity - 1);
+        }
+    }
+
+    /**
+     * GCRA cell: tat is the theoretical arrival time of the next attempt; the bucket is full while tat <= now
+     */
+    static final class Bucket {
+
+        private final String key;
+        private final Limit limit;
+        private final AtomicLong tat = new AtomicLong();
+
+        Bucket(String key, Limit limit) {
+            this.key = key;
+            this.limit = limit;
+        }
+
+        /**
+         * Take a token; returns 0 on success, else the milliseconds until one is available
+         */
+        long tryAcquire(long now) {
+            long interval = limit.intervalMillis();
+            long tolerance = limit.toleranceMillis();
+            while (true) {
+                long current = tat.get();
+                long base = Math.max(current, now);
+                long waitMillis = base - now - tolerance;
+                if (waitMillis > 0) {
+                    return waitMillis;
+                }
+                if (tat.compareAndSet(current, base + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Reject locally until the given time, as the shared bucket does
+         */
+        void holdUntil(long admitAt) {
+            tat.accumulateAndGet(admitAt + limit.toleranceMillis(), Math::max);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.observetask.userservice.security;
+
+import com.observetask.userservice.entity.Role;
+
+/**
+ * Actions a membership grants within its organization, one bit each
+ * Role masks are compiled once from Role's hierarchy and assignment rules
+ */
+public enum Permission {
+    READ_ORGANIZATION,
+    MANAGE_TEAMS,
+    MANAGE_ORGANIZATION,
+    ASSIGN_SUPER_ADMIN,
+    ASSIGN_ORG_ADMIN,
+    ASSIGN_TEAM_ADMIN,
+    ASSIGN_TEAM_MEMBER;
+
+    private static final long[] ROLE_MASKS = new long[Role.values().length];
+
+    static {
+        for (Role role : Role.values()) {
+            long mask = READ_ORGANIZATION.bit();
+            if (role.hasAuthorityOver(Role.getTeamManagementRole())) {
+                mask |= MANAGE_TEAMS.bit();
+            }
+            if (role.hasAuthorityOver(Role.getOrganizationManagementRole())) {
+                mask |= MANAGE_ORGANIZATION.bit();
+            }
+            for (Role assignable : Role.values()) {
+                if (role.canAssignRole(assignable)) {
+                    mask |= assign(assignable).bit();
+                }
+            }
+            ROLE_MASKS[role.ordinal()] = mask;
+        }
+    }
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Permission to give a member the given role
+     */
+    public static Permission assign(Role role) {
+        return values()[ASSIGN_SUPER_ADMIN.ordinal() + role.ordinal()];
+    }
+
+    /**
+     * Every permission the role grants, as a mask of bit()s
+     */
+    public static long maskOf(Role role) {
+        return ROLE_MASKS[role.ordinal()];
+    }
+}
@@ -0,0 +1,148 @@
+package com.observetask.userservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.observetask.userservice.cache.PrincipalCache;
+import com.observetask.userservice.cache.PrincipalInvalidationEvent;
+import com.observetask.userservice.dto.PermissionCheckRequest.Check;
+import com.observetask.userservice.entity.Role;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers "may user X do A in organization Y" from compiled PermissionSets
+ *
+ * Each user's memberships are compiled once into a PermissionSet and cached;
+ * a check is then an in-memory mask test. A batch of checks loads the users
+ * it has not seen yet in one query. Entries are dropped on the same
+ * invalidations as PrincipalCache: locally after the changing transaction
+ * commits, and on other pods through its Redis channel.
+ */
+@Slf4j
+@Component
+public class PermissionEvaluator implements MessageListener {
+
+    private static final String LOAD_MEMBERSHIPS =
+            "SELECT ur.user_id, ur.organization_id, ur.role FROM observetask_users.user_roles ur " +
+            "JOIN observetask_users.users u ON u.id = ur.user_id " +
+            "WHERE u.is_active AND ur.user_id = ANY(CAST(? AS uuid[]))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<UUID, PermissionSet> permissions;
+
+    public PermissionEvaluator(JdbcTemplate jdbcTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry,
+                               @Value("${permissions.cache.maximum-size:100000}") long maximumSize,
+                               @Value("${permissions.cache.ttl:PT5M}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.permissions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, permissions, "permissions");
+        listenerContainer.addMessageListener(this, new ChannelTopic(PrincipalCache.CHANNEL));
+    }
+
+    public boolean allows(UUID userId, UUID organizationId, Permission permission) {
+        return permissionsOf(userId).allows(organizationId, permission);
+    }
+
+    public boolean canAssignRole(UUID userId, UUID organizationId, Role role) {
+        return permissionsOf(userId).canAssignRole(organizationId, role);
+    }
+
+    public PermissionSet permissionsOf(UUID userId) {
+        return permissions.get(userId, id -> load(List.of(id)).getOrDefault(id, PermissionSet.EMPTY));
+    }
+
+    /**
+     * Evaluate checks in order; users not cached yet are loaded with one query for the whole batch
+     */
+    public boolean[] evaluate(List<Check> checks) {
+        return evaluate(checks, (check, set) -> true);
+    }
+
+    /**
+     * Evaluate checks on behalf of a caller: a user is only answered for organizations it is a member of
+     * Anyone else, a SUPER_ADMIN of another organization included, is reported as not allowed, so
+     * the checks cannot be used to find global roles; the caller's own checks are answered in full
+     */
+    public boolean[] evaluateFor(UUID callerId, List<Check> checks) {
+        return evaluate(checks, (check, set) -> check.userId().equals(callerId) || set.isMemberOf(check.organizationId()));
+    }
+
+    private boolean[] evaluate(List<Check> checks, BiPredicate<Check, PermissionSet> answered) {
+        Set<UUID> userIds = new LinkedHashSet<>();
+        checks.forEach(check -> userIds.add(check.userId()));
+        Map<UUID, PermissionSet> sets = permissions.getAll(userIds, this::loadAll);
+
+        boolean[] allowed = new boolean[checks.size()];
+        for (int i = 0; i < allowed.length; i++) {
+            Check check = checks.get(i);
+            PermissionSet set = sets.get(check.userId());
+            allowed[i] = answered.test(check, set) && set.allows(check.organizationId(), check.action());
+        }
+        return allowed;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(PrincipalInvalidationEvent event) {
+        permissions.invalidate(event.userId());
+    }
+
+    /**
+     * Invalidation broadcast by PrincipalCache on another pod (or echoed back to this one)
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(' ');
+        try {
+            permissions.invalidate(UUID.fromString(separator < 0 ? body : body.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed principal invalidation message: {}", body);
+        }
+    }
+
+    private Map<UUID, PermissionSet> loadAll(Set<? extends UUID> userIds) {
+        Map<UUID, PermissionSet> loaded = load(userIds);
+        // users without active memberships are cached too, as EMPTY
+        userIds.forEach(id -> loaded.putIfAbsent(id, PermissionSet.EMPTY));
+        return loaded;
+    }
+
+    private Map<UUID, PermissionSet> load(Collection<? extends UUID> userIds) {
+        Map<UUID, PermissionSet.Builder> builders = new HashMap<>();
+        jdbcTemplate.query(LOAD_MEMBERSHIPS, resultSet -> {
+            builders.computeIfAbsent(resultSet.getObject("user_id", UUID.class), id -> PermissionSet.builder())
+                    .membership(resultSet.getObject("organization_id", UUID.class), Role.valueOf(resultSet.getString("role")));
+        }, (Object) userIds.stream().map(UUID::toString).toArray(String[]::new));
+        Map<UUID, PermissionSet> sets = new HashMap<>();
+        builders.forEach((id, builder) -> sets.put(id, builder.build()));
+        return sets;
+    }
+}
@@ -0,0 +1,65 @@
+package com.observetask.userservice.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.observetask.userservice.entity.Role;
+
+/**
+ * A user's memberships compiled to one permission mask per organization
+ *
+ * A SUPER_ADMIN membership grants its mask in every organization (as
+ * UserPrincipal.canAccessOrganization does), so it is kept as a global mask
+ * and or-ed into each lookup. A check is one hash lookup and a mask.
+ */
+public final class PermissionSet {
+
+    public static final PermissionSet EMPTY = new PermissionSet(0L, Map.of());
+
+    private final long global;
+    private final Map<UUID, Long> organizations;
+
+    private PermissionSet(long global, Map<UUID, Long> organizations) {
+        this.global = global;
+        this.organizations = organizations;
+    }
+
+    public boolean allows(UUID organizationId, Permission permission) {
+        return ((global | organizations.getOrDefault(organizationId, 0L)) & permission.bit()) != 0;
+    }
+
+    public boolean canAssignRole(UUID organizationId, Role role) {
+        return allows(organizationId, Permission.assign(role));
+    }
+
+    /**
+     * Whether the user holds a membership in the organization itself, not just a global role
+     */
+    public boolean isMemberOf(UUID organizationId) {
+        return organizations.containsKey(organizationId);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private long global;
+        private final Map<UUID, Long> organizations = new HashMap<>();
+
+        public Builder membership(UUID organizationId, Role role) {
+            long mask = Permission.maskOf(role);
+            if (role == Role.SUPER_ADMIN) {
+                global |= mask;
+            }
+            organizations.merge(organizationId, mask, (a, b) -> a | b);
+            return this;
+        }
+
+        public PermissionSet build() {
+            return global == 0 && organizations.isEmpty() ? EMPTY : new PermissionSet(global, Map.copyOf(organizations));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.observetask.userservice.security;
+
+/**
+ * Published when a user row is created or changes its email, so the address stops counting as unknown
+ */
+public record RegisteredEmailEvent(
+    String email
+) {}
@@ -0,0 +1,31 @@
+package com.observetask.userservice.security;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.observetask.userservice.entity.User;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA callback on User that turns new and changed emails into RegisteredEmailEvents
+ * JDBC-provisioned users are SSO identities and never log in with a password, so they need no event
+ */
+@Component
+public class RegisteredEmailListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RegisteredEmailListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(User user) {
+        if (user.getEmail() != null) {
+            eventPublisher.publishEvent(new RegisteredEmailEvent(user.getEmail()));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.observetask.userservice.security;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process Bloom filter of revoked token ids, split into expiry buckets
+ *
+ * Each jti lands in the bucket covering its expires_at. Once a bucket's whole
+ * time range is in the past every token in it has expired, so the bucket is
+ * dropped as a unit; memory is bounded by the revocations of one access token
+ * lifetime. A negative answer is definitive, a positive one must be confirmed.
+ */
+final class RevokedJtiFilter {
+
+    private static final int MAX_HASH_FUNCTIONS = 16;
+
+    private final long bucketWidthMillis;
+    private final int bitsPerBucket;
+    private final int hashFunctions;
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+    RevokedJtiFilter(Duration bucketWidth, int expectedEntriesPerBucket, double falsePositiveRate) {
+        this.bucketWidthMillis = bucketWidth.toMillis();
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedEntriesPerBucket * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int bits = Integer.highestOneBit((int) Math.min(Math.max(optimalBits, 64), 1 << 30));
+        this.bitsPerBucket = bits < optimalBits ? bits << 1 : bits;
+        int k = (int) Math.round((double) bitsPerBucket / expectedEntriesPerBucket * ln2);
+        this.hashFunctions = Math.max(1, Math.min(k, MAX_HASH_FUNCTIONS));
+    }
+
+    void add(String jti, long expiresAtMillis, long nowMillis) {
+        if (expiresAtMillis <= nowMillis) {
+            return;
+        }
+        long hash = hash(jti);
+        buckets.computeIfAbsent(Math.floorDiv(expiresAtMillis, bucketWidthMillis), index -> new Bucket(bitsPerBucket))
+               .add(hash, hashFunctions);
+    }
+
+    boolean mightContain(String jti, long nowMillis) {
+        if (buckets.isEmpty()) {
+            return false;
+        }
+        ConcurrentNavigableMap<Long, Bucket> live = buckets.tailMap(Math.floorDiv(nowMillis, bucketWidthMillis), true);
+        if (live.isEmpty()) {
+            return false;
+        }
+        long hash = hash(jti);
+        for (Bucket bucket : live.values()) {
+            if (bucket.mightContain(hash, hashFunctions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop buckets whose whole time range has passed
+     *
+     * @return number of buckets dropped
+     */
+    int expire(long nowMillis) {
+        ConcurrentNavigableMap<Long, Bucket> expired = buckets.headMap(Math.floorDiv(nowMillis, bucketWidthMillis), false);
+        int dropped = expired.size();
+        expired.clear();
+        return dropped;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    long entryCount() {
+        long entries = 0;
+        for (Bucket bucket : buckets.values()) {
+            entries += bucket.entries.get();
+        }
+        return entries;
+    }
+
+    /**
+     * 64-bit FNV-1a over the chars, finished with the MurmurHash3 fmix64 avalanche
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLongArray words;
+        private final int mask;
+        private final AtomicInteger entries = new AtomicInteger();
+
+        Bucket(int bits) {
+            this.words = new AtomicLongArray(bits >>> 6);
+            this.mask = bits - 1;
+        }
+
+        void add(long hash, int hashFunctions) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashFunctions; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long bitMask = 1L << bit;
+                int word = bit >>> 6;
+                long current = words.get(word);
+                while ((current & bitMask) == 0 && !words.compareAndSet(word, current, current | bitMask)) {
+                    current = words.get(word);
+                }
+            }
+            entries.incrementAndGet();
+        }
+
+        boolean mightContain(long hash, int hashFunctions) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashFunctions; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.observetask.userservice.security;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.observetask.userservice.dto.SessionInfo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live sessions per user, kept in Redis so the device cap costs no database query
+ *
+ * A session is a refresh-token family. Each user has a sorted set of family
+ * ids scored by the expiry of the family's current token, plus a hash with
+ * when and from where it started. Login adds its family and, in the same
+ * script, drops expired members and evicts the sessions closest to expiry
+ * (the least recently refreshed) beyond the cap; the evicted families are
+ * then deleted from jwt_refresh_tokens. Rotation moves a member's score.
+ *
+ * jwt_refresh_tokens stays the source of truth. A user's keys are rebuilt from
+ * it when they are missing and expire reconcile-interval after each rebuild,
+ * so drift (a lost write, a flushed Redis, tokens deleted by other paths) is
+ * corrected at least that often; a sentinel member tells an empty set apart
+ * from a missing one. If Redis is unavailable, the same cap is enforced with
+ * one statement against Postgres.
+ *
+ * The cap is sessions.max-per-user, or the limit configured for the
+ * organization the new session is scoped to. Access tokens of evicted or
+ * revoked sessions stay valid until they expire; only refresh is cut off.
+ */
+@Slf4j
+@Component
+public class SessionRegistry {
+
+    static final String KEY_PREFIX = "observetask:sessions:";
+
+    // Never a family id; scored +inf so it is neither expired nor evicted
+    private static final String SENTINEL = "~";
+    private static final List<String> REBUILD = List.of(SENTINEL);
+
+    /**
+     * KEYS: set, info hash. ARGV: now, family, expiry, info, cap. Returns the evicted families, or [~] if the set must be rebuilt
+     */
+    private static final RedisScript<List> REGISTER = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return {'" + SENTINEL + "'} end\n" +
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[1])\n" +
+            "if #expired > 0 then\n" +
+            "  redis.call('ZREM', KEYS[1], unpack(expired))\n" +
+            "  redis.call('HDEL', KEYS[2], unpack(expired))\n" +
+            "end\n" +
+            "redis.call('ZADD', KEYS[1], ARGV[3], ARGV[2])\n" +
+            "redis.call('HSET', KEYS[2], ARGV[2], ARGV[4])\n" +
+            "local over = redis.call('ZCARD', KEYS[1]) - 1 - tonumber(ARGV[5])\n" +
+            "if over <= 0 then return {} end\n" +
+            "local evicted = redis.call('ZRANGE', KEYS[1], 0, over - 1)\n" +
+            "redis.call('ZREM', KEYS[1], unpack(evicted))\n" +
+            "redis.call('HDEL', KEYS[2], unpack(evicted))\n" +
+            "return evicted",
+            List.class);
+
+    /**
+     * KEYS: set, info hash. ARGV: ttl seconds, then (expiry, family, info) per session
+     */
+    private static final RedisScript<Long> REBUILD_SESSIONS = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1], KEYS[2])\n" +
+            "redis.call('ZADD', KEYS[1], '+inf', '" + SENTINEL + "')\n" +
+            "for i = 2, #ARGV, 3 do\n" +
+            "  redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1])\n" +
+            "  redis.call('HSET', KEYS[2], ARGV[i + 1], ARGV[i + 2])\n" +
+            "end\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1])\n" +
+            "redis.call('EXPIRE', KEYS[2], ARGV[1])\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS: set. ARGV: family, expiry. Updates a member that is present; a missing set is rebuilt on its next read
+     */
+    private static final RedisScript<Long> TOUCH = new DefaultRedisScript<>(
+            "return redis.call('ZADD', KEYS[1], 'XX', ARGV[2], ARGV[1])",
+            Long.class);
+
+    /**
+     * KEYS: set, info hash. ARGV: now. Returns (family, expiry, info) per live session, or [~] if the set must be rebuilt
+     */
+    private static final RedisScript<List> LIST = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return {'" + SENTINEL + "'} end\n" +
+            "local rows = redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[1], '+inf', 'WITHSCORES')\n" +
+            "local result = {}\n" +
+            "for i = 1, #rows, 2 do\n" +
+            "  if rows[i] ~= '" + SENTINEL + "' then\n" +
+            "    table.insert(result, rows[i])\n" +
+            "    table.insert(result, rows[i + 1])\n" +
+            "    table.insert(result, redis.call('HGET', KEYS[2], rows[i]) or '')\n" +
+            "  end\n" +
+            "end\n" +
+            "return result",
+            List.class);
+
+    private static final String ACTIVE_SESSIONS =
+            "SELECT t.family_id, t.expires_at, t.device_info, t.ip_address, " +
+            "       (SELECT min(f.created_at) FROM observetask_users.jwt_refresh_tokens f WHERE f.family_id = t.family_id) AS started_at " +
+            "FROM observetask_users.jwt_refresh_tokens t " +
+            "WHERE t.user_id = ? AND t.used_at IS NULL AND t.expires_at > now() " +
+            "ORDER BY t.expires_at";
+
+    private static final String EVICT_OVER_CAP =
+            "DELETE FROM observetask_users.jwt_refresh_tokens WHERE user_id = ? AND family_id IN (" +
+            "    SELECT family_id FROM observetask_users.jwt_refresh_tokens " +
+            "    WHERE user_id = ? AND used_at IS NULL AND expires_at > now() " +
+            "    ORDER BY expires_at DESC OFFSET ?) " +
+            "RETURNING family_id";
+
+    private static final String DELETE_FAMILIES =
+            "DELETE FROM observetask_users.jwt_refresh_tokens WHERE user_id = ? AND family_id = ANY(CAST(? AS uuid[]))";
+
+    private final StringRedisTemplate redis;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPerUser;
+    private final Map<String, Integer> organizationLimits;
+    private final Duration reconcileInterval;
+
+    private final Counter evictions;
+    private final Counter redisFallbacks;
+
+    public SessionRegistry(StringRedisTemplate redis,
+                           JdbcTemplate jdbcTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${sessions.max-per-user:10}") int maxPerUser,
+                           @Value("#{${sessions.organization-limits:{:}}}") Map<String, Integer> organizationLimits,
+                           @Value("${sessions.reconcile-interval:PT1H}") Duration reconcileInterval) {
+        this.redis = redis;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPerUser = maxPerUser;
+        this.organizationLimits = Map.copyOf(organizationLimits);
+        this.reconcileInterval = reconcileInterval;
+        this.evictions = Counter.builder("sessions.evicted").register(meterRegistry);
+        this.redisFallbacks = Counter.builder("sessions.redis.fallback").register(meterRegistry);
+    }
+
+    /**
+     * Record a new session and end the user's oldest ones beyond the cap; returns the number ended
+     * Call after the family's first token is committed
+     */
+    public int register(UUID userId, UUID familyId, Instant expiresAt, UUID organizationId,
+                        String ipAddress, String deviceInfo) {
+        int cap = capFor(organizationId);
+        List<String> evicted;
+        try {
+            String info = info(Instant.now(), ipAddress, deviceInfo);
+            evicted = register(userId, familyId, expiresAt, info, cap);
+            if (REBUILD.equals(evicted)) {
+                rebuild(userId);
+                evicted = register(userId, familyId, expiresAt, info, cap);
+            }
+        } catch (DataAccessException e) {
+            redisFallbacks.increment();
+            log.debug("Session registry unavailable, enforcing the cap in Postgres: {}", e.getMessage());
+            // RETURNING lists every deleted row, consumed tokens of the same family included
+            evicted = jdbcTemplate.queryForList(EVICT_OVER_CAP, String.class, userId, userId, cap).stream().distinct().toList();
+            return ended(userId, cap, evicted);
+        }
+        if (!evicted.isEmpty()) {
+            jdbcTemplate.update(DELETE_FAMILIES, userId, evicted.toArray(String[]::new));
+        }
+        return ended(userId, cap, evicted);
+    }
+
+    /**
+     * A session was refreshed: its family now lives until expiresAt
+     */
+    public void touch(UUID userId, UUID familyId, Instant expiresAt) {
+        try {
+            redis.execute(TOUCH, List.of(key(userId)), familyId.toString(), String.valueOf(expiresAt.toEpochMilli()));
+        } catch (DataAccessException e) {
+            log.debug("Session registry touch for user {} not recorded, reconciled later: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Live sessions of the user, oldest expiry first
+     */
+    public List<SessionInfo> list(UUID userId) {
+        try {
+            List<String> rows = redis.execute(LIST, keys(userId), String.valueOf(Instant.now().toEpochMilli()));
+            if (REBUILD.equals(rows)) {
+                return rebuild(userId);
+            }
+            List<SessionInfo> sessions = new ArrayList<>(rows.size() / 3);
+            for (int i = 0; i + 2 < rows.size(); i += 3) {
+                sessions.add(session(rows.get(i), Instant.ofEpochMilli((long) Double.parseDouble(rows.get(i + 1))), rows.get(i + 2)));
+            }
+            return sessions;
+        } catch (DataAccessException e) {
+            redisFallbacks.increment();
+            log.debug("Session registry unavailable, listing sessions from Postgres: {}", e.getMessage());
+            return loadSessions(userId);
+        }
+    }
+
+    /**
+     * End one of the user's sessions; returns false if it is not theirs or already ended
+     */
+    public boolean revoke(UUID userId, UUID familyId) {
+        int deleted = jdbcTemplate.update(DELETE_FAMILIES, userId, new String[] {familyId.toString()});
+        remove(userId, familyId);
+        return deleted > 0;
+    }
+
+    /**
+     * Forget a family that was deleted from jwt_refresh_tokens by another path (e.g. reuse detection)
+     */
+    public void remove(UUID userId, UUID familyId) {
+        try {
+            redis.opsForZSet().remove(key(userId), familyId.toString());
+            redis.opsForHash().delete(infoKey(userId), familyId.toString());
+        } catch (DataAccessException e) {
+            log.debug("Session registry removal for user {} not recorded, reconciled later: {}", userId, e.getMessage());
+        }
+    }
+
+    private int ended(UUID userId, int cap, List<String> evicted) {
+        if (!evicted.isEmpty()) {
+            evictions.increment(evicted.size());
+            log.info("Session cap of {} reached for user {}, ended {} oldest session(s)", cap, userId, evicted.size());
+        }
+        return evicted.size();
+    }
+
+    private List<String> register(UUID userId, UUID familyId, Instant expiresAt, String info, int cap) {
+        return redis.execute(REGISTER, keys(userId), String.valueOf(Instant.now().toEpochMilli()), familyId.toString(),
+                String.valueOf(expiresAt.toEpochMilli()), info, String.valueOf(cap));
+    }
+
+    private List<SessionInfo> rebuild(UUID userId) {
+        List<SessionInfo> sessions = loadSessions(userId);
+        List<String> args = new ArrayList<>(1 + sessions.size() * 3);
+        args.add(String.valueOf(reconcileInterval.toSeconds()));
+        for (SessionInfo session : sessions) {
+            args.add(String.valueOf(session.expiresAt().toEpochMilli()));
+            args.add(session.id());
+            args.add(info(session.startedAt(), session.ipAddress(), session.deviceInfo()));
+        }
+        redis.execute(REBUILD_SESSIONS, keys(userId), args.toArray());
+        return sessions;
+    }
+
+    private List<SessionInfo> loadSessions(UUID userId) {
+        return jdbcTemplate.query(ACTIVE_SESSIONS, (rs, rowNum) -> new SessionInfo(
+                rs.getString("family_id"),
+                toInstant(rs.getTimestamp("started_at")),
+                toInstant(rs.getTimestamp("expires_at")),
+                rs.getString("device_info"),
+                rs.getString("ip_address")), userId);
+    }
+
+    private int capFor(UUID organizationId) {
+        return organizationId == null ? maxPerUser
+                : organizationLimits.getOrDefault(organizationId.toString(), maxPerUser);
+    }
+
+    // Started-at millis, IP and device separated by newlines, which HTTP header values cannot contain
+    private static String info(Instant startedAt, String ipAddress, String deviceInfo) {
+        return (startedAt == null ? "" : startedAt.toEpochMilli()) + "\n"
+                + (ipAddress == null ? "" : ipAddress) + "\n"
+                + (deviceInfo == null ? "" : deviceInfo);
+    }
+
+    private static SessionInfo session(String familyId, Instant expiresAt, String info) {
+        String[] parts = info.split("\n", 3);
+        Instant startedAt = parts[0].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(parts[0]));
+        return new SessionInfo(familyId, startedAt, expiresAt,
+                parts.length > 2 && !parts[2].isEmpty() ? parts[2] : null,
+                parts.length > 1 && !parts[1].isEmpty() ? parts[1] : null);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private static List<String> keys(UUID userId) {
+        return List.of(key(userId), infoKey(userId));
+    }
+
+    private static String key(UUID userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static String infoKey(UUID userId) {
+        return KEY_PREFIX + userId + ":info";
+    }
+}
@@ -0,0 +1,56 @@
+package com.observetask.userservice.security;
+
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reusable JCA Signature verifiers, already initialized with each key's public key, pooled by kid
+ *
+ * Request handlers run on virtual threads, so a ThreadLocal would be thrown
+ * away with every request; instead each key has a small lock-free pool that
+ * verifications borrow from and return to. A Signature resets to its
+ * initialized state after verify(), so a pooled instance skips both the
+ * provider lookup and key parsing. Pools of keys that are no longer used are
+ * dropped when the number of keys grows past MAX_KEYS.
+ */
+final class SignatureVerifierPool {
+
+    private static final int MAX_KEYS = 16;
+    private static final int MAX_IDLE_PER_KEY = 64;
+
+    private final Map<String, Queue<Signature>> pools = new ConcurrentHashMap<>();
+
+    boolean verify(JwtSigningKey key, byte[] data, int length, byte[] signature) {
+        Queue<Signature> pool = pools.get(key.keyId());
+        if (pool == null) {
+            if (pools.size() >= MAX_KEYS) {
+                pools.clear();
+            }
+            pool = pools.computeIfAbsent(key.keyId(), keyId -> new ConcurrentLinkedQueue<>());
+        }
+        try {
+            Signature verifier = pool.poll();
+            if (verifier == null) {
+                verifier = Signature.getInstance(key.algorithm().getSignatureAlgorithm());
+                verifier.initVerify(key.publicKey());
+            }
+            verifier.update(data, 0, length);
+            boolean valid = verifier.verify(signature);
+            release(pool, verifier);
+            return valid;
+        } catch (GeneralSecurityException e) {
+            // a verifier that threw may be mid-operation; it is not returned to the pool
+            return false;
+        }
+    }
+
+    private static void release(Queue<Signature> pool, Signature verifier) {
+        if (pool.size() < MAX_IDLE_PER_KEY) {
+            pool.offer(verifier);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.observetask.userservice.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+public enum SigningAlgorithm {
+    RS256("RS256", "RSA", "SHA256withRSA", 2048),
+    EDDSA("EdDSA", "Ed25519", "Ed25519", 0);
+
+    private final String code;
+    private final String keyAlgorithm;
+    private final String signatureAlgorithm;
+    private final int keySize;
+
+    SigningAlgorithm(String code, String keyAlgorithm, String signatureAlgorithm, int keySize) {
+        this.code = code;
+        this.keyAlgorithm = keyAlgorithm;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.keySize = keySize;
+    }
+
+    /**
+     * JWS "alg" header value
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * JCA KeyPairGenerator algorithm name
+     */
+    public String getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    /**
+     * JCA Signature algorithm name used for local verification
+     */
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * Key size in bits, 0 when the curve fixes it
+     */
+    public int getKeySize() {
+        return keySize;
+    }
+
+    /**
+     * jjwt algorithm used when issuing tokens
+     */
+    public SignatureAlgorithm getJwsAlgorithm() {
+        return this == EDDSA ? Jwts.SIG.EdDSA : Jwts.SIG.RS256;
+    }
+
+    /**
+     * Resolve from a JWS "alg" header value, or null if unsupported
+     */
+    public static SigningAlgorithm fromCode(String code) {
+        for (SigningAlgorithm algorithm : values()) {
+            if (algorithm.code.equals(code)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,208 @@
+package com.observetask.userservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.observetask.userservice.entity.BlacklistedToken;
+import com.observetask.userservice.repository.BlacklistedTokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Two-tier store of revoked access token ids
+ *
+ * Lookups go to the in-process RevokedJtiFilter first; a negative answer (the
+ * common case) never leaves the JVM. Only filter hits are confirmed against
+ * Redis, and jwt_blacklist in Postgres is the durable record that settles any
+ * hit Redis cannot confirm (missed write, eviction, restart, outage); a
+ * confirmed revocation is written back to Redis. New revocations reach other pods through Redis pub/sub, with
+ * a periodic incremental read of jwt_blacklist to catch missed messages.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService implements MessageListener {
+
+    static final String KEY_PREFIX = "observetask:revoked-jti:";
+    static final String CHANNEL = "observetask:revoked-jti";
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final BlacklistedTokenRepository repository;
+    private final StringRedisTemplate redis;
+    private final RevokedJtiFilter filter;
+    private final Duration syncOverlap;
+
+    private final Counter filterNegatives;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter databaseFallbacks;
+
+    private volatile LocalDateTime lastSyncedAt;
+
+    public TokenRevocationService(BlacklistedTokenRepository repository,
+                                  StringRedisTemplate redis,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${jwt.revocation.bucket-width:PT5M}") Duration bucketWidth,
+                                  @Value("${jwt.revocation.expected-entries-per-bucket:10000}") int expectedEntriesPerBucket,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${jwt.revocation.sync-interval:PT30S}") Duration syncInterval) {
+        this.repository = repository;
+        this.redis = redis;
+        this.filter = new RevokedJtiFilter(bucketWidth, expectedEntriesPerBucket, falsePositiveRate);
+        this.syncOverlap = syncInterval;
+
+        this.filterNegatives = lookupCounter(meterRegistry, "filter_negative");
+        this.redisHits = lookupCounter(meterRegistry, "redis_hit");
+        this.redisMisses = lookupCounter(meterRegistry, "redis_miss");
+        this.databaseFallbacks = lookupCounter(meterRegistry, "database");
+        Gauge.builder("jwt.revocation.filter.entries", filter, RevokedJtiFilter::entryCount)
+                .description("Revoked token ids held in the in-process filter")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.filter.buckets", filter, RevokedJtiFilter::bucketCount)
+                .description("Live expiry buckets in the in-process filter")
+                .register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Revoke a token id until the token's own expiry
+     * Postgres is written first so the revocation survives a Redis outage
+     */
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        long expiresAtMillis = toMillis(expiresAt);
+        long now = System.currentTimeMillis();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        repository.insertIfAbsent(jti, expiresAt);
+        filter.add(jti, expiresAtMillis, now);
+        try {
+            redis.opsForValue().set(KEY_PREFIX + jti, "1", Duration.ofMillis(expiresAtMillis - now));
+            redis.convertAndSend(CHANNEL, jti + " " + expiresAtMillis);
+        } catch (DataAccessException e) {
+            log.warn("Revocation of {} not propagated through Redis, other pods will pick it up on sync: {}", jti, e.getMessage());
+        }
+    }
+
+    /**
+     * Check if a token id has been revoked
+     * A filter hit that Redis does not confirm is settled by jwt_blacklist: the Redis
+     * write in revoke() can fail and Redis can lose keys, Postgres cannot
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti, System.currentTimeMillis())) {
+            filterNegatives.increment();
+            return false;
+        }
+        try {
+            if (Boolean.TRUE.equals(redis.hasKey(KEY_PREFIX + jti))) {
+                redisHits.increment();
+                return true;
+            }
+            redisMisses.increment();
+        } catch (DataAccessException e) {
+            log.debug("Revocation lookup for {} falling back to the database: {}", jti, e.getMessage());
+        }
+        databaseFallbacks.increment();
+        return repository.findById(jti)
+                .filter(revocation -> toMillis(revocation.getExpiresAt()) > System.currentTimeMillis())
+                .map(this::restoreInRedis)
+                .isPresent();
+    }
+
+    private BlacklistedToken restoreInRedis(BlacklistedToken revocation) {
+        long ttlMillis = toMillis(revocation.getExpiresAt()) - System.currentTimeMillis();
+        try {
+            redis.opsForValue().set(KEY_PREFIX + revocation.getTokenJti(), "1", Duration.ofMillis(Math.max(ttlMillis, 1)));
+        } catch (DataAccessException e) {
+            log.debug("Could not restore revocation of {} in Redis: {}", revocation.getTokenJti(), e.getMessage());
+        }
+        return revocation;
+    }
+
+    /**
+     * Apply a revocation published by another pod
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(' ');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed revocation message: {}", body);
+            return;
+        }
+        try {
+            filter.add(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)), System.currentTimeMillis());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation message: {}", body);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        int loaded = load(repository.findActive(startedAt));
+        lastSyncedAt = startedAt;
+        log.info("Loaded {} active token revocations into the revocation filter", loaded);
+    }
+
+    /**
+     * Catch up on revocations whose pub/sub message was missed and drop expired buckets
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT30S}")
+    public void sync() {
+        filter.expire(System.currentTimeMillis());
+        LocalDateTime since = lastSyncedAt;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        load(repository.findActiveCreatedSince(startedAt, since.minus(syncOverlap)));
+        lastSyncedAt = startedAt;
+    }
+
+    private int load(Iterable<BlacklistedToken> revocations) {
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        for (BlacklistedToken revocation : revocations) {
+            filter.add(revocation.getTokenJti(), toMillis(revocation.getExpiresAt()), now);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZONE);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("jwt.revocation.lookups")
+                .description("Revocation checks by the tier that answered them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.observetask.userservice.security;
 
+import com.observetask.userservice.entity.Role;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,7 +13,7 @@ import java.util.UUID;
  * Used to pass user data to JwtUtils when creating access tokens
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserPrincipal {
@@ -84,4 +85,21 @@ public class UserPrincipal {
         }
         return email; // Fallback to email
     }
+
+    /**
+     * Whether this principal may read data of the given organization
+     * Members see their own organization; SUPER_ADMIN sees all
+     */
+    public boolean canAccessOrganization(UUID organizationId) {
+        return "SUPER_ADMIN".equals(role) || (organizationId != null && organizationId.equals(this.organizationId));
+    }
+
+    /**
+     * Whether this principal administers the given organization (ORG_ADMIN of it, or SUPER_ADMIN)
+     */
+    public boolean canManageOrganization(UUID organizationId) {
+        return canAccessOrganization(organizationId)
+                && role != null
+                && Role.valueOf(role).hasAuthorityOver(Role.ORG_ADMIN);
+    }
 }
\ No newline at end of file
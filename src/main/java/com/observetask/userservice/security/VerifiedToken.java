@@ -0,0 +1,38 @@
+package com.observetask.userservice.security;
+
+import java.util.UUID;
+
+import com.observetask.userservice.dto.TokenValidationResult;
+
+/**
+ * Claims of an access token whose signature has already been verified
+ * Held by VerifiedTokenCache so repeat validations skip signature verification and JSON parsing
+ */
+record VerifiedToken(
+    String token,
+    String jti,
+    long expiresAtMillis,
+    String firstName,
+    String lastName,
+    TokenValidationResult result
+) {
+
+    boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    /**
+     * Build a fresh UserPrincipal so callers never share a mutable instance
+     */
+    UserPrincipal toPrincipal() {
+        return UserPrincipal.builder()
+                .userId(UUID.fromString(result.userId()))
+                .organizationId(result.organizationId() != null ? UUID.fromString(result.organizationId()) : null)
+                .role(result.role())
+                .email(result.email())
+                .firstName(firstName)
+                .lastName(lastName)
+                .isActive(true)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.observetask.userservice.security;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free cache of verified access tokens
+ *
+ * Direct-mapped: each token maps to exactly one slot and a newer token simply
+ * overwrites an older one, so memory is fixed at construction time. The slot
+ * is derived from the tail of the signature segment, which already depends
+ * on the whole token, so hashing costs a handful of chars instead of a full
+ * pass. A hit still requires an exact token match.
+ */
+final class VerifiedTokenCache {
+
+    private static final int DIGEST_CHARS = 16;
+
+    private final AtomicReferenceArray<VerifiedToken> slots;
+    private final int mask;
+
+    VerifiedTokenCache(int maxEntries) {
+        int capacity = Integer.highestOneBit(Math.max(maxEntries, 1));
+        if (capacity < maxEntries) {
+            capacity <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Look up a previously verified token, dropping the slot if it has expired
+     */
+    VerifiedToken get(String token, long nowMillis) {
+        int index = indexOf(token);
+        VerifiedToken entry = slots.get(index);
+        if (entry == null || !entry.token().equals(token)) {
+            return null;
+        }
+        if (entry.isExpired(nowMillis)) {
+            slots.compareAndSet(index, entry, null);
+            return null;
+        }
+        return entry;
+    }
+
+    void put(VerifiedToken entry) {
+        slots.set(indexOf(entry.token()), entry);
+    }
+
+    /**
+     * Drop a cached token, e.g. after it has been revoked
+     */
+    void invalidate(String token) {
+        int index = indexOf(token);
+        VerifiedToken entry = slots.get(index);
+        if (entry != null && entry.token().equals(token)) {
+            slots.compareAndSet(index, entry, null);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    private int indexOf(String token) {
+        int length = token.length();
+        if (length < DIGEST_CHARS) {
+            return spread(token.hashCode()) & mask;
+        }
+        int h = 0;
+        for (int i = length - DIGEST_CHARS; i < length; i++) {
+            h = 31 * h + token.charAt(i);
+        }
+        return spread(h) & mask;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
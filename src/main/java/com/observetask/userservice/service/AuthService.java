@@ -0,0 +1,173 @@
+package com.observetask.userservice.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.UUID;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import com.observetask.userservice.cache.PrincipalCache;
+import com.observetask.userservice.dto.LoginRequest;
+import com.observetask.userservice.dto.LoginResponse;
+import com.observetask.userservice.dto.RefreshTokenRequest;
+import com.observetask.userservice.dto.UserProfile;
+import com.observetask.userservice.entity.RefreshToken;
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.entity.UserRole;
+import com.observetask.userservice.repository.RefreshTokenRepository;
+import com.observetask.userservice.repository.UserRepository;
+import com.observetask.userservice.security.JwtUtils;
+import com.observetask.userservice.security.LoginRateLimiter;
+import com.observetask.userservice.security.SessionRegistry;
+import com.observetask.userservice.security.UserPrincipal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Login and token issuing for ObserveTask users
+ *
+ * Deliberately not @Transactional: the password check can wait on the
+ * hashing pool for hundreds of milliseconds and must not hold a database
+ * connection while it does. Each repository call runs in its own short
+ * transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthService {
+
+    static final String INVALID_CREDENTIALS = "Invalid email or password";
+    static final String INVALID_REFRESH_TOKEN = "Invalid or expired refresh token";
+
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final RefreshTokenRotationService refreshTokenRotationService;
+    private final SessionRegistry sessionRegistry;
+    private final LoginRateLimiter loginRateLimiter;
+    private final LoginTimingEqualizer loginTimingEqualizer;
+    private final UserActivityTracker userActivityTracker;
+    private final PrincipalCache principalCache;
+    private final JwtUtils jwtUtils;
+
+    /**
+     * Authenticate a LOCAL user and issue an access/refresh token pair
+     * Rate limits and the unknown-email cache are checked first, before any query or hash; every
+     * failure before the password check is delayed to look like a failed check (LoginTimingEqualizer)
+     */
+    public LoginResponse login(LoginRequest request, String ipAddress, String deviceInfo) {
+        // stored emails are lower-case; the lookup and the unknown-email cache must agree on one key
+        String email = InvitationService.normalizeEmail(request.email());
+        loginRateLimiter.acquire(email, ipAddress, request.organizationId());
+        long startedAt = System.nanoTime();
+        if (email == null || loginRateLimiter.isUnknownEmail(email)) {
+            throw invalidCredentialsAfterDelay(startedAt);
+        }
+        User user = userRepository.findWithRolesByEmail(email).orElse(null);
+        if (user == null) {
+            loginRateLimiter.recordUnknownEmail(email);
+            throw invalidCredentialsAfterDelay(startedAt);
+        }
+        if (!user.canLoginWithPassword()) {
+            throw invalidCredentialsAfterDelay(startedAt);
+        }
+
+        PasswordHashingService.Verification verification = passwordHashingService.verify(request.password(), user.getPasswordHash());
+        loginTimingEqualizer.recordVerification(startedAt);
+        if (!verification.matches()) {
+            throw new BadCredentialsException(INVALID_CREDENTIALS);
+        }
+        if (verification.needsUpgrade()) {
+            userRepository.updatePasswordHash(user.getId(), verification.upgradedHash());
+            log.debug("Upgraded password hash cost for user {}", user.getId());
+        }
+
+        UserRole membership = resolveMembership(user, request.organizationId());
+        UserPrincipal principal = UserPrincipal.from(user, membership);
+        principalCache.put(principal, isBlank(request.organizationId()));
+        userActivityTracker.touch(user.getId());
+        return issueTokens(principal, user, ipAddress, deviceInfo);
+    }
+
+    /**
+     * Rotate a refresh token: the presented token is consumed and a new access/refresh pair issued
+     * One statement consumes the token, stores its successor and loads the principal (RefreshTokenRotationService)
+     */
+    public LoginResponse refresh(RefreshTokenRequest request, String ipAddress, String deviceInfo) {
+        UUID organizationId = isBlank(request.organizationId()) ? null : parseOrganizationId(request.organizationId());
+        String refreshToken = jwtUtils.generateRefreshToken();
+        Instant expiresAt = Instant.now().plusMillis(jwtUtils.getRefreshTokenExpirationMs());
+        RefreshTokenRotationService.Rotation rotation = refreshTokenRotationService.rotate(
+                JwtUtils.hashRefreshToken(request.refreshToken()), JwtUtils.hashRefreshToken(refreshToken),
+                expiresAt, organizationId, ipAddress, deviceInfo);
+        if (rotation.outcome() == RefreshTokenRotationService.Outcome.REUSED) {
+            sessionRegistry.remove(rotation.userId(), rotation.familyId());
+        }
+        if (rotation.principal() == null) {
+            throw new BadCredentialsException(INVALID_REFRESH_TOKEN);
+        }
+        sessionRegistry.touch(rotation.userId(), rotation.familyId(), expiresAt);
+        userActivityTracker.touch(rotation.userId());
+        UserPrincipal principal = rotation.principal();
+        principalCache.put(principal, organizationId == null);
+        return LoginResponse.of(jwtUtils.generateAccessToken(principal), refreshToken,
+                UserProfile.from(principal), jwtUtils.getAccessTokenExpirationMs() / 1000);
+    }
+
+    private BadCredentialsException invalidCredentialsAfterDelay(long startedAt) {
+        loginTimingEqualizer.delayAsVerification(startedAt);
+        return new BadCredentialsException(INVALID_CREDENTIALS);
+    }
+
+    private LoginResponse issueTokens(UserPrincipal principal, User user, String ipAddress, String deviceInfo) {
+        String accessToken = jwtUtils.generateAccessToken(principal);
+        String refreshToken = jwtUtils.generateRefreshToken();
+        UUID familyId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plusMillis(jwtUtils.getRefreshTokenExpirationMs());
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(JwtUtils.hashRefreshToken(refreshToken))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .deviceInfo(deviceInfo)
+                .ipAddress(ipAddress)
+                .build());
+        sessionRegistry.register(user.getId(), familyId, expiresAt, principal.getOrganizationId(), ipAddress, deviceInfo);
+        return LoginResponse.of(accessToken, refreshToken, UserProfile.from(principal),
+                jwtUtils.getAccessTokenExpirationMs() / 1000);
+    }
+
+    /**
+     * Pick the organization the session is scoped to: the requested one, or the user's oldest membership
+     * Roles were fetched with the user, so this issues no queries
+     */
+    private static UserRole resolveMembership(User user, String organizationId) {
+        if (!isBlank(organizationId)) {
+            UUID requested = parseOrganizationId(organizationId);
+            return user.getRoles().stream()
+                    .filter(role -> requested.equals(role.getOrganizationId()))
+                    .findFirst()
+                    .orElseThrow(() -> new AccessDeniedException("User is not a member of the organization"));
+        }
+        return user.getRoles().stream()
+                .min(Comparator.comparing(UserRole::getCreatedAt))
+                .orElseThrow(() -> new AccessDeniedException("User has no organization membership"));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static UUID parseOrganizationId(String organizationId) {
+        try {
+            return UUID.fromString(organizationId);
+        } catch (IllegalArgumentException e) {
+            throw new AccessDeniedException("User is not a member of the organization");
+        }
+    }
+}
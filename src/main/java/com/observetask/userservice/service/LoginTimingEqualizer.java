@@ -0,0 +1,131 @@
+package com.observetask.userservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes a login that fails before the password check take as long as one that fails on it
+ *
+ * A login for an email without a usable password hash would otherwise
+ * answer in a millisecond, while a wrong password takes a full BCrypt
+ * verification, so response times would tell which emails are registered.
+ * Instead of burning a BCrypt hash on a dummy value (and doubling the CPU
+ * cost of enumeration traffic), the short path sleeps. Request threads are
+ * virtual, so the sleep parks without holding a carrier.
+ *
+ * How long to sleep is drawn from the durations of recent real password
+ * checks, measured from the start of the login, so the short path follows
+ * the same distribution, including queueing on the hashing pool under load.
+ * Until the first real check has been recorded, one dummy verification is
+ * run on the hashing pool to seed the samples.
+ *
+ * A sleep always overshoots by timer slack and scheduling latency, which
+ * grows with load; a plain sleep would make the short path systematically
+ * slower than the checks it imitates. The wait is therefore on a deadline:
+ * the thread parks until the deadline minus the recent lateness, a moving
+ * average of how far past their deadlines earlier padded logins finished,
+ * so the average error is driven to zero and follows the machine's load.
+ */
+@Slf4j
+@Service
+public class LoginTimingEqualizer {
+
+    private static final String CALIBRATION_PASSWORD = "login-timing-calibration";
+    // weight of the newest error in the lateness average: 1 / 2^LATENESS_SHIFT
+    private static final int LATENESS_SHIFT = 3;
+
+    private final PasswordHashingService passwordHashingService;
+    private final AtomicLongArray samples;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicLong lateness = new AtomicLong();
+    private final Timer paddingTimer;
+
+    private volatile String calibrationHash;
+
+    public LoginTimingEqualizer(PasswordHashingService passwordHashingService,
+                                MeterRegistry meterRegistry,
+                                @Value("${security.password.timing.samples:256}") int sampleSize) {
+        this.passwordHashingService = passwordHashingService;
+        this.samples = new AtomicLongArray(sampleSize);
+        this.paddingTimer = Timer.builder("auth.login.padding")
+                .description("Delay added to logins that failed before the password check")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a login that ran a real password check, from its start (System.nanoTime) until now
+     */
+    public void recordVerification(long startedAt) {
+        record(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Sleep until a login started at startedAt (System.nanoTime) has taken as long as a real password check
+     */
+    public void delayAsVerification(long startedAt) {
+        long target = sample();
+        if (target == 0) {
+            target = calibrate();
+        }
+        long deadline = startedAt + target;
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return;
+        }
+        waitUntil(deadline);
+        paddingTimer.record(remaining, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Park until the deadline less the recent lateness, then fold this wait's error into the average
+     */
+    private void waitUntil(long deadline) {
+        long wakeAt = deadline - lateness.get();
+        long left;
+        while ((left = wakeAt - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(left);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        long error = System.nanoTime() - deadline;
+        lateness.accumulateAndGet(error, (average, late) -> average + (late >> LATENESS_SHIFT));
+    }
+
+    private long sample() {
+        int count = Math.min(recorded.get(), samples.length());
+        return count == 0 ? 0 : samples.get(ThreadLocalRandom.current().nextInt(count));
+    }
+
+    private void record(long elapsed) {
+        samples.set(Math.floorMod(recorded.getAndIncrement(), samples.length()), elapsed);
+    }
+
+    /**
+     * No real check recorded yet: verify against a dummy hash; its duration is the first sample
+     */
+    private long calibrate() {
+        String hash = calibrationHash;
+        if (hash == null) {
+            hash = passwordHashingService.encode(CALIBRATION_PASSWORD);
+            calibrationHash = hash;
+            log.debug("Calibrating login timing with a dummy password check");
+        }
+        long verificationStartedAt = System.nanoTime();
+        passwordHashingService.verify(CALIBRATION_PASSWORD + "?", hash);
+        long elapsed = System.nanoTime() - verificationStartedAt;
+        record(elapsed);
+        return elapsed;
+    }
+}
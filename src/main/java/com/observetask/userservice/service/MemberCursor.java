@@ -0,0 +1,40 @@
+package com.observetask.userservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.observetask.userservice.exception.InvalidCursorException;
+import com.observetask.userservice.repository.OrganizationMember;
+
+/**
+ * Opaque keyset position in an organization member listing: the (joinedAt, membershipId) of the last row returned
+ */
+record MemberCursor(LocalDateTime joinedAt, UUID membershipId) {
+
+    private static final char SEPARATOR = '|';
+
+    static MemberCursor after(OrganizationMember member) {
+        return new MemberCursor(member.joinedAt(), member.membershipId());
+    }
+
+    String encode() {
+        String raw = joinedAt.toString() + SEPARATOR + membershipId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            return new MemberCursor(LocalDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
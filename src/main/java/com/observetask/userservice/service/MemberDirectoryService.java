@@ -0,0 +1,153 @@
+package com.observetask.userservice.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.dto.MemberPageResponse;
+import com.observetask.userservice.dto.UserProfile;
+import com.observetask.userservice.repository.OrganizationMember;
+import com.observetask.userservice.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Organization member listings: keyset-paged reads and constant-memory exports
+ *
+ * Pages are ordered by (joinedAt, membershipId) and continue from an opaque
+ * cursor, so every page costs the same regardless of depth and no count query
+ * runs. Exports walk the same keyset in chunks, each read in its own short
+ * transaction, and write each chunk to the response before fetching the next:
+ * a slow client holds no connection while it reads, and memory is bounded by
+ * the chunk size. Members who join or leave during an export may or may not
+ * appear in it.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberDirectoryService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final String CSV_HEADER = "id,email,first_name,last_name,role,organization_id,is_active";
+
+    public enum ExportFormat { NDJSON, CSV }
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public MemberPageResponse listMembers(UUID organizationId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+        List<OrganizationMember> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userRepository.findMembers(organizationId, limit);
+        } else {
+            MemberCursor position = MemberCursor.decode(cursor);
+            rows = userRepository.findMembersAfter(organizationId, position.joinedAt(), position.membershipId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrganizationMember> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? MemberCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new MemberPageResponse(page.stream().map(OrganizationMember::toProfile).toList(), pageSize, nextCursor);
+    }
+
+    /**
+     * Write every active member of the organization to out; the caller owns and closes out
+     * Deliberately not @Transactional: each chunk query runs in its own read-only transaction
+     */
+    public void export(UUID organizationId, ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsv(organizationId, out);
+        } else {
+            writeNdjson(organizationId, out);
+        }
+    }
+
+    /**
+     * Next chunk of the export after the given member, or the first chunk when after is null
+     */
+    private List<OrganizationMember> nextChunk(UUID organizationId, OrganizationMember after) {
+        Limit limit = Limit.of(EXPORT_CHUNK_SIZE);
+        return after == null
+                ? userRepository.findMembers(organizationId, limit)
+                : userRepository.findMembersAfter(organizationId, after.joinedAt(), after.membershipId(), limit);
+    }
+
+    private void writeNdjson(UUID organizationId, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            List<OrganizationMember> chunk = nextChunk(organizationId, null);
+            while (!chunk.isEmpty()) {
+                for (OrganizationMember member : chunk) {
+                    objectMapper.writeValue(generator, member.toProfile());
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+                if (chunk.size() < EXPORT_CHUNK_SIZE) {
+                    break;
+                }
+                chunk = nextChunk(organizationId, chunk.get(chunk.size() - 1));
+            }
+        }
+    }
+
+    private void writeCsv(UUID organizationId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        List<OrganizationMember> chunk = nextChunk(organizationId, null);
+        while (!chunk.isEmpty()) {
+            for (OrganizationMember member : chunk) {
+                UserProfile profile = member.toProfile();
+                writer.write(csv(profile.id()));
+                writer.write(',');
+                writer.write(csv(profile.email()));
+                writer.write(',');
+                writer.write(csv(profile.firstName()));
+                writer.write(',');
+                writer.write(csv(profile.lastName()));
+                writer.write(',');
+                writer.write(csv(profile.role()));
+                writer.write(',');
+                writer.write(csv(profile.organizationId()));
+                writer.write(',');
+                writer.write(Boolean.toString(profile.isActive()));
+                writer.write('\n');
+            }
+            writer.flush();
+            if (chunk.size() < EXPORT_CHUNK_SIZE) {
+                break;
+            }
+            chunk = nextChunk(organizationId, chunk.get(chunk.size() - 1));
+        }
+        writer.flush();
+    }
+
+    /**
+     * RFC 4180 quoting; fields starting with a formula trigger are prefixed so spreadsheets treat them as text
+     */
+    static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String text = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,125 @@
+package com.observetask.userservice.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.observetask.userservice.sweeper.AdvisoryLock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically recounts organization_counters from user_roles and invitations and fixes any drift
+ *
+ * The triggers keep the counters exact except for the cases documented in
+ * V11; this job is the safety net. Organizations are walked in id order, one
+ * chunk per short transaction. Each chunk first locks its counter rows, so
+ * transactions that already applied a delta are committed (and visible to the
+ * recount) and later ones wait and apply theirs on top of the corrected value.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "organization-counters.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class OrganizationCounterReconciler {
+
+    static final long LOCK_KEY = 0x4f54_434e_5452_5331L;
+
+    private static final String LOCK_CHUNK =
+            "SELECT organization_id FROM observetask_users.organization_counters " +
+            "WHERE organization_id > CAST(? AS uuid) ORDER BY organization_id LIMIT ? FOR UPDATE";
+
+    private static final String RECOUNT_CHUNK =
+            "UPDATE observetask_users.organization_counters c SET " +
+            "    super_admins = m.super_admins, org_admins = m.org_admins, team_admins = m.team_admins, " +
+            "    team_members = m.team_members, pending_invitations = p.pending_invitations " +
+            "FROM unnest(CAST(? AS uuid[])) AS o(id) " +
+            "CROSS JOIN LATERAL (" +
+            "    SELECT count(*) FILTER (WHERE ur.role = 'SUPER_ADMIN') AS super_admins, " +
+            "           count(*) FILTER (WHERE ur.role = 'ORG_ADMIN') AS org_admins, " +
+            "           count(*) FILTER (WHERE ur.role = 'TEAM_ADMIN') AS team_admins, " +
+            "           count(*) FILTER (WHERE ur.role = 'TEAM_MEMBER') AS team_members " +
+            "    FROM observetask_users.user_roles ur JOIN observetask_users.users u ON u.id = ur.user_id " +
+            "    WHERE ur.organization_id = o.id AND u.is_active" +
+            ") m " +
+            "CROSS JOIN LATERAL (" +
+            "    SELECT count(*) AS pending_invitations FROM observetask_users.invitations i " +
+            "    WHERE i.organization_id = o.id AND i.status = 'PENDING'" +
+            ") p " +
+            "WHERE c.organization_id = o.id " +
+            "AND (c.super_admins, c.org_admins, c.team_admins, c.team_members, c.pending_invitations) IS DISTINCT FROM " +
+            "    (m.super_admins, m.org_admins, m.team_admins, m.team_members, p.pending_invitations)";
+
+    private static final UUID BEGINNING = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Counter corrected;
+
+    public OrganizationCounterReconciler(JdbcTemplate jdbcTemplate,
+                                         AdvisoryLock advisoryLock,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${organization-counters.reconcile.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.corrected = Counter.builder("organization.counters.corrected").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${organization-counters.reconcile.interval:PT1H}",
+               initialDelayString = "${organization-counters.reconcile.initial-delay:PT10M}")
+    public void scheduledReconcile() {
+        if (!advisoryLock.runExclusively(LOCK_KEY, this::reconcile)) {
+            log.debug("Organization counter reconciliation skipped, another instance holds the lock");
+        }
+    }
+
+    /**
+     * Recount every organization; returns the number of counter rows that had drifted
+     */
+    public int reconcile() {
+        int drifted = 0;
+        UUID after = BEGINNING;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                UUID from = after;
+                Chunk chunk = transactionTemplate.execute(status -> {
+                    List<UUID> ids = jdbcTemplate.queryForList(LOCK_CHUNK, UUID.class, from.toString(), chunkSize);
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    int fixed = jdbcTemplate.update(RECOUNT_CHUNK,
+                            (Object) ids.stream().map(UUID::toString).toArray(String[]::new));
+                    return new Chunk(ids.get(ids.size() - 1), fixed);
+                });
+                if (chunk == null) {
+                    break;
+                }
+                drifted += chunk.drifted();
+                after = chunk.last();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Organization counter reconciliation stopped after {}, retrying next run: {}", after, e.getMessage());
+        }
+        if (drifted > 0) {
+            log.warn("Corrected {} drifted organization counter rows", drifted);
+            corrected.increment(drifted);
+        }
+        return drifted;
+    }
+
+    private record Chunk(UUID last, int drifted) {}
+}
@@ -0,0 +1,143 @@
+package com.observetask.userservice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.observetask.userservice.dto.UserProfile;
+import com.observetask.userservice.repository.UserSearchRow;
+
+/**
+ * Immutable in-memory copy of one organization's active members for typeahead
+ *
+ * Applies the same predicate and ranking as UserRepository.searchOrganizationMembers
+ * so a hot tenant gets the same results as everyone else: substring match on the
+ * lower-cased full name or email, full-name prefix matches first, then pg_trgm
+ * similarity to the full name, then last name, first name and id. Members'
+ * trigram sets are computed once at build time. Names are compared in Java string
+ * order and non-ASCII letters count as word characters, which matches a UTF-8
+ * database locale for word splitting but not necessarily its collation.
+ */
+final class OrganizationSearchIndex {
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparing(Match::prefix).reversed()
+            .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+            .thenComparing(match -> match.member().lastName())
+            .thenComparing(match -> match.member().firstName())
+            .thenComparing(match -> match.member().id());
+
+    private final Member[] members;
+
+    private OrganizationSearchIndex(Member[] members) {
+        this.members = members;
+    }
+
+    static OrganizationSearchIndex build(List<UserSearchRow> rows) {
+        Member[] members = new Member[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            UserSearchRow row = rows.get(i);
+            // lower() without trimming, exactly the indexed SQL expressions
+            String fullName = (row.getFirstName() + " " + row.getLastName()).toLowerCase(Locale.ROOT);
+            members[i] = new Member(row.toProfile(), row.getId().toString(), row.getFirstName(), row.getLastName(),
+                    fullName, row.getEmail().toLowerCase(Locale.ROOT), trigrams(fullName));
+        }
+        return new OrganizationSearchIndex(members);
+    }
+
+    /**
+     * Ranked matches for an already normalized term, skipping offset and returning at most limit
+     */
+    List<UserProfile> search(String term, int offset, int limit) {
+        String[] termTrigrams = trigrams(term);
+        List<Match> matches = new ArrayList<>();
+        for (Member member : members) {
+            if (member.fullName().contains(term) || member.email().contains(term)) {
+                matches.add(new Match(member, member.fullName().startsWith(term), similarity(member.trigrams(), termTrigrams)));
+            }
+        }
+        if (offset >= matches.size()) {
+            return List.of();
+        }
+        matches.sort(RANKING);
+        return matches.subList(offset, Math.min(matches.size(), offset + limit)).stream()
+                .map(match -> match.member().profile())
+                .toList();
+    }
+
+    int size() {
+        return members.length;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * pg_trgm trigrams: each alphanumeric word padded with two leading blanks and one trailing blank
+     */
+    static String[] trigrams(String value) {
+        Set<String> trigrams = new HashSet<>();
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(value.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String padded = "  " + value.substring(start, i) + " ";
+                for (int j = 0; j + 3 <= padded.length(); j++) {
+                    trigrams.add(padded.substring(j, j + 3));
+                }
+            }
+        }
+        String[] sorted = trigrams.toArray(String[]::new);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * pg_trgm similarity(): shared trigrams over the union, in float4 like the database
+     */
+    static float similarity(String[] left, String[] right) {
+        if (left.length == 0 || right.length == 0) {
+            return 0f;
+        }
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            int order = left[i].compareTo(right[j]);
+            if (order == 0) {
+                shared++;
+                i++;
+                j++;
+            } else if (order < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (float) shared / (float) (left.length + right.length - shared);
+    }
+
+    private record Member(
+        UserProfile profile,
+        String id,
+        String firstName,
+        String lastName,
+        String fullName,
+        String email,
+        String[] trigrams
+    ) {}
+
+    private record Match(Member member, boolean prefix, float similarity) {}
+}
@@ -0,0 +1,489 @@
+package com.observetask.userservice.service;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.observetask.userservice.cache.PrincipalInvalidationEvent;
+import com.observetask.userservice.dto.InviteUserRequest;
+import com.observetask.userservice.dto.ProvisionedIdentity;
+import com.observetask.userservice.dto.ProvisioningSummary;
+import com.observetask.userservice.dto.ProvisioningSummary.Rejection;
+import com.observetask.userservice.entity.AuthProvider;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.event.DomainEvent;
+import com.observetask.userservice.event.DomainEventPublisher;
+import com.observetask.userservice.event.UserEvent;
+import com.observetask.userservice.event.UserRoleEvent;
+import com.observetask.userservice.exception.ProvisioningRunConflictException;
+import com.observetask.userservice.repository.EmailOwnerRow;
+import com.observetask.userservice.repository.ProvisionedUserRow;
+import com.observetask.userservice.repository.UserRepository;
+import com.observetask.userservice.sweeper.AdvisoryLock;
+
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Directory sync for SSO identities: set-based diff, chunked apply, resumable runs
+ *
+ * A feed of external identities is read as a stream and applied in chunks.
+ * Each chunk is one short transaction under the organization's provisioning
+ * lock: one query loads the current rows of all its identities by
+ * (auth_provider, external_id), one more finds the owners of their emails,
+ * and creates, updates, memberships and the outbox events go out as JDBC
+ * batches. The run's processed_rows checkpoint advances in the same
+ * transaction, so after an interruption the same feed can be resent with the
+ * same run id and only the rows after the checkpoint are applied.
+ *
+ * A sync only manages users who are members of its organization. An identity
+ * that already exists without a membership here belongs to another tenant's
+ * directory: an active one is only added as a member, its profile is left as
+ * it is, and a deactivated one is rejected.
+ *
+ * A full sync also records every external id it sees; once the feed is done,
+ * members of the organization from that provider who were not in it are
+ * deprovisioned in batches. Deprovisioning removes the membership in this
+ * organization; only a user left without any membership is deactivated
+ * (is_active=false). Roles of existing memberships are never changed by a sync.
+ */
+@Slf4j
+@Service
+public class ProvisioningService {
+
+    // Advisory lock class (two-int form) for one organization's provisioning chunks
+    static final int PROVISIONING_LOCK_CLASS = 0x5052_4f56;
+    static final int MAX_LISTED_REJECTIONS = 1000;
+
+    private static final int MAX_EMAIL_LENGTH = 255;
+    private static final int MAX_EXTERNAL_ID_LENGTH = 255;
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private static final String INSERT_RUN =
+            "INSERT INTO observetask_users.provisioning_runs (id, organization_id, auth_provider, full_sync) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+    private static final String SELECT_RUN =
+            "SELECT id, organization_id, auth_provider, full_sync, status, processed_rows, " +
+            "created_count, updated_count, deactivated_count, rejected_count " +
+            "FROM observetask_users.provisioning_runs WHERE id = ?";
+
+    private static final String ADVANCE_RUN =
+            "UPDATE observetask_users.provisioning_runs SET processed_rows = processed_rows + ?, " +
+            "created_count = created_count + ?, updated_count = updated_count + ?, " +
+            "deactivated_count = deactivated_count + ?, rejected_count = rejected_count + ?, updated_at = now() " +
+            "WHERE id = ?";
+
+    private static final String INSERT_USER =
+            "INSERT INTO observetask_users.users " +
+            "(id, email, auth_provider, external_id, email_verified, first_name, last_name, is_active) " +
+            "VALUES (?, ?, ?, ?, true, ?, ?, true)";
+    private static final int[] INSERT_USER_TYPES =
+            {Types.OTHER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+
+    private static final String UPDATE_USER =
+            "UPDATE observetask_users.users SET email = ?, first_name = ?, last_name = ?, is_active = ? WHERE id = ?";
+    private static final int[] UPDATE_USER_TYPES =
+            {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.OTHER};
+
+    private static final String INSERT_MEMBERSHIP =
+            "INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id, organization_id) DO NOTHING";
+    private static final int[] INSERT_MEMBERSHIP_TYPES = {Types.OTHER, Types.OTHER, Types.VARCHAR};
+
+    private static final String RECORD_SEEN =
+            "INSERT INTO observetask_users.provisioning_run_identities (run_id, external_id) " +
+            "SELECT ?, unnest(CAST(? AS text[])) ON CONFLICT DO NOTHING";
+
+    private static final String REMOVE_MEMBERSHIPS =
+            "DELETE FROM observetask_users.user_roles " +
+            "WHERE organization_id = ? AND user_id = ANY(CAST(? AS uuid[]))";
+
+    private static final String REMOVE_UNSEEN_MEMBERSHIPS =
+            "DELETE FROM observetask_users.user_roles WHERE id IN (" +
+            "SELECT ur.id FROM observetask_users.user_roles ur " +
+            "JOIN observetask_users.users u ON u.id = ur.user_id " +
+            "WHERE ur.organization_id = ? AND u.auth_provider = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM observetask_users.provisioning_run_identities s " +
+            "                WHERE s.run_id = ? AND s.external_id = u.external_id) " +
+            "LIMIT ?) " +
+            "RETURNING user_id";
+
+    // Users whose last membership was just removed; members of other organizations stay active
+    private static final String DEACTIVATE_WITHOUT_MEMBERSHIPS =
+            "UPDATE observetask_users.users u SET is_active = false " +
+            "WHERE u.id = ANY(CAST(? AS uuid[])) AND u.is_active " +
+            "AND NOT EXISTS (SELECT 1 FROM observetask_users.user_roles ur WHERE ur.user_id = u.id) " +
+            "RETURNING id, email, first_name, last_name";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DomainEventPublisher eventPublisher;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final AdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public ProvisioningService(UserRepository userRepository,
+                               JdbcTemplate jdbcTemplate,
+                               DomainEventPublisher eventPublisher,
+                               ApplicationEventPublisher applicationEventPublisher,
+                               AdvisoryLock advisoryLock,
+                               PlatformTransactionManager transactionManager,
+                               Validator validator,
+                               @Value("${provisioning.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Apply a feed to the organization, starting the run with the given id or resuming it after its checkpoint
+     * A completed run is not applied again; its totals are returned as they are
+     */
+    public ProvisioningSummary sync(UUID organizationId, AuthProvider provider, UUID runId, boolean fullSync,
+                                    Role callerRole, Iterator<ProvisionedIdentity> feed) {
+        Run run = startOrResume(runId, organizationId, provider, fullSync);
+        if (run.completed()) {
+            return run.toSummary(run.processedRows(), List.of());
+        }
+
+        long resumedFrom = run.processedRows();
+        for (long skipped = 0; skipped < resumedFrom && feed.hasNext(); skipped++) {
+            feed.next();
+        }
+
+        List<Rejection> rejections = new ArrayList<>();
+        List<ProvisionedIdentity> chunk = new ArrayList<>(chunkSize);
+        long row = resumedFrom;
+        while (feed.hasNext()) {
+            chunk.add(feed.next());
+            if (chunk.size() == chunkSize || !feed.hasNext()) {
+                long firstRow = row;
+                List<Rejection> rejected = transactionTemplate.execute(status ->
+                        applyChunk(run, firstRow, chunk, callerRole));
+                rejected.stream().limit(MAX_LISTED_REJECTIONS - rejections.size()).forEach(rejections::add);
+                row += chunk.size();
+                chunk.clear();
+            }
+        }
+
+        if (fullSync) {
+            while (deprovisionUnseen(run) == chunkSize) {
+                // another batch may be left
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE observetask_users.provisioning_runs SET status = 'COMPLETED', updated_at = now() " +
+                    "WHERE id = ?", runId);
+            jdbcTemplate.update("DELETE FROM observetask_users.provisioning_run_identities WHERE run_id = ?", runId);
+        });
+
+        Run finished = load(runId);
+        log.info("Provisioning run {} for organization {} ({}): {} rows, {} created, {} updated, {} deactivated, {} rejected",
+                runId, organizationId, provider, finished.processedRows(), finished.created(), finished.updated(),
+                finished.deactivated(), finished.rejected());
+        return finished.toSummary(resumedFrom, rejections);
+    }
+
+    private Run startOrResume(UUID runId, UUID organizationId, AuthProvider provider, boolean fullSync) {
+        jdbcTemplate.update(INSERT_RUN, runId, organizationId, provider.name(), fullSync);
+        Run run = load(runId);
+        if (!run.organizationId().equals(organizationId) || run.provider() != provider || run.fullSync() != fullSync) {
+            throw new ProvisioningRunConflictException("Provisioning run " + runId + " was started with other parameters");
+        }
+        return run;
+    }
+
+    /**
+     * One chunk, one transaction: diff, batched writes, outbox events and the checkpoint
+     * Returns the rows rejected in this chunk; they are counted on the run as well
+     */
+    private List<Rejection> applyChunk(Run run, long firstRow, List<ProvisionedIdentity> rows, Role callerRole) {
+        advisoryLock.lockForTransaction(PROVISIONING_LOCK_CLASS, run.organizationId());
+        Run current = load(run.id());
+        if (current.completed() || current.processedRows() != firstRow) {
+            throw new ProvisioningRunConflictException("Provisioning run " + run.id() + " is being applied by another request");
+        }
+
+        List<Rejection> rejections = new ArrayList<>();
+        List<Candidate> candidates = new ArrayList<>(rows.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ProvisionedIdentity identity = normalize(rows.get(i));
+            String problem = identity == null ? "Empty row" : validate(identity, callerRole);
+            if (problem == null && !seen.add(identity.externalId())) {
+                problem = "External id listed earlier in the same chunk";
+            }
+            if (problem != null) {
+                rejections.add(new Rejection(firstRow + i, identity == null ? null : identity.externalId(), problem));
+            } else {
+                candidates.add(new Candidate(firstRow + i, identity));
+            }
+        }
+
+        Map<String, ProvisionedUserRow> existing = new HashMap<>();
+        Map<String, EmailOwnerRow> emailOwners = new HashMap<>();
+        if (!candidates.isEmpty()) {
+            String[] externalIds = candidates.stream().map(c -> c.identity().externalId()).toArray(String[]::new);
+            for (ProvisionedUserRow user : userRepository.findProvisionedUsers(run.provider().name(), run.organizationId(), externalIds)) {
+                existing.put(user.getExternalId(), user);
+            }
+            String[] emails = candidates.stream().map(c -> c.identity().email()).distinct().toArray(String[]::new);
+            for (EmailOwnerRow owner : userRepository.findEmailOwners(emails)) {
+                emailOwners.put(owner.getEmail(), owner);
+            }
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> memberships = new ArrayList<>();
+        List<DomainEvent> events = new ArrayList<>();
+        List<UUID> invalidated = new ArrayList<>();
+        Set<String> claimedEmails = new HashSet<>();
+        int created = 0;
+        int updated = 0;
+        int deactivated = 0;
+        List<UUID> removed = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            ProvisionedIdentity identity = candidate.identity();
+            ProvisionedUserRow user = existing.get(identity.externalId());
+            if (user == null) {
+                if (!identity.isActive()) {
+                    continue; // deprovisioning someone who was never provisioned
+                }
+                if (!emailAvailable(identity, run.provider(), emailOwners, claimedEmails)) {
+                    rejections.add(new Rejection(candidate.row(), identity.externalId(), "Email belongs to another account"));
+                    continue;
+                }
+                UUID id = UUID.randomUUID();
+                inserts.add(new Object[] {id, identity.email(), run.provider().name(), identity.externalId(),
+                        identity.firstName(), identity.lastName()});
+                memberships.add(new Object[] {id, run.organizationId(), roleOf(identity).name()});
+                events.add(UserEvent.created(toUser(id, identity.email(), identity)));
+                created++;
+                continue;
+            }
+
+            boolean wasActive = Boolean.TRUE.equals(user.getActive());
+            if (!Boolean.TRUE.equals(user.getMember())) {
+                // another organization's user: this directory may add the membership, never change the account
+                if (!identity.isActive()) {
+                    continue;
+                }
+                if (!wasActive) {
+                    rejections.add(new Rejection(candidate.row(), identity.externalId(),
+                            "Account is deactivated outside this organization"));
+                    continue;
+                }
+                memberships.add(new Object[] {user.getId(), run.organizationId(), roleOf(identity).name()});
+                invalidated.add(user.getId());
+                updated++;
+                continue;
+            }
+
+            if (!identity.isActive()) {
+                removed.add(user.getId());
+                events.add(UserRoleEvent.removed(user.getId(), run.organizationId()));
+                invalidated.add(user.getId());
+                deactivated++;
+                continue;
+            }
+            if (!identity.email().equals(user.getEmail()) && !emailAvailable(identity, run.provider(), emailOwners, claimedEmails)) {
+                rejections.add(new Rejection(candidate.row(), identity.externalId(), "Email belongs to another account"));
+                continue;
+            }
+            if (!identity.email().equals(user.getEmail())
+                    || !identity.firstName().equals(user.getFirstName())
+                    || !identity.lastName().equals(user.getLastName())
+                    || !wasActive) {
+                updates.add(new Object[] {identity.email(), identity.firstName(), identity.lastName(), true, user.getId()});
+                invalidated.add(user.getId());
+                events.add(UserEvent.updated(toUser(user.getId(), identity.email(), identity)));
+                updated++;
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER, inserts, INSERT_USER_TYPES);
+        jdbcTemplate.batchUpdate(UPDATE_USER, updates, UPDATE_USER_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_MEMBERSHIP, memberships, INSERT_MEMBERSHIP_TYPES);
+        if (!removed.isEmpty()) {
+            jdbcTemplate.update(REMOVE_MEMBERSHIPS, run.organizationId(),
+                    removed.stream().map(UUID::toString).toArray(String[]::new));
+            events.addAll(deactivateWithoutMemberships(removed));
+        }
+        if (run.fullSync()) {
+            // every listed identity counts as present, rejected rows included: a bad row must not deprovision its user
+            String[] listed = rows.stream()
+                    .filter(Objects::nonNull)
+                    .map(identity -> trim(identity.externalId()))
+                    .filter(id -> id != null && id.length() <= MAX_EXTERNAL_ID_LENGTH)
+                    .distinct()
+                    .toArray(String[]::new);
+            jdbcTemplate.update(RECORD_SEEN, run.id(), listed);
+        }
+        eventPublisher.publishAll(events);
+        invalidated.forEach(id -> applicationEventPublisher.publishEvent(PrincipalInvalidationEvent.user(id)));
+        jdbcTemplate.update(ADVANCE_RUN, rows.size(), created, updated, deactivated, rejections.size(), run.id());
+        return rejections;
+    }
+
+    /**
+     * Remove one batch of this provider's members that the full sync did not list
+     * Returns the number of memberships removed; a short batch means none are left
+     */
+    private int deprovisionUnseen(Run run) {
+        Integer count = transactionTemplate.execute(status -> {
+            advisoryLock.lockForTransaction(PROVISIONING_LOCK_CLASS, run.organizationId());
+            List<UUID> removed = jdbcTemplate.queryForList(REMOVE_UNSEEN_MEMBERSHIPS, UUID.class,
+                    run.organizationId(), run.provider().name(), run.id(), chunkSize);
+            List<DomainEvent> events = new ArrayList<>();
+            removed.forEach(userId -> events.add(UserRoleEvent.removed(userId, run.organizationId())));
+            events.addAll(deactivateWithoutMemberships(removed));
+            eventPublisher.publishAll(events);
+            removed.forEach(userId -> applicationEventPublisher.publishEvent(PrincipalInvalidationEvent.user(userId)));
+            jdbcTemplate.update(ADVANCE_RUN, 0, 0, 0, removed.size(), 0, run.id());
+            return removed.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Deactivate those of the given users who no longer belong to any organization
+     */
+    private List<DomainEvent> deactivateWithoutMemberships(List<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(DEACTIVATE_WITHOUT_MEMBERSHIPS, (rs, rowNum) -> UserEvent.deactivated(User.builder()
+                        .id(rs.getObject("id", UUID.class))
+                        .email(rs.getString("email"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .isActive(false)
+                        .build()),
+                (Object) userIds.stream().map(UUID::toString).toArray(String[]::new));
+    }
+
+    /**
+     * Whether the identity may take its email: nobody else owns it and no earlier row of the chunk claimed it
+     */
+    private static boolean emailAvailable(ProvisionedIdentity identity, AuthProvider provider,
+                                          Map<String, EmailOwnerRow> owners, Set<String> claimedEmails) {
+        EmailOwnerRow owner = owners.get(identity.email());
+        boolean ownedByOther = owner != null
+                && !(provider.name().equals(owner.getAuthProvider()) && identity.externalId().equals(owner.getExternalId()));
+        return !ownedByOther && claimedEmails.add(identity.email());
+    }
+
+    private String validate(ProvisionedIdentity identity, Role callerRole) {
+        if (identity.externalId() == null || identity.externalId().length() > MAX_EXTERNAL_ID_LENGTH) {
+            return "Missing or too long external id";
+        }
+        if (identity.email() == null || identity.email().length() > MAX_EMAIL_LENGTH
+                || !validator.validateValue(InviteUserRequest.class, "email", identity.email()).isEmpty()) {
+            return "Invalid email address";
+        }
+        if (identity.firstName() == null || identity.lastName() == null) {
+            return "First and last name are required";
+        }
+        if (identity.firstName().length() > MAX_NAME_LENGTH || identity.lastName().length() > MAX_NAME_LENGTH) {
+            return "Name longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        if (identity.role() != null) {
+            Role role = parseRole(identity.role());
+            if (role == null) {
+                return "Unknown role";
+            }
+            if (role == Role.SUPER_ADMIN || !callerRole.canAssignRole(role)) {
+                return "Role " + role.name() + " cannot be assigned by " + callerRole.name();
+            }
+        }
+        return null;
+    }
+
+    private Run load(UUID runId) {
+        return jdbcTemplate.queryForObject(SELECT_RUN, (rs, rowNum) -> new Run(
+                rs.getObject("id", UUID.class),
+                rs.getObject("organization_id", UUID.class),
+                AuthProvider.valueOf(rs.getString("auth_provider")),
+                rs.getBoolean("full_sync"),
+                rs.getString("status"),
+                rs.getLong("processed_rows"),
+                rs.getInt("created_count"),
+                rs.getInt("updated_count"),
+                rs.getInt("deactivated_count"),
+                rs.getInt("rejected_count")), runId);
+    }
+
+    private static ProvisionedIdentity normalize(ProvisionedIdentity identity) {
+        if (identity == null) {
+            return null;
+        }
+        return new ProvisionedIdentity(trim(identity.externalId()), InvitationService.normalizeEmail(identity.email()),
+                trim(identity.firstName()), trim(identity.lastName()), identity.active(), trim(identity.role()));
+    }
+
+    private static Role roleOf(ProvisionedIdentity identity) {
+        return identity.role() == null ? Role.TEAM_MEMBER : parseRole(identity.role());
+    }
+
+    private static Role parseRole(String role) {
+        try {
+            return Role.valueOf(role.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static User toUser(UUID id, String email, ProvisionedIdentity identity) {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .firstName(identity.firstName())
+                .lastName(identity.lastName())
+                .isActive(identity.isActive())
+                .build();
+    }
+
+    private static String trim(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record Candidate(long row, ProvisionedIdentity identity) {}
+
+    private record Run(UUID id, UUID organizationId, AuthProvider provider, boolean fullSync, String status,
+                       long processedRows, int created, int updated, int deactivated, int rejected) {
+
+        boolean completed() {
+            return "COMPLETED".equals(status);
+        }
+
+        ProvisioningSummary toSummary(long resumedFromRow, List<Rejection> rejections) {
+            return new ProvisioningSummary(id.toString(), status, processedRows, resumedFromRow,
+                    created, updated, deactivated, rejected, rejections);
+        }
+    }
+}
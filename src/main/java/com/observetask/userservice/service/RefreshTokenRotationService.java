@@ -0,0 +1,144 @@
+package com.observetask.userservice.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.observetask.userservice.security.UserPrincipal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refresh-token rotation with token families and reuse detection
+ *
+ * A refresh is one statement: a CTE marks the presented token used, inserts
+ * its successor into the same family and returns the user joined with the
+ * requested (or default) membership, so the new principal needs no further
+ * lookups. A token can be consumed only once; concurrent refreshes with the
+ * same token serialize on its row and the loser sees it used.
+ *
+ * Presenting a token that was already consumed means two parties hold the
+ * family (a stolen token, or a client replaying an old one), and the whole
+ * family is deleted: the next refresh of either party fails and the user has
+ * to log in again. A consumed token presented within reuse-grace of its
+ * rotation is only rejected, so a client retrying a refresh whose response
+ * it lost does not log itself out.
+ */
+@Slf4j
+@Service
+public class RefreshTokenRotationService {
+
+    private static final String ROTATE =
+            "WITH consumed AS (" +
+            "    UPDATE observetask_users.jwt_refresh_tokens SET used_at = now() " +
+            "    WHERE token_hash = ? AND used_at IS NULL AND expires_at > now() " +
+            "    RETURNING user_id, family_id, device_info, ip_address" +
+            "), issued AS (" +
+            "    INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at, device_info, ip_address) " +
+            "    SELECT user_id, ?, family_id, ?, COALESCE(?, device_info), COALESCE(?, ip_address) FROM consumed" +
+            ") " +
+            "SELECT c.family_id, u.id, u.email, u.first_name, u.last_name, u.is_active, m.organization_id, m.role " +
+            "FROM consumed c " +
+            "JOIN observetask_users.users u ON u.id = c.user_id " +
+            "LEFT JOIN LATERAL (" +
+            "    SELECT ur.organization_id, ur.role FROM observetask_users.user_roles ur " +
+            "    WHERE ur.user_id = u.id AND (CAST(? AS uuid) IS NULL OR ur.organization_id = CAST(? AS uuid)) " +
+            "    ORDER BY ur.created_at LIMIT 1" +
+            ") m ON true";
+
+    private static final String REVOKE_REUSED_FAMILY =
+            "DELETE FROM observetask_users.jwt_refresh_tokens WHERE family_id = (" +
+            "    SELECT family_id FROM observetask_users.jwt_refresh_tokens " +
+            "    WHERE token_hash = ? AND used_at < now() - make_interval(secs => ?)) " +
+            "RETURNING user_id, family_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration reuseGrace;
+
+    private final Counter rotated;
+    private final Counter rejected;
+    private final Counter reused;
+
+    public RefreshTokenRotationService(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${jwt.refresh-token-reuse-grace:PT10S}") Duration reuseGrace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reuseGrace = reuseGrace;
+        this.rotated = Counter.builder("auth.refresh").tag("result", "rotated").register(meterRegistry);
+        this.rejected = Counter.builder("auth.refresh").tag("result", "rejected").register(meterRegistry);
+        this.reused = Counter.builder("auth.refresh").tag("result", "reused").register(meterRegistry);
+    }
+
+    /**
+     * Consume the token with the given hash and store its successor; the principal is for organizationId,
+     * or the default membership when it is null
+     */
+    public Rotation rotate(String tokenHash, String successorHash, Instant successorExpiresAt, UUID organizationId,
+                           String ipAddress, String deviceInfo) {
+        return transactionTemplate.execute(status -> {
+            String organization = organizationId == null ? null : organizationId.toString();
+            List<Rotation> rows = jdbcTemplate.query(ROTATE, (rs, rowNum) -> {
+                UUID userId = rs.getObject("id", UUID.class);
+                UUID familyId = rs.getObject("family_id", UUID.class);
+                if (rs.getObject("organization_id") == null || !rs.getBoolean("is_active")) {
+                    return new Rotation(Outcome.REJECTED, userId, familyId, null);
+                }
+                return new Rotation(Outcome.ROTATED, userId, familyId, UserPrincipal.builder()
+                        .userId(userId)
+                        .organizationId(rs.getObject("organization_id", UUID.class))
+                        .role(rs.getString("role"))
+                        .email(rs.getString("email"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .isActive(true)
+                        .build());
+            }, tokenHash, successorHash, Timestamp.from(successorExpiresAt), deviceInfo, ipAddress, organization, organization);
+
+            if (rows.isEmpty()) {
+                List<Rotation> revoked = jdbcTemplate.query(REVOKE_REUSED_FAMILY, (rs, rowNum) -> new Rotation(Outcome.REUSED,
+                        rs.getObject("user_id", UUID.class), rs.getObject("family_id", UUID.class), null),
+                        tokenHash, reuseGrace.toMillis() / 1000.0);
+                if (!revoked.isEmpty()) {
+                    log.warn("Refresh token reuse for user {}, revoked its token family ({} tokens)",
+                            revoked.get(0).userId(), revoked.size());
+                    reused.increment();
+                    return revoked.get(0);
+                }
+                rejected.increment();
+                return Rotation.REJECTED;
+            }
+            Rotation rotation = rows.get(0);
+            if (rotation.outcome() != Outcome.ROTATED) {
+                // user deactivated or not a member: keep the presented token as it was
+                status.setRollbackOnly();
+                rejected.increment();
+                return rotation;
+            }
+            rotated.increment();
+            return rotation;
+        });
+    }
+
+    public enum Outcome { ROTATED, REJECTED, REUSED }
+
+    /**
+     * Result of a rotation; principal is set only when the token was rotated, user and family when the token was known
+     */
+    public record Rotation(Outcome outcome, UUID userId, UUID familyId, UserPrincipal principal) {
+
+        static final Rotation REJECTED = new Rotation(Outcome.REJECTED, null, null, null);
+    }
+}
@@ -0,0 +1,174 @@
+package com.observetask.userservice.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records when each user was last active without writing to users on every request
+ *
+ * A touch only puts the user's latest timestamp into one of several
+ * independent maps, picked by user id, so concurrent requests rarely meet on
+ * the same map. Every flush-interval the maps are drained into batched
+ * UPDATE ... FROM (VALUES ...) statements: however many requests a user made,
+ * they cost one row update per flush. A user written within resolution is
+ * not recorded again, so an active user is written about once per resolution.
+ * Entries are removed only once written, and only if no newer touch replaced
+ * them meanwhile; after a failed flush they are retried on the next one.
+ *
+ * last_active_at is unindexed and excluded from the updated_at trigger (V15),
+ * so these updates are HOT and do not show as profile changes.
+ */
+@Slf4j
+@Service
+public class UserActivityTracker {
+
+    private static final String UPDATE_PREFIX =
+            "UPDATE observetask_users.users u SET last_active_at = v.at FROM (VALUES ";
+    private static final String VALUES_ROW = "(CAST(? AS uuid), CAST(? AS timestamptz))";
+    private static final String UPDATE_SUFFIX =
+            ") AS v(id, at) WHERE u.id = v.id AND (u.last_active_at IS NULL OR u.last_active_at < v.at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<UUID, Long>[] stripes;
+    private final int batchSize;
+    private final long resolutionMillis;
+    // users written within resolution; their touches are dropped until it passes
+    private final Cache<UUID, Boolean> recentlyWritten;
+
+    private final Counter written;
+    private final Timer flushTimer;
+
+    @SuppressWarnings("unchecked")
+    public UserActivityTracker(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${activity.stripes:16}") int stripes,
+                               @Value("${activity.batch-size:500}") int batchSize,
+                               @Value("${activity.resolution:PT1M}") Duration resolution,
+                               @Value("${activity.maximum-recent:200000}") long maximumRecent) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripes = new ConcurrentHashMap[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.batchSize = batchSize;
+        this.resolutionMillis = resolution.toMillis();
+        this.recentlyWritten = Caffeine.newBuilder()
+                .maximumSize(maximumRecent)
+                .expireAfterWrite(resolution)
+                .build();
+
+        this.written = Counter.builder("user.activity.written")
+                .description("last_active_at rows written by activity flushes")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("user.activity.flush")
+                .description("Duration of one activity flush")
+                .register(meterRegistry);
+        Gauge.builder("user.activity.pending", this, UserActivityTracker::pending)
+                .description("Users with a touch not written yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record that the user is active now; never blocks on the database
+     */
+    public void touch(UUID userId) {
+        if (userId == null || recentlyWritten.getIfPresent(userId) != null) {
+            return;
+        }
+        stripeOf(userId).merge(userId, System.currentTimeMillis(), Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${activity.flush-interval:PT5S}", initialDelayString = "${activity.flush-interval:PT5S}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Write every pending touch; returns the number of users written
+     */
+    public int flush() {
+        return flushTimer.record(() -> {
+            int total = 0;
+            List<Map.Entry<UUID, Long>> batch = new ArrayList<>(batchSize);
+            for (ConcurrentHashMap<UUID, Long> stripe : stripes) {
+                for (Map.Entry<UUID, Long> entry : stripe.entrySet()) {
+                    batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                    if (batch.size() == batchSize) {
+                        total += write(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                total += write(batch);
+            }
+            return total;
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private int write(List<Map.Entry<UUID, Long>> batch) {
+        StringBuilder sql = new StringBuilder(UPDATE_PREFIX);
+        Object[] arguments = new Object[batch.size() * 2];
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(VALUES_ROW);
+            arguments[2 * i] = batch.get(i).getKey().toString();
+            arguments[2 * i + 1] = new Timestamp(batch.get(i).getValue());
+        }
+        sql.append(UPDATE_SUFFIX);
+        try {
+            jdbcTemplate.update(sql.toString(), arguments);
+        } catch (DataAccessException e) {
+            log.warn("Activity flush of {} users failed, retrying next flush: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, Long> entry : batch) {
+            // a touch that arrived since the batch was taken keeps its entry for the next flush
+            stripeOf(entry.getKey()).remove(entry.getKey(), entry.getValue());
+            if (now - entry.getValue() < resolutionMillis) {
+                recentlyWritten.put(entry.getKey(), Boolean.TRUE);
+            }
+        }
+        written.increment(batch.size());
+        return batch.size();
+    }
+
+    private ConcurrentHashMap<UUID, Long> stripeOf(UUID userId) {
+        int hash = userId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private double pending() {
+        long pending = 0;
+        for (ConcurrentHashMap<UUID, Long> stripe : stripes) {
+            pending += stripe.size();
+        }
+        return pending;
+    }
+}
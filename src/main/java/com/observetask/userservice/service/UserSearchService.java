@@ -0,0 +1,133 @@
+package com.observetask.userservice.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.observetask.userservice.cache.PrincipalInvalidationEvent;
+import com.observetask.userservice.dto.UserProfile;
+import com.observetask.userservice.dto.UserSearchResponse;
+import com.observetask.userservice.repository.UserRepository;
+import com.observetask.userservice.repository.UserSearchRow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Organization-scoped member search for typeahead
+ *
+ * Queries go to the trigram-indexed search in UserRepository (substring match,
+ * prefix matches ranked first, then similarity). Organizations listed under
+ * user-search.in-memory.organizations are instead served from an
+ * OrganizationSearchIndex with the same matching and ranking, rebuilt on a
+ * schedule once any User or UserRole change marks it stale. Pagination is
+ * LIMIT/OFFSET with one look-ahead row instead of a count query; typeahead
+ * never needs deep pages, so offsets past MAX_OFFSET return an empty page.
+ */
+@Slf4j
+@Service
+public class UserSearchService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_OFFSET = 10_000;
+
+    private final UserRepository userRepository;
+    private final List<UUID> indexedOrganizations;
+    private final int minQueryLength;
+    private final Map<UUID, OrganizationSearchIndex> memoryIndexes = new ConcurrentHashMap<>();
+    private final AtomicBoolean memoryIndexesStale = new AtomicBoolean(true);
+
+    private final Timer databaseSearches;
+    private final Timer memorySearches;
+
+    public UserSearchService(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${user-search.in-memory.organizations:}") List<UUID> indexedOrganizations,
+                             @Value("${user-search.min-query-length:2}") int minQueryLength) {
+        this.userRepository = userRepository;
+        this.indexedOrganizations = List.copyOf(indexedOrganizations);
+        this.minQueryLength = minQueryLength;
+        this.databaseSearches = Timer.builder("user.search.duration").tag("source", "database").register(meterRegistry);
+        this.memorySearches = Timer.builder("user.search.duration").tag("source", "in-memory").register(meterRegistry);
+    }
+
+    public UserSearchResponse search(UUID organizationId, String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        String term = OrganizationSearchIndex.normalize(query);
+        if (term.length() < minQueryLength) {
+            return UserSearchResponse.empty(pageNumber, pageSize);
+        }
+
+        long requestedOffset = (long) pageNumber * pageSize;
+        if (requestedOffset > MAX_OFFSET) {
+            return UserSearchResponse.empty(pageNumber, pageSize);
+        }
+        int offset = (int) requestedOffset;
+        OrganizationSearchIndex index = memoryIndexes.get(organizationId);
+        List<UserProfile> results;
+        if (index != null) {
+            results = memorySearches.record(() -> index.search(term, offset, pageSize + 1));
+        } else {
+            String escaped = escapeLike(term);
+            results = databaseSearches.record(() -> userRepository
+                    .searchOrganizationMembers(organizationId, term, "%" + escaped + "%", escaped + "%", pageSize + 1, offset)
+                    .stream()
+                    .map(UserSearchRow::toProfile)
+                    .toList());
+        }
+
+        boolean hasMore = results.size() > pageSize;
+        return new UserSearchResponse(hasMore ? results.subList(0, pageSize) : results, pageNumber, pageSize, hasMore);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChange(PrincipalInvalidationEvent event) {
+        if (!indexedOrganizations.isEmpty()) {
+            memoryIndexesStale.set(true);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${user-search.in-memory.refresh-interval:PT30S}")
+    public void refreshMemoryIndexes() {
+        if (indexedOrganizations.isEmpty() || !memoryIndexesStale.getAndSet(false)) {
+            return;
+        }
+        for (UUID organizationId : indexedOrganizations) {
+            try {
+                OrganizationSearchIndex index = OrganizationSearchIndex.build(userRepository.findActiveMemberRows(organizationId));
+                memoryIndexes.put(organizationId, index);
+                log.debug("Rebuilt in-memory search index for organization {} ({} members)", organizationId, index.size());
+            } catch (DataAccessException e) {
+                // Serve this organization from the database until the next successful rebuild
+                memoryIndexes.remove(organizationId);
+                memoryIndexesStale.set(true);
+                log.warn("In-memory search index rebuild failed for organization {}: {}", organizationId, e.getMessage());
+            }
+        }
+    }
+
+    static String escapeLike(String term) {
+        StringBuilder escaped = new StringBuilder(term.length() + 4);
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
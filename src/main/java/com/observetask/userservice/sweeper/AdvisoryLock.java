@@ -0,0 +1,70 @@
+package com.observetask.userservice.sweeper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cluster-wide mutual exclusion on Postgres advisory locks
+ *
+ * A session lock lives on one pooled connection that is held for the duration
+ * of the work, a transaction lock until the surrounding transaction ends; if
+ * the pod dies the connection drops and Postgres releases the lock, so there
+ * is no lease to expire or row to clean up.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdvisoryLock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Run work if no other session holds the lock; returns false without running it otherwise
+     */
+    public boolean runExclusively(long key, Runnable work) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!tryLock(connection, key)) {
+                return false;
+            }
+            try {
+                work.run();
+            } finally {
+                unlock(connection, key);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    /**
+     * Block until the transaction-scoped lock (keyClass, hash of key) is granted; released at commit or rollback
+     * Must run inside a transaction. The two-int key space never collides with runExclusively's bigint keys.
+     */
+    public void lockForTransaction(int keyClass, UUID key) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, hashtext(?))", resultSet -> { }, keyClass, key.toString());
+    }
+
+    private static boolean tryLock(Connection connection, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, key);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection connection, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, key);
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.observetask.userservice.sweeper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.observetask.userservice.entity.SweepCheckpoint;
+import com.observetask.userservice.repository.InvitationRepository;
+import com.observetask.userservice.repository.SweepCheckpointRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled, batched expiry and cleanup of invitations
+ *
+ * Expired refresh tokens and revocations are not swept row by row: their
+ * tables are partitioned by expiry day and PartitionMaintenance drops whole
+ * days.
+ *
+ * Each batch is its own short transaction touching at most sweeper.batch-size
+ * rows picked with FOR UPDATE SKIP LOCKED, so the sweep never holds long row
+ * locks or produces one huge WAL burst, and never waits on rows a request is
+ * using. Throughput is capped at sweeper.max-rows-per-second. Only the pod
+ * holding the advisory lock sweeps; the others skip the run.
+ *
+ * Progress is checkpointed per task in sweep_checkpoints: once a task drains,
+ * later runs start their index range at the checkpoint instead of re-walking
+ * the dead entries of rows already removed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpirationSweeper {
+
+    static final long LOCK_KEY = 0x4f54_5357_4545_5031L;
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Rows skipped because another transaction had them locked sit just below the cutoff;
+     * the checkpoint trails the cutoff by this much so the next run picks them up
+     */
+    private static final Duration CHECKPOINT_OVERLAP = Duration.ofHours(1);
+
+    private final AdvisoryLock advisoryLock;
+    private final SweepCheckpointRepository checkpointRepository;
+    private final List<SweepTask> tasks;
+    private final int batchSize;
+    private final int maxRowsPerSecond;
+    private final MeterRegistry meterRegistry;
+
+    public ExpirationSweeper(AdvisoryLock advisoryLock,
+                             SweepCheckpointRepository checkpointRepository,
+                             InvitationRepository invitationRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${sweeper.batch-size:1000}") int batchSize,
+                             @Value("${sweeper.max-rows-per-second:5000}") int maxRowsPerSecond,
+                             @Value("${sweeper.invitation-retention:P30D}") Duration invitationRetention) {
+        this.advisoryLock = advisoryLock;
+        this.checkpointRepository = checkpointRepository;
+        this.batchSize = batchSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.meterRegistry = meterRegistry;
+        // Order matters: invitations are marked EXPIRED before the purge looks for EXPIRED rows
+        this.tasks = List.of(
+                new SweepTask("invitations-expire", Duration.ZERO, invitationRepository::expirePendingBatch),
+                new SweepTask("invitations-purge", invitationRetention, invitationRepository::deleteOldBatch));
+    }
+
+    @Scheduled(fixedDelayString = "${sweeper.interval:PT5M}", initialDelayString = "${sweeper.initial-delay:PT1M}")
+    public void sweep() {
+        if (!advisoryLock.runExclusively(LOCK_KEY, this::sweepAll)) {
+            log.debug("Expiration sweep skipped, another instance holds the sweeper lock");
+        }
+    }
+
+    private void sweepAll() {
+        LocalDateTime now = LocalDateTime.now();
+        for (SweepTask task : tasks) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                sweep(task, now);
+            } catch (DataAccessException e) {
+                log.warn("Expiration sweep of {} failed, retrying next run: {}", task.name(), e.getMessage());
+            }
+        }
+    }
+
+    private void sweep(SweepTask task, LocalDateTime now) {
+        Counter rows = meterRegistry.counter("sweeper.rows", "task", task.name());
+        Timer batches = meterRegistry.timer("sweeper.batch.duration", "task", task.name());
+
+        SweepCheckpoint checkpoint = checkpointRepository.findById(task.name())
+                .orElseGet(() -> SweepCheckpoint.builder().task(task.name()).checkpointAt(BEGINNING).build());
+        LocalDateTime from = checkpoint.getCheckpointAt();
+        LocalDateTime cutoff = task.cutoff(now);
+        if (!from.isBefore(cutoff)) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        long total = 0;
+        int processed;
+        do {
+            long batchStartedAt = System.nanoTime();
+            processed = task.batch().apply(from, cutoff, batchSize);
+            batches.record(System.nanoTime() - batchStartedAt, TimeUnit.NANOSECONDS);
+            rows.increment(processed);
+            total += processed;
+        } while (processed == batchSize && throttle(total, startedAt));
+
+        boolean drained = processed < batchSize;
+        if (drained) {
+            LocalDateTime next = cutoff.minus(CHECKPOINT_OVERLAP);
+            if (next.isAfter(from)) {
+                checkpoint.setCheckpointAt(next);
+            }
+        }
+        checkpoint.setRowsProcessed(checkpoint.getRowsProcessed() + total);
+        checkpointRepository.save(checkpoint);
+
+        if (total > 0) {
+            log.info("Expiration sweep of {} processed {} rows in {} ms{}", task.name(), total,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), drained ? "" : " (interrupted)");
+        }
+    }
+
+    /**
+     * Sleep until total rows fit under the rate limit; false if the thread was interrupted
+     */
+    private boolean throttle(long total, long startedAt) {
+        if (maxRowsPerSecond <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        long earliestNanos = total * TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond;
+        long aheadNanos = earliestNanos - (System.nanoTime() - startedAt);
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
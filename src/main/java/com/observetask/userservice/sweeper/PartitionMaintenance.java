@@ -0,0 +1,172 @@
+package com.observetask.userservice.sweeper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the expiry-day partitions of jwt_refresh_tokens and jwt_blacklist (V12) in place
+ *
+ * Each run attaches the partitions for today and enough days ahead to hold
+ * the longest-lived token, and drops every partition whose day ended more
+ * than drop-after ago: expiry cleanup is a metadata operation instead of row
+ * deletes. New partitions are created standalone and then attached, and old
+ * ones detached CONCURRENTLY before the drop, so neither step takes a lock
+ * that blocks reads or writes of the parent. A detach interrupted part way is
+ * finalized on the next run. Only the pod holding the advisory lock works;
+ * the others skip the run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenance {
+
+    static final long LOCK_KEY = 0x4f54_5041_5254_4e31L;
+    static final List<String> TABLES = List.of("jwt_refresh_tokens", "jwt_blacklist");
+
+    private static final String SCHEMA = "observetask_users";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String LIST_PARTITIONS =
+            "SELECT c.relname, i.inhdetachpending FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = CAST(? AS regclass)";
+    private static final String IS_ATTACHED =
+            "SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(?) AND inhparent = CAST(? AS regclass))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AdvisoryLock advisoryLock;
+    private final MeterRegistry meterRegistry;
+    private final int daysAhead;
+    private final Duration dropAfter;
+
+    public PartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                AdvisoryLock advisoryLock,
+                                MeterRegistry meterRegistry,
+                                @Value("${jwt.refresh-token-expiration:604800000}") long refreshTokenExpirationMillis,
+                                @Value("${partitions.create-ahead:P3D}") Duration createAhead,
+                                @Value("${partitions.drop-after:PT1H}") Duration dropAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.advisoryLock = advisoryLock;
+        this.meterRegistry = meterRegistry;
+        // a token issued at the end of today expires refresh-token-expiration later; create-ahead on top of that
+        this.daysAhead = (int) Duration.ofMillis(refreshTokenExpirationMillis).plus(createAhead).toDays() + 1;
+        this.dropAfter = dropAfter;
+    }
+
+    @Scheduled(fixedDelayString = "${partitions.maintenance.interval:PT1H}",
+               initialDelayString = "${partitions.maintenance.initial-delay:PT0S}")
+    public void scheduledMaintain() {
+        if (!advisoryLock.runExclusively(LOCK_KEY, () -> maintain(Instant.now()))) {
+            log.debug("Partition maintenance skipped, another instance holds the lock");
+        }
+    }
+
+    /**
+     * Attach missing partitions and drop expired ones for every partitioned table
+     */
+    public void maintain(Instant now) {
+        for (String table : TABLES) {
+            try {
+                maintain(table, now);
+            } catch (DataAccessException e) {
+                log.warn("Partition maintenance of {} failed, retrying next run: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private void maintain(String table, Instant now) {
+        Map<String, Boolean> partitions = new HashMap<>();
+        jdbcTemplate.query(LIST_PARTITIONS, resultSet -> {
+            partitions.put(resultSet.getString("relname"), resultSet.getBoolean("inhdetachpending"));
+        }, SCHEMA + "." + table);
+
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        for (int i = 0; i <= daysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            String partition = partitionName(table, day);
+            if (!partitions.containsKey(partition)) {
+                try {
+                    attach(table, partition, day);
+                } catch (DataAccessException e) {
+                    attachFailed(table, partition, e);
+                }
+            }
+        }
+
+        LocalDate lastDroppable = LocalDate.ofInstant(now.minus(dropAfter), ZoneOffset.UTC).minusDays(1);
+        partitions.forEach((partition, detachPending) -> {
+            LocalDate day = dayOf(table, partition);
+            if (day != null && !day.isAfter(lastDroppable)) {
+                drop(table, partition, detachPending);
+            }
+        });
+    }
+
+    private void attach(String table, String partition, LocalDate day) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + SCHEMA + "." + partition +
+                " (LIKE " + SCHEMA + "." + table + " INCLUDING DEFAULTS)");
+        jdbcTemplate.execute("ALTER TABLE " + SCHEMA + "." + table + " ATTACH PARTITION " + SCHEMA + "." + partition +
+                " FOR VALUES FROM ('" + day + " 00:00:00+00') TO ('" + day.plusDays(1) + " 00:00:00+00')");
+        meterRegistry.counter("partitions.attached", "table", table).increment();
+        log.info("Attached partition {} for tokens expiring on {}", partition, day);
+    }
+
+    private void attachFailed(String table, String partition, DataAccessException e) {
+        // a concurrent run attaching it first is fine; anything else leaves those days without a partition
+        if (isAttached(table, partition)) {
+            log.debug("Partition {} was attached concurrently: {}", partition, e.getMessage());
+            return;
+        }
+        meterRegistry.counter("partitions.attach.failures", "table", table).increment();
+        log.warn("Could not attach partition {}, retrying next run: {}", partition, e.getMessage());
+    }
+
+    private boolean isAttached(String table, String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_ATTACHED, Boolean.class,
+                SCHEMA + "." + partition, SCHEMA + "." + table));
+    }
+
+    private void drop(String table, String partition, boolean detachPending) {
+        // DETACH ... CONCURRENTLY cannot run inside a transaction; JdbcTemplate statements here run in autocommit
+        jdbcTemplate.execute("ALTER TABLE " + SCHEMA + "." + table + " DETACH PARTITION " + SCHEMA + "." + partition +
+                (detachPending ? " FINALIZE" : " CONCURRENTLY"));
+        jdbcTemplate.execute("DROP TABLE " + SCHEMA + "." + partition);
+        meterRegistry.counter("partitions.dropped", "table", table).increment();
+        log.info("Dropped expired partition {}", partition);
+    }
+
+    static String partitionName(String table, LocalDate day) {
+        return table + "_p" + SUFFIX.format(day);
+    }
+
+    /**
+     * The expiry day a partition holds, or null for a table that does not follow the naming scheme
+     */
+    static LocalDate dayOf(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
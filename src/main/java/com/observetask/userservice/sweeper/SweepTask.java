@@ -0,0 +1,23 @@
+package com.observetask.userservice.sweeper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * One kind of expired row the sweeper processes, e.g. expired refresh tokens
+ *
+ * @param name      metric tag and checkpoint key
+ * @param retention how long after expiry a row is kept; zero processes rows as soon as they expire
+ * @param batch     processes at most batchSize rows expiring in [from, cutoff) and returns how many it touched
+ */
+record SweepTask(String name, Duration retention, BatchOperation batch) {
+
+    LocalDateTime cutoff(LocalDateTime now) {
+        return now.minus(retention);
+    }
+
+    @FunctionalInterface
+    interface BatchOperation {
+        int apply(LocalDateTime from, LocalDateTime cutoff, int batchSize);
+    }
+}
@@ -0,0 +1,17 @@
+-- ObserveTask User Service Database Migration V10
+-- Refresh-token rotation: every refresh consumes the presented token and issues its
+-- successor in the same family. A consumed token stays in the table (used_at set)
+-- until it expires, so presenting it again is recognised as reuse and the whole
+-- family is revoked.
+
+ALTER TABLE observetask_users.jwt_refresh_tokens
+    ADD COLUMN IF NOT EXISTS family_id UUID,
+    ADD COLUMN IF NOT EXISTS used_at TIMESTAMP WITH TIME ZONE;
+
+-- Tokens issued before rotation each start their own family
+UPDATE observetask_users.jwt_refresh_tokens SET family_id = id WHERE family_id IS NULL;
+
+ALTER TABLE observetask_users.jwt_refresh_tokens ALTER COLUMN family_id SET NOT NULL;
+
+-- Family revocation deletes by family_id
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON observetask_users.jwt_refresh_tokens(family_id);
@@ -0,0 +1,137 @@
+-- ObserveTask User Service Database Migration V11
+-- Precomputed per-organization counters: active members by role and pending invitations
+
+-- Maintained by statement-level triggers (one upsert per statement and organization, in
+-- organization order so concurrent statements cannot deadlock) and corrected by
+-- OrganizationCounterReconciler. Pending invitations are counted by status: a PENDING row
+-- whose expires_at has passed is counted until ExpirationSweeper marks it EXPIRED.
+
+CREATE TABLE IF NOT EXISTS observetask_users.organization_counters (
+    organization_id UUID PRIMARY KEY,
+    super_admins INTEGER NOT NULL DEFAULT 0,
+    org_admins INTEGER NOT NULL DEFAULT 0,
+    team_admins INTEGER NOT NULL DEFAULT 0,
+    team_members INTEGER NOT NULL DEFAULT 0,
+    pending_invitations INTEGER NOT NULL DEFAULT 0
+);
+
+-- kinds are role names, or PENDING for an invitation
+CREATE OR REPLACE FUNCTION observetask_users.add_organization_counts(organization_ids UUID[], kinds TEXT[], delta INTEGER)
+RETURNS void AS $$
+    INSERT INTO observetask_users.organization_counters AS c
+        (organization_id, super_admins, org_admins, team_admins, team_members, pending_invitations)
+    SELECT k.organization_id,
+           delta * count(*) FILTER (WHERE k.kind = 'SUPER_ADMIN'),
+           delta * count(*) FILTER (WHERE k.kind = 'ORG_ADMIN'),
+           delta * count(*) FILTER (WHERE k.kind = 'TEAM_ADMIN'),
+           delta * count(*) FILTER (WHERE k.kind = 'TEAM_MEMBER'),
+           delta * count(*) FILTER (WHERE k.kind = 'PENDING')
+    FROM unnest(organization_ids, kinds) AS k(organization_id, kind)
+    GROUP BY k.organization_id
+    ORDER BY k.organization_id
+    ON CONFLICT (organization_id) DO UPDATE SET
+        super_admins = c.super_admins + EXCLUDED.super_admins,
+        org_admins = c.org_admins + EXCLUDED.org_admins,
+        team_admins = c.team_admins + EXCLUDED.team_admins,
+        team_members = c.team_members + EXCLUDED.team_members,
+        pending_invitations = c.pending_invitations + EXCLUDED.pending_invitations;
+$$ LANGUAGE sql;
+
+-- Memberships count while their user is active. A membership deleted together with its user
+-- (ON DELETE CASCADE) no longer finds the user and is taken off as if the user was active;
+-- the reconciler corrects the rare hard delete of an inactive user.
+CREATE OR REPLACE FUNCTION observetask_users.count_user_roles()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM observetask_users.add_organization_counts(array_agg(n.organization_id), array_agg(n.role::text), 1)
+        FROM new_rows n JOIN observetask_users.users u ON u.id = n.user_id
+        WHERE u.is_active;
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        PERFORM observetask_users.add_organization_counts(array_agg(o.organization_id), array_agg(o.role::text), -1)
+        FROM old_rows o LEFT JOIN observetask_users.users u ON u.id = o.user_id
+        WHERE u.is_active IS NOT FALSE;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Activating or deactivating a user moves all of their memberships in or out of the counts
+CREATE OR REPLACE FUNCTION observetask_users.count_user_activation()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM observetask_users.add_organization_counts(array_agg(ur.organization_id), array_agg(ur.role::text), 1)
+    FROM new_rows n
+    JOIN old_rows o ON o.id = n.id
+    JOIN observetask_users.user_roles ur ON ur.user_id = n.id
+    WHERE n.is_active AND NOT o.is_active;
+    PERFORM observetask_users.add_organization_counts(array_agg(ur.organization_id), array_agg(ur.role::text), -1)
+    FROM new_rows n
+    JOIN old_rows o ON o.id = n.id
+    JOIN observetask_users.user_roles ur ON ur.user_id = n.id
+    WHERE o.is_active AND NOT n.is_active;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION observetask_users.count_pending_invitations()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM observetask_users.add_organization_counts(array_agg(n.organization_id), array_agg(n.status::text), 1)
+        FROM new_rows n WHERE n.status = 'PENDING';
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        PERFORM observetask_users.add_organization_counts(array_agg(o.organization_id), array_agg(o.status::text), -1)
+        FROM old_rows o WHERE o.status = 'PENDING';
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A trigger with transition tables serves one event, hence one trigger per event
+CREATE TRIGGER count_user_roles_insert AFTER INSERT ON observetask_users.user_roles
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION observetask_users.count_user_roles();
+CREATE TRIGGER count_user_roles_update AFTER UPDATE ON observetask_users.user_roles
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION observetask_users.count_user_roles();
+CREATE TRIGGER count_user_roles_delete AFTER DELETE ON observetask_users.user_roles
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION observetask_users.count_user_roles();
+
+CREATE TRIGGER count_user_activation AFTER UPDATE ON observetask_users.users
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION observetask_users.count_user_activation();
+
+CREATE TRIGGER count_invitations_insert AFTER INSERT ON observetask_users.invitations
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION observetask_users.count_pending_invitations();
+CREATE TRIGGER count_invitations_update AFTER UPDATE ON observetask_users.invitations
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION observetask_users.count_pending_invitations();
+CREATE TRIGGER count_invitations_delete AFTER DELETE ON observetask_users.invitations
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION observetask_users.count_pending_invitations();
+
+-- Backfill
+INSERT INTO observetask_users.organization_counters
+    (organization_id, super_admins, org_admins, team_admins, team_members, pending_invitations)
+SELECT organization_id,
+       count(*) FILTER (WHERE kind = 'SUPER_ADMIN'),
+       count(*) FILTER (WHERE kind = 'ORG_ADMIN'),
+       count(*) FILTER (WHERE kind = 'TEAM_ADMIN'),
+       count(*) FILTER (WHERE kind = 'TEAM_MEMBER'),
+       count(*) FILTER (WHERE kind = 'PENDING')
+FROM (
+    SELECT ur.organization_id, ur.role AS kind
+    FROM observetask_users.user_roles ur JOIN observetask_users.users u ON u.id = ur.user_id
+    WHERE u.is_active
+    UNION ALL
+    SELECT i.organization_id, i.status
+    FROM observetask_users.invitations i
+    WHERE i.status = 'PENDING'
+) k
+GROUP BY organization_id
+ON CONFLICT (organization_id) DO NOTHING;
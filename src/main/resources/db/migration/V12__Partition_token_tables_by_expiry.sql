@@ -0,0 +1,82 @@
+-- ObserveTask User Service Database Migration V12
+-- Range-partition jwt_refresh_tokens and jwt_blacklist by expires_at, one partition per UTC day
+
+-- Every row of these tables dies at expires_at, so whole days can be dropped
+-- once they have passed instead of deleting rows one by one. PartitionMaintenance
+-- attaches the partitions ahead of time and detaches and drops expired ones.
+-- A primary key or unique constraint on a partitioned table must contain the
+-- partition key: the keys become (id, expires_at) and (token_jti, expires_at),
+-- and token_hash is indexed per partition without a global UNIQUE (hashes of
+-- 256-bit random tokens). There is no default partition: a row outside every
+-- partition is an error rather than a silent scan target for every attach.
+
+ALTER TABLE observetask_users.jwt_refresh_tokens RENAME TO jwt_refresh_tokens_unpartitioned;
+ALTER TABLE observetask_users.jwt_blacklist RENAME TO jwt_blacklist_unpartitioned;
+-- frees the primary key index names for the new tables
+ALTER TABLE observetask_users.jwt_refresh_tokens_unpartitioned RENAME CONSTRAINT jwt_refresh_tokens_pkey TO jwt_refresh_tokens_unpartitioned_pkey;
+ALTER TABLE observetask_users.jwt_blacklist_unpartitioned RENAME CONSTRAINT jwt_blacklist_pkey TO jwt_blacklist_unpartitioned_pkey;
+
+CREATE TABLE observetask_users.jwt_refresh_tokens (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES observetask_users.users(id) ON DELETE CASCADE,
+    token_hash VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    device_info VARCHAR(500),
+    ip_address VARCHAR(45),
+    family_id UUID NOT NULL,
+    used_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (id, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+CREATE TABLE observetask_users.jwt_blacklist (
+    token_jti VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (token_jti, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+-- Partitions from today until the last live row, at least two weeks ahead
+DO $$
+DECLARE
+    today DATE := (now() AT TIME ZONE 'UTC')::date;
+    last_day DATE;
+    day DATE;
+    parent TEXT;
+BEGIN
+    SELECT greatest(today + 14,
+                    (SELECT (max(expires_at) AT TIME ZONE 'UTC')::date FROM observetask_users.jwt_refresh_tokens_unpartitioned),
+                    (SELECT (max(expires_at) AT TIME ZONE 'UTC')::date FROM observetask_users.jwt_blacklist_unpartitioned))
+    INTO last_day;
+    FOREACH parent IN ARRAY ARRAY['jwt_refresh_tokens', 'jwt_blacklist'] LOOP
+        day := today;
+        WHILE day <= last_day LOOP
+            EXECUTE format('CREATE TABLE observetask_users.%I PARTITION OF observetask_users.%I FOR VALUES FROM (%L) TO (%L)',
+                           parent || '_p' || to_char(day, 'YYYYMMDD'), parent,
+                           to_char(day, 'YYYY-MM-DD') || ' 00:00:00+00', to_char(day + 1, 'YYYY-MM-DD') || ' 00:00:00+00');
+            day := day + 1;
+        END LOOP;
+    END LOOP;
+END $$;
+
+-- Only live rows move; expired ones would need partitions in the past just to be dropped
+INSERT INTO observetask_users.jwt_refresh_tokens
+    (id, user_id, token_hash, expires_at, created_at, device_info, ip_address, family_id, used_at)
+SELECT id, user_id, token_hash, expires_at, created_at, device_info, ip_address, family_id, used_at
+FROM observetask_users.jwt_refresh_tokens_unpartitioned
+WHERE expires_at >= date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+
+INSERT INTO observetask_users.jwt_blacklist (token_jti, expires_at, created_at)
+SELECT token_jti, expires_at, created_at
+FROM observetask_users.jwt_blacklist_unpartitioned
+WHERE expires_at >= date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+
+DROP TABLE observetask_users.jwt_refresh_tokens_unpartitioned;
+DROP TABLE observetask_users.jwt_blacklist_unpartitioned;
+
+-- Partitioned indexes; every partition gets its own copy
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON observetask_users.jwt_refresh_tokens(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON observetask_users.jwt_refresh_tokens(expires_at);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_token_hash ON observetask_users.jwt_refresh_tokens(token_hash);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON observetask_users.jwt_refresh_tokens(family_id);
+CREATE INDEX IF NOT EXISTS idx_jwt_blacklist_expires_at ON observetask_users.jwt_blacklist(expires_at);
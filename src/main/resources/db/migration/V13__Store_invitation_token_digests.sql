@@ -0,0 +1,23 @@
+-- ObserveTask User Service Database Migration V13
+-- Store invitation tokens as their SHA-256 digest, with one index
+
+-- Tokens were kept as VARCHAR(255) with both a UNIQUE constraint and a plain
+-- B-tree on the same column: two wide indexes written by every invite, and
+-- the raw token readable by anyone with database access. A token is now
+-- looked up by sha256 of its UTF-8 bytes, a fixed 32-byte key under a single
+-- unique index. Existing rows get the digest of their stored token, so links
+-- already sent keep working.
+
+ALTER TABLE observetask_users.invitations ADD COLUMN token_digest BYTEA;
+
+UPDATE observetask_users.invitations SET token_digest = sha256(convert_to(token, 'UTF8'));
+
+ALTER TABLE observetask_users.invitations
+    ALTER COLUMN token_digest SET NOT NULL,
+    ADD CONSTRAINT invitations_token_digest_length CHECK (octet_length(token_digest) = 32);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_invitations_token_digest ON observetask_users.invitations(token_digest);
+
+-- dropping the column also drops its UNIQUE constraint (invitations_token_key)
+DROP INDEX IF EXISTS observetask_users.idx_invitations_token;
+ALTER TABLE observetask_users.invitations DROP COLUMN token;
@@ -0,0 +1,32 @@
+-- ObserveTask User Service Database Migration V14
+-- Drop duplicate and low-selectivity indexes; index booleans and statuses as partial indexes
+
+-- Every index is written on each insert and on updates of its columns. V1
+-- indexed several columns that a constraint index already leads with, and a
+-- few booleans and statuses whose plain B-trees match half the table and are
+-- never chosen. QueryPlanTest explains every @Query against the resulting set.
+-- (idx_refresh_tokens_token_hash lost its UNIQUE twin in V12 already.)
+
+-- Leading column of an existing unique or composite index
+DROP INDEX IF EXISTS observetask_users.idx_users_email;             -- users_email_key
+DROP INDEX IF EXISTS observetask_users.idx_users_auth_provider;     -- users_auth_provider_external_id_key
+DROP INDEX IF EXISTS observetask_users.idx_user_roles_user_id;      -- user_roles_user_id_organization_id_key
+DROP INDEX IF EXISTS observetask_users.idx_user_roles_org_id;       -- idx_user_roles_org_role
+
+-- Low selectivity: replaced by the partial indexes below, or by the (organization_id, role) index
+DROP INDEX IF EXISTS observetask_users.idx_users_active;
+DROP INDEX IF EXISTS observetask_users.idx_users_email_verified;
+DROP INDEX IF EXISTS observetask_users.idx_user_roles_role;
+DROP INDEX IF EXISTS observetask_users.idx_invitations_status;
+
+-- Active local accounts that still need a password (UserRepository.findLocalUsersWithoutPassword)
+CREATE INDEX IF NOT EXISTS idx_users_local_without_password ON observetask_users.users(created_at)
+    WHERE auth_provider = 'LOCAL' AND (password_hash IS NULL OR password_hash = '') AND is_active;
+
+-- Active accounts whose email is not verified yet (reminders)
+CREATE INDEX IF NOT EXISTS idx_users_unverified ON observetask_users.users(created_at)
+    WHERE NOT email_verified AND is_active;
+
+-- Pending invitations by expiry: listings, reminders and the expiration sweep
+CREATE INDEX IF NOT EXISTS idx_invitations_pending_expires_at ON observetask_users.invitations(expires_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,29 @@
+-- ObserveTask User Service Database Migration V15
+-- Last activity per user, written in batches by UserActivityTracker
+
+-- Requests record touches in memory; every few seconds each pod writes the
+-- latest touch per user in one UPDATE ... FROM (VALUES ...). Two things keep
+-- those updates cheap:
+-- - last_active_at is deliberately left unindexed, so the updates stay HOT.
+-- - update_users_updated_at skips an update that changes last_active_at.
+--   Only the tracker writes that column, and activity is not a profile change.
+-- The statement-level count_user_activation trigger (V11) still runs once per
+-- batch. It only joins the batch's transition tables and finds no change in
+-- is_active.
+
+ALTER TABLE observetask_users.users ADD COLUMN IF NOT EXISTS last_active_at TIMESTAMP WITH TIME ZONE;
+
+DROP TRIGGER IF EXISTS update_users_updated_at ON observetask_users.users;
+CREATE TRIGGER update_users_updated_at
+    BEFORE UPDATE ON observetask_users.users
+    FOR EACH ROW
+    WHEN (OLD.last_active_at IS NOT DISTINCT FROM NEW.last_active_at)
+    EXECUTE FUNCTION observetask_users.update_updated_at_column();
+
+-- Seed from the newest refresh token of each user (issued at login or at the last refresh),
+-- so existing users do not all look inactive until they next sign in
+UPDATE observetask_users.users u SET last_active_at = t.last_issued
+FROM (
+    SELECT user_id, max(created_at) AS last_issued FROM observetask_users.jwt_refresh_tokens GROUP BY user_id
+) t
+WHERE u.id = t.user_id;
@@ -0,0 +1,19 @@
+-- ObserveTask User Service Database Migration V2
+-- Index-backed user search: trigram indexes for typeahead and a derived email domain column
+
+-- Trigram support for LIKE '%term%' and similarity ranking
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+-- Email domain, derived from email so it can never drift; replaces LIKE '%@domain' scans
+ALTER TABLE observetask_users.users
+    ADD COLUMN IF NOT EXISTS email_domain VARCHAR(255)
+    GENERATED ALWAYS AS (lower(split_part(email, '@', 2))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_users_email_domain ON observetask_users.users(email_domain);
+
+-- Trigram indexes; the expressions must match the search queries in UserRepository exactly
+CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm
+    ON observetask_users.users USING gin ((lower(first_name || ' ' || last_name)) public.gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm
+    ON observetask_users.users USING gin ((lower(email)) public.gin_trgm_ops);
@@ -0,0 +1,20 @@
+-- ObserveTask User Service Database Migration V3
+-- Keyset pagination for organization member listings and exports
+
+-- Matches ORDER BY created_at, id under the organization_id equality so pages and
+-- exports are a single forward index range scan with no sort node; user_id is carried
+-- in the index so the join to users needs no heap visit on user_roles.
+--
+-- Plan for UserRepository.findMembersAfter (EXPLAIN ANALYZE on PostgreSQL 14, a 200k-member
+-- organization among 300k memberships, cursor at the 100,000th member, page of 51):
+--   Limit
+--     -> Nested Loop
+--          -> Index Only Scan using idx_user_roles_org_keyset on user_roles ur
+--               Index Cond: ((organization_id = $1) AND (created_at >= $2))
+--               Filter: ((created_at > $2) OR (id > $3))
+--               Rows Removed by Filter: 1
+--          -> Index Scan using users_pkey on users u
+--               Index Cond: (id = ur.user_id)
+--               Filter: is_active
+CREATE INDEX IF NOT EXISTS idx_user_roles_org_keyset
+    ON observetask_users.user_roles(organization_id, created_at, id) INCLUDE (user_id, role);
@@ -0,0 +1,12 @@
+-- ObserveTask User Service Database Migration V4
+-- Checkpoints for the batched expiration sweeper
+
+-- One row per sweep task: every row of that task expiring before checkpoint_at has
+-- been processed, so the next run starts its index range there instead of walking
+-- the dead index entries left behind by earlier batches.
+CREATE TABLE IF NOT EXISTS observetask_users.sweep_checkpoints (
+    task VARCHAR(64) PRIMARY KEY,
+    checkpoint_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    rows_processed BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,20 @@
+-- ObserveTask User Service Database Migration V5
+-- Transactional outbox for Kafka domain events
+
+-- Steps by 50 to match the entity's pooled allocation (allocationSize = 50)
+CREATE SEQUENCE IF NOT EXISTS observetask_users.outbox_events_id_seq INCREMENT BY 50;
+
+-- Rows are written in the same transaction as the change they describe and
+-- deleted by the relay once Kafka has acknowledged them, so the table only
+-- holds the unpublished backlog and the primary key is the relay's queue order.
+CREATE TABLE IF NOT EXISTS observetask_users.outbox_events (
+    id BIGINT PRIMARY KEY DEFAULT nextval('observetask_users.outbox_events_id_seq'),
+    event_id UUID NOT NULL UNIQUE,
+    topic VARCHAR(255) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER SEQUENCE observetask_users.outbox_events_id_seq OWNED BY observetask_users.outbox_events.id;
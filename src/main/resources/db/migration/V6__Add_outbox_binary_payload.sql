@@ -0,0 +1,11 @@
+-- ObserveTask User Service Database Migration V6
+-- Binary (EventCodec) outbox payloads; JSON rows written before the switch are still relayed as-is
+
+ALTER TABLE observetask_users.outbox_events
+    ADD COLUMN IF NOT EXISTS payload_binary BYTEA;
+
+ALTER TABLE observetask_users.outbox_events
+    ALTER COLUMN payload DROP NOT NULL;
+
+ALTER TABLE observetask_users.outbox_events
+    ADD CONSTRAINT chk_outbox_events_payload CHECK (num_nonnulls(payload, payload_binary) = 1);
@@ -0,0 +1,22 @@
+-- ObserveTask User Service Database Migration V7
+-- Signing keys shared by all replicas (JdbcJwtKeyStore)
+
+-- One ACTIVE key signs, one NEXT key is published ahead of its promotion, and
+-- RETIRED keys stay verifiable until verifiable_until. Private keys are PKCS#8
+-- sealed with AES-256-GCM (12-byte IV prefix) under jwt.signing.key-encryption-key.
+CREATE TABLE IF NOT EXISTS observetask_users.jwt_signing_keys (
+    kid VARCHAR(64) PRIMARY KEY,
+    algorithm VARCHAR(10) NOT NULL CHECK (algorithm IN ('RS256', 'EdDSA')),
+    status VARCHAR(10) NOT NULL CHECK (status IN ('ACTIVE', 'NEXT', 'RETIRED')),
+    public_key BYTEA NOT NULL,
+    private_key BYTEA NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    activated_at TIMESTAMP WITH TIME ZONE,
+    verifiable_until TIMESTAMP WITH TIME ZONE,
+    CHECK (status <> 'ACTIVE' OR activated_at IS NOT NULL),
+    CHECK (status <> 'RETIRED' OR verifiable_until IS NOT NULL)
+);
+
+-- At most one ACTIVE and one NEXT key
+CREATE UNIQUE INDEX IF NOT EXISTS idx_jwt_signing_keys_current
+    ON observetask_users.jwt_signing_keys(status) WHERE status IN ('ACTIVE', 'NEXT');
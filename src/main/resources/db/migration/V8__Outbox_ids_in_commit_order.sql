@@ -0,0 +1,6 @@
+-- ObserveTask User Service Database Migration V8
+-- Outbox ids are drawn one at a time by DomainEventPublisher under a per-aggregate
+-- advisory lock, so id order is commit order per aggregate. Pooled (per-pod) id blocks
+-- would break that, so the sequence no longer steps by 50.
+
+ALTER SEQUENCE observetask_users.outbox_events_id_seq INCREMENT BY 1 CACHE 1;
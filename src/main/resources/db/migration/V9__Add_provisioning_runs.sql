@@ -0,0 +1,28 @@
+-- ObserveTask User Service Database Migration V9
+-- Checkpointed directory provisioning runs (SSO identity sync)
+
+-- One row per sync run. processed_rows is the checkpoint: every feed row before
+-- it has been applied and committed, so a resumed run skips that many rows of
+-- the resent feed.
+CREATE TABLE IF NOT EXISTS observetask_users.provisioning_runs (
+    id UUID PRIMARY KEY,
+    organization_id UUID NOT NULL,
+    auth_provider VARCHAR(20) NOT NULL,
+    full_sync BOOLEAN NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING' CHECK (status IN ('RUNNING', 'COMPLETED')),
+    processed_rows BIGINT NOT NULL DEFAULT 0,
+    created_count INTEGER NOT NULL DEFAULT 0,
+    updated_count INTEGER NOT NULL DEFAULT 0,
+    deactivated_count INTEGER NOT NULL DEFAULT 0,
+    rejected_count INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- External ids seen by a full sync; whoever is missing at the end is deprovisioned.
+-- Kept in a logged table so a resumed run still knows what the earlier chunks saw.
+CREATE TABLE IF NOT EXISTS observetask_users.provisioning_run_identities (
+    run_id UUID NOT NULL REFERENCES observetask_users.provisioning_runs(id) ON DELETE CASCADE,
+    external_id VARCHAR(255) NOT NULL,
+    PRIMARY KEY (run_id, external_id)
+);
@@ -0,0 +1,130 @@
+package com.observetask.userservice.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.cache.WorkspaceSnapshotCache.Versioned;
+import com.observetask.userservice.dto.WorkspaceSnapshot;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JpaSliceTest
+@Import({WorkspaceSnapshotCache.class, SimpleMeterRegistry.class, WorkspaceSnapshotCacheTest.UnreachableRedis.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WorkspaceSnapshotCacheTest {
+
+    @TestConfiguration
+    static class UnreachableRedis {
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", 1);
+            connectionFactory.afterPropertiesSet();
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        // Registers listeners but never connects
+        @Bean
+        RedisMessageListenerContainer redisMessageListenerContainer() {
+            return new RedisMessageListenerContainer() {
+                @Override
+                public void afterPropertiesSet() {
+                }
+
+                @Override
+                public void start() {
+                }
+            };
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+
+    @Autowired
+    private WorkspaceSnapshotCache workspaceSnapshotCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID userId;
+    private String email;
+    private UUID firstOrganization;
+    private UUID secondOrganization;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        email = "workspaces-" + userId + "@example.test";
+        firstOrganization = UUID.randomUUID();
+        secondOrganization = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Work', 'Space')",
+                userId, email);
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role, created_at) " +
+                "VALUES (?, ?, 'TEAM_MEMBER', now() - interval '1 day'), (?, ?, 'ORG_ADMIN', now())",
+                userId, firstOrganization, userId, secondOrganization);
+    }
+
+    @Test
+    void snapshotHoldsMembershipsAndActionableInvitations() {
+        UUID invitingOrganization = UUID.randomUUID();
+        invite(invitingOrganization, "PENDING", "interval '1 day'");
+        invite(UUID.randomUUID(), "PENDING", "interval '-1 day'");
+        invite(UUID.randomUUID(), "REVOKED", "interval '1 day'");
+
+        WorkspaceSnapshot snapshot = workspaceSnapshotCache.get(userId).orElseThrow().snapshot();
+
+        assertThat(snapshot.memberships()).extracting(WorkspaceSnapshot.Membership::organizationId, WorkspaceSnapshot.Membership::role)
+                .containsExactly(tuple(firstOrganization, Role.TEAM_MEMBER),
+                        tuple(secondOrganization, Role.ORG_ADMIN));
+        assertThat(snapshot.invitations()).extracting(WorkspaceSnapshot.PendingInvitation::organizationId)
+                .containsExactly(invitingOrganization);
+        assertThat(workspaceSnapshotCache.get(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void etagChangesOnlyWhenAnInvalidatedSnapshotChanged() {
+        Versioned first = workspaceSnapshotCache.get(userId).orElseThrow();
+        workspaceSnapshotCache.onMembershipChange(PrincipalInvalidationEvent.user(userId));
+        Versioned reloaded = workspaceSnapshotCache.get(userId).orElseThrow();
+        assertThat(reloaded).isNotSameAs(first);
+        assertThat(reloaded.etag()).isEqualTo(first.etag());
+
+        invite(UUID.randomUUID(), "PENDING", "interval '1 day'");
+        assertThat(workspaceSnapshotCache.get(userId).orElseThrow()).isSameAs(reloaded);
+
+        workspaceSnapshotCache.onInvitationChange(WorkspaceInvalidationEvent.invitations(List.of(email.toUpperCase())));
+
+        Versioned second = workspaceSnapshotCache.get(userId).orElseThrow();
+        assertThat(second.etag()).isNotEqualTo(first.etag()).startsWith("\"").endsWith("\"");
+        assertThat(second.snapshot().invitations()).hasSize(1);
+        assertThat(second.nextExpiry()).isNotNull();
+    }
+
+    private void invite(UUID organizationId, String status, String expiresIn) {
+        jdbcTemplate.update("INSERT INTO observetask_users.invitations (email, organization_id, role, token_digest, status, invited_by, expires_at) " +
+                "VALUES (?, ?, 'TEAM_MEMBER', sha256(convert_to(?, 'UTF8')), ?, ?, now() + " + expiresIn + ")",
+                email, organizationId, UUID.randomUUID().toString(), status, UUID.randomUUID());
+    }
+}
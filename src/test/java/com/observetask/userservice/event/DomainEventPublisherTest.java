@@ -0,0 +1,123 @@
+package com.observetask.userservice.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.entity.OutboxEvent;
+import com.observetask.userservice.repository.OutboxEventRepository;
+import com.observetask.userservice.support.JpaSliceTest;
+
+@JpaSliceTest
+@Import({DomainEventPublisher.class, ObjectMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DomainEventPublisherTest {
+
+    private static final long HOLD_MILLIS = 500;
+
+    @Autowired
+    private DomainEventPublisher publisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM observetask_users.outbox_events");
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void publishAllAppendsInIterationOrder() {
+        UUID aggregate = UUID.randomUUID();
+        List<UserEvent> events = List.of(event(aggregate, UserEvent.CREATED), event(aggregate, UserEvent.UPDATED),
+                event(UUID.randomUUID(), UserEvent.CREATED));
+
+        transaction.executeWithoutResult(status -> publisher.publishAll(events));
+
+        List<OutboxEvent> rows = outboxEventRepository.findBatch(Limit.of(10));
+        assertThat(rows).extracting(OutboxEvent::getAggregateId).containsExactly(aggregate, aggregate, events.get(2).userId());
+        assertThat(rows).extracting(row -> EventCodec.decode(row.getPayloadBinary())).containsExactlyElementsOf(events);
+        assertThat(rows.get(0).getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    void sameAggregateWaitsForEarlierTransactionAndGetsHigherId() throws Exception {
+        UUID aggregate = UUID.randomUUID();
+        CountDownLatch firstPublished = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            publisher.publish(event(aggregate, UserEvent.CREATED));
+            firstPublished.countDown();
+            sleep(HOLD_MILLIS);
+        }));
+        assertThat(firstPublished.await(10, TimeUnit.SECONDS)).isTrue();
+
+        long waitedMillis = timeTransaction(event(aggregate, UserEvent.UPDATED));
+        first.get(10, TimeUnit.SECONDS);
+
+        assertThat(waitedMillis).isGreaterThanOrEqualTo(HOLD_MILLIS / 2);
+        assertThat(outboxEventRepository.findBatch(Limit.of(10))).extracting(OutboxEvent::getEventType)
+                .containsExactly(UserEvent.CREATED, UserEvent.UPDATED);
+    }
+
+    @Test
+    void otherAggregatesDoNotWait() throws Exception {
+        CountDownLatch firstPublished = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            publisher.publish(event(UUID.randomUUID(), UserEvent.CREATED));
+            firstPublished.countDown();
+            sleep(HOLD_MILLIS);
+        }));
+        assertThat(firstPublished.await(10, TimeUnit.SECONDS)).isTrue();
+
+        long waitedMillis = timeTransaction(event(UUID.randomUUID(), UserEvent.CREATED));
+        first.get(10, TimeUnit.SECONDS);
+
+        assertThat(waitedMillis).isLessThan(HOLD_MILLIS / 2);
+    }
+
+    private long timeTransaction(UserEvent event) {
+        long startedAt = System.nanoTime();
+        transaction.executeWithoutResult(status -> publisher.publish(event));
+        return Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+    }
+
+    private static UserEvent event(UUID userId, String type) {
+        return new UserEvent(type, userId, userId + "@example.test", "First", "Last", true, Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.observetask.userservice.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class EventCodecTest {
+
+    private static final Instant OCCURRED_AT = Instant.parse("2026-10-17T08:15:30.123456789Z");
+
+    @Test
+    void everyEventTypeSurvivesABinaryRoundTrip() {
+        DomainEvent[] events = {
+                new UserEvent(UserEvent.CREATED, UUID.randomUUID(), "ada@example.test", "Ada", "Lovelace", true, OCCURRED_AT),
+                new UserRoleEvent(UserRoleEvent.ASSIGNED, UUID.randomUUID(), UUID.randomUUID(), "TEAM_ADMIN", OCCURRED_AT),
+                new InvitationEvent(InvitationEvent.INVITED, UUID.randomUUID(), UUID.randomUUID(), "grace@example.test",
+                        "TEAM_MEMBER", "PENDING", UUID.randomUUID(), LocalDateTime.of(2026, 10, 24, 8, 15, 30, 500), OCCURRED_AT),
+                // before the epoch, and a type outside the dictionary written as a literal
+                new UserEvent("user.merged", UUID.randomUUID(), "żółw@example.test", "Zoë", null, false,
+                        Instant.parse("1969-12-31T23:59:59.5Z"))};
+
+        for (DomainEvent event : events) {
+            byte[] encoded = EventCodec.encode(event);
+            assertThat(EventCodec.isBinary(encoded)).isTrue();
+            assertThat(EventCodec.decode(encoded)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void nullFieldsSurviveABinaryRoundTrip() {
+        DomainEvent[] events = {
+                new UserEvent(UserEvent.DEACTIVATED, null, null, null, null, false, null),
+                new UserRoleEvent(UserRoleEvent.REMOVED, UUID.randomUUID(), UUID.randomUUID(), null, OCCURRED_AT),
+                new InvitationEvent(InvitationEvent.STATUS_CHANGED, UUID.randomUUID(), null, "", null, "REVOKED", null, null, null)};
+
+        for (DomainEvent event : events) {
+            assertThat(EventCodec.decode(EventCodec.encode(event))).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void legacyJsonPayloadsAreDecoded() {
+        UUID userId = UUID.randomUUID();
+        String user = " {\"type\":\"user.updated\",\"userId\":\"" + userId + "\",\"email\":\"ada@example.test\"," +
+                "\"firstName\":\"Ada\",\"lastName\":null,\"active\":true,\"occurredAt\":\"2026-10-17T08:15:30.123456789Z\"}";
+        assertThat(EventCodec.isBinary(user.getBytes(StandardCharsets.UTF_8))).isFalse();
+        assertThat(EventCodec.decode(user.getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo(new UserEvent(UserEvent.UPDATED, userId, "ada@example.test", "Ada", null, true, OCCURRED_AT));
+
+        // an ObjectMapper writing dates as timestamps sent seconds.nanos
+        UUID invitationId = UUID.randomUUID();
+        UUID organizationId = UUID.randomUUID();
+        String invitation = "{\"type\":\"user.invited\",\"invitationId\":\"" + invitationId + "\",\"organizationId\":\"" +
+                organizationId + "\",\"email\":\"grace@example.test\",\"role\":\"TEAM_MEMBER\",\"status\":\"PENDING\"," +
+                "\"expiresAt\":[2026,10,24,8,15,30],\"occurredAt\":1792224930.123456789}";
+        assertThat(EventCodec.decode(invitation.getBytes(StandardCharsets.UTF_8))).isEqualTo(new InvitationEvent(
+                InvitationEvent.INVITED, invitationId, organizationId, "grace@example.test", "TEAM_MEMBER", "PENDING", null,
+                LocalDateTime.of(2026, 10, 24, 8, 15, 30), OCCURRED_AT));
+    }
+
+    @Test
+    void jsonOfAnUnknownTypeOrMalformedJsonIsRejected() {
+        assertThatThrownBy(() -> EventCodec.decode("{\"type\":\"user.merged\"}".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("user.merged");
+        assertThatThrownBy(() -> EventCodec.decode("{\"type\":".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EventCodec.decode(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void truncatedPayloadsAreRejected() {
+        byte[] encoded = EventCodec.encode(
+                new UserEvent(UserEvent.CREATED, UUID.randomUUID(), "ada@example.test", "Ada", "Lovelace", true, OCCURRED_AT));
+
+        // MAGIC, version, schema, type code, UUID presence byte, then half of the UUID
+        assertThatThrownBy(() -> EventCodec.decode(Arrays.copyOf(encoded, 13)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Truncated");
+        // the email's length prefix, then part of its bytes
+        assertThatThrownBy(() -> EventCodec.decode(Arrays.copyOf(encoded, 4 + 17 + 1 + 5)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Truncated");
+        // header only
+        assertThatThrownBy(() -> EventCodec.decode(Arrays.copyOf(encoded, 2)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void unknownSchemasTypeCodesAndVersionsAreRejected() {
+        byte[] encoded = EventCodec.encode(new UserRoleEvent(UserRoleEvent.UPDATED, UUID.randomUUID(), UUID.randomUUID(),
+                "TEAM_MEMBER", OCCURRED_AT));
+
+        byte[] unknownSchema = encoded.clone();
+        unknownSchema[2] = 42;
+        assertThatThrownBy(() -> EventCodec.decode(unknownSchema))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("schema 42");
+
+        byte[] unknownType = encoded.clone();
+        unknownType[3] = 100;
+        assertThatThrownBy(() -> EventCodec.decode(unknownType))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("type code 100");
+
+        byte[] newerVersion = encoded.clone();
+        newerVersion[1] = EventCodec.FORMAT_VERSION + 1;
+        assertThatThrownBy(() -> EventCodec.decode(newerVersion))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("version");
+    }
+
+    @Test
+    void fieldsAnOlderWriterDidNotSendDecodeAsDefaults() {
+        UUID userId = UUID.randomUUID();
+        UserEvent withoutAppended = new UserEvent(UserEvent.CREATED, userId, "ada@example.test", "Ada", "Lovelace", false, null);
+        // a writer whose schema ended after lastName: cut the active byte and the timestamp's absent marker
+        int olderLength = EventCodec.encode(withoutAppended).length - 2;
+        byte[] user = EventCodec.encode(new UserEvent(UserEvent.CREATED, userId, "ada@example.test", "Ada", "Lovelace", true,
+                OCCURRED_AT));
+        assertThat(EventCodec.decode(Arrays.copyOf(user, olderLength))).isEqualTo(withoutAppended);
+
+        UUID invitationId = UUID.randomUUID();
+        UUID organizationId = UUID.randomUUID();
+        InvitationEvent invitation = new InvitationEvent(InvitationEvent.INVITED, invitationId, organizationId,
+                "grace@example.test", "TEAM_MEMBER", "PENDING", null, null, null);
+        // nothing after status: invitedBy, expiresAt and occurredAt are each one absent-marker byte
+        byte[] full = EventCodec.encode(invitation);
+        assertThat(EventCodec.decode(Arrays.copyOf(full, full.length - 3))).isEqualTo(invitation);
+    }
+
+    @Test
+    void trailingFieldsOfANewerWriterAreIgnored() {
+        UserRoleEvent event = new UserRoleEvent(UserRoleEvent.ASSIGNED, UUID.randomUUID(), UUID.randomUUID(), "ORG_ADMIN",
+                OCCURRED_AT);
+        byte[] encoded = EventCodec.encode(event);
+        byte[] newer = Arrays.copyOf(encoded, encoded.length + 3);
+        newer[encoded.length] = 3;
+        newer[encoded.length + 1] = 'x';
+        newer[encoded.length + 2] = 'y';
+
+        assertThat(EventCodec.decode(newer)).isEqualTo(event);
+    }
+}
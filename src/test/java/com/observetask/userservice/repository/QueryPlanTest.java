@@ -0,0 +1,250 @@
+package com.observetask.userservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.support.JpaSliceTest;
+
+/**
+ * Every @Query in the repositories must be served by an index
+ *
+ * The tables are seeded with a few thousand rows of realistic shape and
+ * analyzed, so plans are costed like production rather than for empty tables.
+ * Each query method is called once with placeholder arguments (rolled back)
+ * to capture the SQL Hibernate sends, which is then prepared and explained as
+ * a generic plan with sequential scans disabled. With seqscan off the planner
+ * still falls back to a Seq Scan when no index applies, so one in the plan is
+ * a missing index. An index scan without an index condition is a full index
+ * walk and only passes on a partial index or below a LIMIT.
+ */
+@JpaSliceTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.observetask.userservice.repository.QueryPlanTest$CapturingInspector")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(UserRepository.class, UserRoleRepository.class,
+            InvitationRepository.class, RefreshTokenRepository.class, BlacklistedTokenRepository.class,
+            OutboxEventRepository.class, OrganizationCountersRepository.class);
+
+    private static final int USERS = 5_000;
+
+    // whole-table listings by design; nothing narrower than the table to read
+    private static final Set<String> FULL_SCANS_ALLOWED = Set.of("UserRepository.findUsersWithoutOrganization");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void everyQueryIsServedByAnIndex() throws Exception {
+        seed();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> problems = new ArrayList<>();
+        int explained = 0;
+        for (Class<?> repositoryType : REPOSITORIES) {
+            Object repository = applicationContext.getBean(repositoryType);
+            for (Method method : repositoryType.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(Query.class)) {
+                    continue;
+                }
+                String name = repositoryType.getSimpleName() + "." + method.getName();
+                for (String sql : capture(transactionTemplate, repository, method)) {
+                    JsonNode plan = explain(transactionTemplate, sql);
+                    if (!FULL_SCANS_ALLOWED.contains(name)) {
+                        collectProblems(plan.get("Plan"), false, name, problems);
+                    }
+                    explained++;
+                }
+            }
+        }
+        assertThat(explained).isGreaterThanOrEqualTo(40);
+        assertThat(problems).isEmpty();
+    }
+
+    private void seed() {
+        // 100 organizations of 50 members; a tenth of the users inactive, a tenth of the invitations pending
+        String run = "plan-" + UUID.randomUUID();
+        String organization = "md5(? || (n % 100))::uuid";
+        jdbcTemplate.update("INSERT INTO observetask_users.users (email, first_name, last_name, password_hash, auth_provider, " +
+                "external_id, email_verified, is_active) " +
+                "SELECT ? || '-' || n || '@example' || (n % 50) || '.test', 'First' || n, 'Last' || n, " +
+                "CASE WHEN n % 20 = 0 THEN NULL ELSE 'hash' END, CASE WHEN n % 5 = 0 THEN 'GOOGLE' ELSE 'LOCAL' END, " +
+                "CASE WHEN n % 5 = 0 THEN ? || '-' || n END, n % 7 <> 0, n % 10 <> 0 FROM generate_series(1, ?) n",
+                run, run, USERS);
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) " +
+                "SELECT u.id, " + organization + ", (ARRAY['SUPER_ADMIN', 'ORG_ADMIN', 'TEAM_ADMIN', 'TEAM_MEMBER'])[1 + n % 4] " +
+                "FROM (SELECT id, row_number() OVER () AS n FROM observetask_users.users WHERE email LIKE ? || '-%') u",
+                run, run);
+        jdbcTemplate.update("INSERT INTO observetask_users.invitations (email, organization_id, role, token_digest, status, invited_by, expires_at) " +
+                "SELECT ? || '-invitee-' || n || '@example.test', " + organization + ", 'TEAM_MEMBER', " +
+                "sha256(convert_to(gen_random_uuid()::text, 'UTF8')), " +
+                "CASE WHEN n % 10 = 0 THEN 'PENDING' WHEN n % 10 < 5 THEN 'ACCEPTED' ELSE 'EXPIRED' END, gen_random_uuid(), " +
+                "now() + (n % 14 - 7) * interval '1 day' FROM generate_series(1, ?) n",
+                run, run, USERS);
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at) " +
+                "SELECT id, md5(random()::text), gen_random_uuid(), now() + interval '1 hour' " +
+                "FROM observetask_users.users WHERE email LIKE ? || '-%'", run);
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_blacklist (token_jti, expires_at) " +
+                "SELECT gen_random_uuid()::text, now() + (n % 5 + 1) * interval '1 hour' FROM generate_series(1, ?) n", USERS);
+        for (String table : List.of("users", "user_roles", "invitations", "jwt_refresh_tokens", "jwt_blacklist", "outbox_events",
+                "organization_counters")) {
+            jdbcTemplate.execute("ANALYZE observetask_users." + table);
+        }
+    }
+
+    private List<String> capture(TransactionTemplate transactionTemplate, Object repository, Method method) {
+        Object[] arguments = new Object[method.getParameterCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = placeholder(method.getParameterTypes()[i], method.getGenericParameterTypes()[i]);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            CapturingInspector.STATEMENTS.clear();
+            try {
+                method.invoke(repository, arguments);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Calling " + method + " failed", e);
+            }
+            status.setRollbackOnly();
+        });
+        List<String> statements = new ArrayList<>(CapturingInspector.STATEMENTS);
+        assertThat(statements).as("SQL of %s", method).isNotEmpty();
+        return statements;
+    }
+
+    private JsonNode explain(TransactionTemplate transactionTemplate, String sql) {
+        StringBuilder prepared = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameters);
+            } else {
+                prepared.append(c);
+            }
+        }
+        String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+        String json = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            // a generic plan does not depend on the (NULL) argument values
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+            jdbcTemplate.execute("PREPARE query_plan_test AS " + prepared);
+            try {
+                return jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) EXECUTE query_plan_test" + arguments, String.class);
+            } finally {
+                jdbcTemplate.execute("DEALLOCATE query_plan_test");
+            }
+        });
+        try {
+            return objectMapper.readTree(json).get(0);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan for " + sql, e);
+        }
+    }
+
+    private void collectProblems(JsonNode node, boolean limited, String query, List<String> problems) {
+        String type = node.get("Node Type").asText();
+        boolean belowLimit = limited || "Limit".equals(type);
+        if ("Seq Scan".equals(type)) {
+            problems.add(query + ": Seq Scan on " + node.get("Relation Name").asText());
+        } else if (("Index Scan".equals(type) || "Index Only Scan".equals(type))
+                && !node.has("Index Cond") && !belowLimit && !isPartial(node.get("Index Name").asText())) {
+            problems.add(query + ": full walk of " + node.get("Index Name").asText());
+        }
+        if (node.has("Plans")) {
+            for (JsonNode child : node.get("Plans")) {
+                collectProblems(child, belowLimit, query, problems);
+            }
+        }
+    }
+
+    private boolean isPartial(String indexName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT bool_or(i.indpred IS NOT NULL) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = 'observetask_users' AND c.relname = ?",
+                Boolean.class, indexName));
+    }
+
+    private static Object placeholder(Class<?> type, Type genericType) {
+        if (type == UUID.class) {
+            return UUID.randomUUID();
+        }
+        if (type == String.class) {
+            return "placeholder";
+        }
+        if (type == String[].class) {
+            return new String[] {"placeholder"};
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == int.class || type == Integer.class) {
+            return 10;
+        }
+        if (type == long.class || type == Long.class) {
+            return 10L;
+        }
+        if (type == Limit.class) {
+            return Limit.of(10);
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 10);
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            Type element = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            return List.of(placeholder((Class<?>) element, element));
+        }
+        throw new IllegalArgumentException("No placeholder for " + genericType);
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.observetask.userservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.dto.MemberPageResponse;
+import com.observetask.userservice.entity.User;
+import com.observetask.userservice.entity.UserRole;
+import com.observetask.userservice.service.MemberDirectoryService;
+import com.observetask.userservice.service.MemberDirectoryService.ExportFormat;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the hot read paths against N+1 regressions by counting the JDBC statements Hibernate prepares
+ */
+@JpaSliceTest
+@Import({MemberDirectoryService.class, ObjectMapper.class})
+class StatementCountTest {
+
+    private static final int MEMBERS = 2_500;
+    private static final int MEMBERSHIPS_PER_LOGIN_USER = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MemberDirectoryService memberDirectoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UUID organizationId;
+    private String loginEmail;
+
+    @BeforeEach
+    void setUp() {
+        organizationId = UUID.randomUUID();
+        loginEmail = "login-" + organizationId + "@example.test";
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) " +
+                "SELECT gen_random_uuid(), 'member-' || g || '-' || ? || '@example.test', 'First' || g, 'Last' || g " +
+                "FROM generate_series(1, ?) g", organizationId.toString(), MEMBERS);
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role, created_at) " +
+                "SELECT id, ?, 'TEAM_MEMBER', timestamp '2024-01-01' + (row_number() OVER (ORDER BY id) / 3) * interval '1 second' " +
+                "FROM observetask_users.users WHERE email LIKE ?", organizationId, "member-%-" + organizationId + "@example.test");
+
+        UUID loginUserId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Login', 'User')",
+                loginUserId, loginEmail);
+        for (int i = 0; i < MEMBERSHIPS_PER_LOGIN_USER; i++) {
+            jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, 'TEAM_MEMBER')",
+                    loginUserId, i == 0 ? organizationId : UUID.randomUUID());
+        }
+
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void loginLoadsUserAndMembershipsInOneStatement() {
+        User user = userRepository.findWithRolesByEmail(loginEmail).orElseThrow();
+
+        assertThat(user.getRoles()).hasSize(MEMBERSHIPS_PER_LOGIN_USER);
+        assertThat(user.getRoles()).extracting(UserRole::getOrganizationId).contains(organizationId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void memberPagesCostOneStatementEach() {
+        MemberPageResponse first = memberDirectoryService.listMembers(organizationId, null, 200);
+        MemberPageResponse second = memberDirectoryService.listMembers(organizationId, first.nextCursor(), 200);
+
+        assertThat(first.members()).hasSize(200);
+        assertThat(second.members()).hasSize(200);
+        assertThat(second.members().get(0).id()).isNotEqualTo(first.members().get(199).id());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void exportCostsOneStatementPerChunk() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberDirectoryService.export(organizationId, ExportFormat.NDJSON, out);
+
+        long rows = out.toString(StandardCharsets.UTF_8).lines().count();
+        assertThat(rows).isEqualTo(MEMBERS + 1);
+        // 2,501 members in chunks of 1,000
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+}
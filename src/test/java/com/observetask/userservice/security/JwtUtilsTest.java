@@ -0,0 +1,191 @@
+package com.observetask.userservice.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.dto.TokenValidationResult;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Local validation of access tokens, with Redis down so revocations are settled by jwt_blacklist
+ */
+@JpaSliceTest
+@Import({JwtUtils.class, TokenRevocationService.class, SimpleMeterRegistry.class, JwtUtilsTest.Keys.class})
+@TestPropertySource(properties = {"jwt.access-token-expiration=900000", "jwt.refresh-token-expiration=604800000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JwtUtilsTest {
+
+    @TestConfiguration
+    static class Keys {
+
+        @Bean
+        JwtKeyStore jwtKeyStore() {
+            return new InMemoryJwtKeyStore(SigningAlgorithm.RS256, Duration.ofDays(1), Duration.ofMinutes(20), Clock.systemUTC());
+        }
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", 1);
+            connectionFactory.afterPropertiesSet();
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        // Registers listeners but never connects
+        @Bean
+        RedisMessageListenerContainer redisMessageListenerContainer() {
+            return new RedisMessageListenerContainer() {
+                @Override
+                public void afterPropertiesSet() {
+                }
+
+                @Override
+                public void start() {
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JwtKeyStore keyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @Test
+    void issuedTokensValidateWithTheirClaims() {
+        UserPrincipal principal = principal();
+        String token = jwtUtils.generateAccessToken(principal);
+
+        TokenValidationResult result = jwtUtils.validateToken(token);
+
+        assertThat(result.valid()).isTrue();
+        assertThat(result.userId()).isEqualTo(principal.getUserId().toString());
+        assertThat(result.organizationId()).isEqualTo(principal.getOrganizationId().toString());
+        assertThat(result.email()).isEqualTo(principal.getEmail());
+        assertThat(jwtUtils.getPrincipal(token)).hasValueSatisfying(resolved -> {
+            assertThat(resolved.getUserId()).isEqualTo(principal.getUserId());
+            assertThat(resolved.getFirstName()).isEqualTo("Ada");
+        });
+    }
+
+    @Test
+    void aTamperedSignatureOrPayloadIsRejected() {
+        String token = jwtUtils.generateAccessToken(principal());
+        int signatureStart = token.lastIndexOf('.') + 1;
+        int flipped = signatureStart + 10;
+        String badSignature = token.substring(0, flipped) + (token.charAt(flipped) == 'A' ? 'B' : 'A') + token.substring(flipped + 1);
+
+        // someone else's claims under this token's signature
+        String other = jwtUtils.generateAccessToken(principal());
+        String swappedPayload = other.substring(0, other.lastIndexOf('.') + 1) + token.substring(signatureStart);
+
+        assertRejected(badSignature, "Invalid token signature");
+        assertRejected(swappedPayload, "Invalid token signature");
+    }
+
+    @Test
+    void aKeyOutsideTheStoreIsRejected() {
+        JwtSigningKey foreign = JwtSigningKey.generate(SigningAlgorithm.RS256, Instant.now());
+
+        assertRejected(sign(foreign, foreign.keyId(), "observetask", Instant.now().plusSeconds(600)), "Unknown token signing key");
+        // a known kid does not help a token signed by another key
+        assertRejected(sign(foreign, keyStore.activeKey().keyId(), "observetask", Instant.now().plusSeconds(600)),
+                "Invalid token signature");
+    }
+
+    @Test
+    void anAlgorithmOtherThanTheKeysIsRejected() {
+        // an EdDSA signature presented under the kid of an RS256 key
+        JwtSigningKey edwards = JwtSigningKey.generate(SigningAlgorithm.EDDSA, Instant.now());
+        assertRejected(sign(edwards, keyStore.activeKey().keyId(), "observetask", Instant.now().plusSeconds(600)),
+                "Unsupported token algorithm");
+
+        // alg none, unsigned
+        String token = jwtUtils.generateAccessToken(principal());
+        String unsigned = "eyJhbGciOiJub25lIn0" + token.substring(token.indexOf('.'), token.lastIndexOf('.') + 1);
+        assertRejected(unsigned, "Malformed token");
+        assertRejected("eyJhbGciOiJub25lIn0" + token.substring(token.indexOf('.')), "Unsupported token algorithm");
+    }
+
+    @Test
+    void anExpiredTokenIsRejected() {
+        assertRejected(sign(keyStore.activeKey(), keyStore.activeKey().keyId(), "observetask", Instant.now().minusSeconds(1)),
+                "Token has expired");
+    }
+
+    @Test
+    void aTokenOfAnotherIssuerIsRejected() {
+        assertRejected(sign(keyStore.activeKey(), keyStore.activeKey().keyId(), "someone-else", Instant.now().plusSeconds(600)),
+                "Invalid token issuer");
+    }
+
+    @Test
+    void aCachedTokenIsRejectedOnceRevoked() {
+        String token = jwtUtils.generateAccessToken(principal());
+        // validated once, so the next validations are served from the verified-token cache
+        assertThat(jwtUtils.validateToken(token).valid()).isTrue();
+        assertThat(jwtUtils.validateToken(token).valid()).isTrue();
+        double settledByDatabase = meterRegistry.counter("jwt.revocation.lookups", "result", "database").count();
+
+        assertThat(jwtUtils.revokeToken(token)).isTrue();
+
+        assertRejected(token, "Token has been revoked");
+        assertThat(jwtUtils.getPrincipal(token)).isEmpty();
+        // Redis is down: the filter hit was confirmed against jwt_blacklist
+        assertThat(meterRegistry.counter("jwt.revocation.lookups", "result", "database").count())
+                .isGreaterThan(settledByDatabase);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.jwt_blacklist WHERE expires_at > now()",
+                Long.class)).isPositive();
+        assertThat(jwtUtils.revokeToken(token)).isFalse();
+    }
+
+    private void assertRejected(String token, String message) {
+        TokenValidationResult result = jwtUtils.validateToken(token);
+        assertThat(result.valid()).isFalse();
+        assertThat(result.errorMessage()).isEqualTo(message);
+    }
+
+    private static String sign(JwtSigningKey key, String keyId, String issuer, Instant expiresAt) {
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .id(UUID.randomUUID().toString())
+                .issuer(issuer)
+                .subject(UUID.randomUUID().toString())
+                .issuedAt(Date.from(expiresAt.minusSeconds(900)))
+                .expiration(Date.from(expiresAt))
+                .signWith(key.privateKey(), key.algorithm().getJwsAlgorithm())
+                .compact();
+    }
+
+    private static UserPrincipal principal() {
+        return UserPrincipal.builder().userId(UUID.randomUUID()).organizationId(UUID.randomUUID()).role("TEAM_MEMBER")
+                .email("ada@example.test").firstName("Ada").lastName("Lovelace").isActive(true).build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.observetask.userservice.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.observetask.userservice.exception.LoginRateLimitedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Local buckets only (Redis disabled); the cluster-wide script applies the same GCRA arithmetic
+ */
+class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LettuceConnectionFactory unreachable;
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Registers listeners but never connects
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer() {
+            @Override
+            public void afterPropertiesSet() {
+            }
+
+            @Override
+            public void start() {
+            }
+        };
+        unreachable = new LettuceConnectionFactory("localhost", 1);
+        unreachable.afterPropertiesSet();
+        limiter = new LoginRateLimiter(new StringRedisTemplate(unreachable), listenerContainer, meterRegistry, false,
+                3, Duration.ofMinutes(15), 5, Duration.ofMinutes(1), 1_000, Duration.ofMinutes(1),
+                1_000, Duration.ofMinutes(10), 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        unreachable.destroy();
+    }
+
+    @Test
+    void emailBucketEmptiesRegardlessOfCaseAndAddress() {
+        limiter.acquire("Victim@Example.test", "10.0.0.1", null);
+        limiter.acquire("victim@example.test", "10.0.0.2", null);
+        limiter.acquire(" victim@example.test", "10.0.0.3", null);
+
+        assertThatThrownBy(() -> limiter.acquire("victim@example.test", "10.0.0.4", null))
+                .isInstanceOf(LoginRateLimitedException.class)
+                .satisfies(e -> assertThat(((LoginRateLimitedException) e).getRetryAfter()).isPositive()
+                        .isLessThanOrEqualTo(Duration.ofMinutes(5)));
+        limiter.acquire("someone-else@example.test", "10.0.0.4", null);
+        assertThat(meterRegistry.counter("auth.login.rate_limited", "reason", "email").count()).isEqualTo(1);
+    }
+
+    @Test
+    void addressBucketStopsASprayAcrossEmails() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("user" + i + "@example.test", "203.0.113.9", null);
+        }
+        assertThatThrownBy(() -> limiter.acquire("user5@example.test", "203.0.113.9", null))
+                .isInstanceOf(LoginRateLimitedException.class);
+        assertThat(meterRegistry.counter("auth.login.rate_limited", "reason", "ip").count()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketRefillsOneTokenPerInterval() {
+        LoginRateLimiter.Bucket bucket = new LoginRateLimiter.Bucket("email:x", new LoginRateLimiter.Limit("email", 2, Duration.ofSeconds(10)));
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(5_000);
+        assertThat(bucket.tryAcquire(5_000)).isZero();
+
+        bucket.holdUntil(60_000);
+        assertThat(bucket.tryAcquire(59_000)).isEqualTo(1_000);
+        assertThat(bucket.tryAcquire(60_000)).isZero();
+    }
+
+    @Test
+    void unknownEmailIsForgottenOnceRegistered() {
+        assertThat(limiter.isUnknownEmail("new@example.test")).isFalse();
+        limiter.recordUnknownEmail("New@Example.test");
+        assertThat(limiter.isUnknownEmail("new@example.test")).isTrue();
+
+        limiter.onRegistered(new RegisteredEmailEvent("new@example.test"));
+
+        assertThat(limiter.isUnknownEmail("new@example.test")).isFalse();
+    }
+}
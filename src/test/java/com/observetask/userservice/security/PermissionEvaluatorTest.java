@@ -0,0 +1,132 @@
+package com.observetask.userservice.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.cache.PrincipalInvalidationEvent;
+import com.observetask.userservice.dto.PermissionCheckRequest.Check;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JpaSliceTest
+@Import({PermissionEvaluator.class, SimpleMeterRegistry.class, PermissionEvaluatorTest.Listeners.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PermissionEvaluatorTest {
+
+    @TestConfiguration
+    static class Listeners {
+
+        // Registers listeners but never connects; invalidation broadcasts are not part of this test
+        @Bean
+        RedisMessageListenerContainer redisMessageListenerContainer() {
+            return new RedisMessageListenerContainer() {
+                @Override
+                public void afterPropertiesSet() {
+                }
+
+                @Override
+                public void start() {
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private PermissionEvaluator permissionEvaluator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID organizationId;
+    private UUID orgAdmin;
+    private UUID teamAdmin;
+    private UUID superAdmin;
+
+    @BeforeEach
+    void setUp() {
+        organizationId = UUID.randomUUID();
+        orgAdmin = member(organizationId, Role.ORG_ADMIN);
+        teamAdmin = member(organizationId, Role.TEAM_ADMIN);
+        superAdmin = member(UUID.randomUUID(), Role.SUPER_ADMIN);
+    }
+
+    @Test
+    void roleMasksFollowTheRoleHierarchy() {
+        assertThat(Role.ORG_ADMIN.canAssignRole(Role.SUPER_ADMIN)).isFalse();
+        assertThat(Role.ORG_ADMIN.canAssignRole(Role.ORG_ADMIN)).isTrue();
+        assertThat(Role.TEAM_ADMIN.canAssignRole(Role.TEAM_MEMBER)).isTrue();
+        assertThat(Role.TEAM_ADMIN.canAssignRole(Role.TEAM_ADMIN)).isFalse();
+        assertThat(Role.TEAM_MEMBER.canAssignRole(Role.TEAM_MEMBER)).isFalse();
+        for (Role role : Role.values()) {
+            assertThat(Role.SUPER_ADMIN.canAssignRole(role)).isTrue();
+        }
+        assertThat(Permission.maskOf(Role.TEAM_MEMBER)).isEqualTo(Permission.READ_ORGANIZATION.bit());
+        assertThat(Permission.maskOf(Role.TEAM_ADMIN) & Permission.MANAGE_ORGANIZATION.bit()).isZero();
+    }
+
+    @Test
+    void batchAnswersEveryCheckInOrder() {
+        UUID otherOrganization = UUID.randomUUID();
+        boolean[] allowed = permissionEvaluator.evaluate(List.of(
+                new Check(orgAdmin, organizationId, Permission.ASSIGN_ORG_ADMIN),
+                new Check(orgAdmin, organizationId, Permission.ASSIGN_SUPER_ADMIN),
+                new Check(orgAdmin, otherOrganization, Permission.READ_ORGANIZATION),
+                new Check(teamAdmin, organizationId, Permission.MANAGE_TEAMS),
+                new Check(teamAdmin, organizationId, Permission.ASSIGN_TEAM_ADMIN),
+                new Check(superAdmin, otherOrganization, Permission.MANAGE_ORGANIZATION),
+                new Check(UUID.randomUUID(), organizationId, Permission.READ_ORGANIZATION)));
+
+        assertThat(allowed).containsExactly(true, false, false, true, false, true, false);
+    }
+
+    @Test
+    void callersOnlyLearnAboutMembersOfTheOrganization() {
+        UUID teamMember = member(organizationId, Role.TEAM_MEMBER);
+        boolean[] allowed = permissionEvaluator.evaluateFor(teamMember, List.of(
+                new Check(orgAdmin, organizationId, Permission.MANAGE_ORGANIZATION),
+                // a SUPER_ADMIN elsewhere may act here, but that is not disclosed to this organization
+                new Check(superAdmin, organizationId, Permission.READ_ORGANIZATION),
+                new Check(UUID.randomUUID(), organizationId, Permission.READ_ORGANIZATION),
+                new Check(teamMember, organizationId, Permission.READ_ORGANIZATION)));
+
+        assertThat(allowed).containsExactly(true, false, false, true);
+        // the caller's own global role is answered
+        assertThat(permissionEvaluator.evaluateFor(superAdmin, List.of(new Check(superAdmin, organizationId, Permission.READ_ORGANIZATION))))
+                .containsExactly(true);
+    }
+
+    @Test
+    void membershipChangeIsSeenAfterInvalidation() {
+        assertThat(permissionEvaluator.canAssignRole(teamAdmin, organizationId, Role.TEAM_ADMIN)).isFalse();
+        jdbcTemplate.update("UPDATE observetask_users.user_roles SET role = 'ORG_ADMIN' WHERE user_id = ?", teamAdmin);
+        assertThat(permissionEvaluator.canAssignRole(teamAdmin, organizationId, Role.TEAM_ADMIN)).isFalse();
+
+        permissionEvaluator.onInvalidation(PrincipalInvalidationEvent.membership(teamAdmin, organizationId));
+
+        assertThat(permissionEvaluator.canAssignRole(teamAdmin, organizationId, Role.TEAM_ADMIN)).isTrue();
+    }
+
+    private UUID member(UUID organization, Role role) {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Perm', 'User')",
+                userId, "perm-" + userId + "@example.test");
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, ?)",
+                userId, organization, role.name());
+        return userId;
+    }
+}
@@ -0,0 +1,63 @@
+package com.observetask.userservice.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class RevokedJtiFilterTest {
+
+    private static final long NOW = 1_800_000_000_000L;
+    private static final long MINUTE = 60_000L;
+
+    private final RevokedJtiFilter filter = new RevokedJtiFilter(Duration.ofMinutes(5), 1_000, 0.01);
+
+    @Test
+    void everyRevokedIdIsFoundAndFewOthersAre() {
+        String[] revoked = new String[1_000];
+        for (int i = 0; i < revoked.length; i++) {
+            revoked[i] = UUID.randomUUID().toString();
+            filter.add(revoked[i], NOW + 15 * MINUTE, NOW);
+        }
+
+        for (String jti : revoked) {
+            assertThat(filter.mightContain(jti, NOW)).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString(), NOW)) {
+                falsePositives++;
+            }
+        }
+        // configured for 1% at the expected bucket size
+        assertThat(falsePositives).isLessThan(20_000 * 3 / 100);
+        assertThat(filter.entryCount()).isEqualTo(1_000);
+    }
+
+    @Test
+    void bucketsAreDroppedOnceTheirTokensHaveExpired() {
+        String soon = UUID.randomUUID().toString();
+        String later = UUID.randomUUID().toString();
+        filter.add(soon, NOW + MINUTE, NOW);
+        filter.add(later, NOW + 30 * MINUTE, NOW);
+        assertThat(filter.bucketCount()).isEqualTo(2);
+
+        long afterSoon = NOW + 10 * MINUTE;
+        assertThat(filter.mightContain(soon, afterSoon)).isFalse();
+        assertThat(filter.mightContain(later, afterSoon)).isTrue();
+        assertThat(filter.expire(afterSoon)).isEqualTo(1);
+        assertThat(filter.bucketCount()).isEqualTo(1);
+        assertThat(filter.mightContain(later, afterSoon)).isTrue();
+    }
+
+    @Test
+    void anAlreadyExpiredTokenIsNotAdded() {
+        String jti = UUID.randomUUID().toString();
+        filter.add(jti, NOW - 1, NOW);
+
+        assertThat(filter.bucketCount()).isZero();
+        assertThat(filter.mightContain(jti, NOW)).isFalse();
+    }
+}
@@ -0,0 +1,190 @@
+package com.observetask.userservice.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.dto.SessionInfo;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import redis.embedded.RedisServer;
+
+/**
+ * The registry's Lua scripts against a real redis-server, with jwt_refresh_tokens as the source of truth
+ */
+@JpaSliceTest
+@Import({SessionRegistry.class, SimpleMeterRegistry.class, SessionRegistryRedisTest.EmbeddedRedis.class})
+@TestPropertySource(properties = {"sessions.max-per-user=2", "sessions.reconcile-interval=PT10M"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SessionRegistryRedisTest {
+
+    @TestConfiguration
+    static class EmbeddedRedis {
+
+        @Bean(destroyMethod = "stop")
+        RedisServer redisServer() throws IOException {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            RedisServer server = RedisServer.newRedisServer().bind("127.0.0.1").port(port).setting("save \"\"").build();
+            server.start();
+            return server;
+        }
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate(RedisServer redisServer) {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("127.0.0.1", redisServer.ports().get(0));
+            connectionFactory.afterPropertiesSet();
+            return new StringRedisTemplate(connectionFactory);
+        }
+    }
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Session', 'User')",
+                userId, "sessions-" + userId + "@example.test");
+    }
+
+    @Test
+    void loginsBeyondTheCapEvictTheSessionsClosestToExpiry() {
+        UUID longest = login(Duration.ofHours(3), "10.0.0.3", "laptop");
+        UUID shortest = login(Duration.ofHours(1), "10.0.0.1", "phone");
+        assertThat(register(longest, Duration.ofHours(3), "10.0.0.3", "laptop")).isZero();
+        assertThat(register(shortest, Duration.ofHours(1), "10.0.0.1", "phone")).isZero();
+
+        UUID middle = login(Duration.ofHours(2), "10.0.0.2", "tablet");
+        assertThat(register(middle, Duration.ofHours(2), "10.0.0.2", "tablet")).isEqualTo(1);
+
+        // the evicted family is gone from Postgres and from both keys
+        assertThat(families()).containsExactlyInAnyOrder(middle, longest);
+        assertThat(redis.opsForHash().hasKey(SessionRegistry.KEY_PREFIX + userId + ":info", shortest.toString())).isFalse();
+        List<SessionInfo> sessions = sessionRegistry.list(userId);
+        assertThat(sessions).extracting(SessionInfo::id).containsExactly(middle.toString(), longest.toString());
+        assertThat(sessions.get(0).ipAddress()).isEqualTo("10.0.0.2");
+        assertThat(sessions.get(0).deviceInfo()).isEqualTo("tablet");
+        assertThat(sessions.get(0).startedAt()).isNotNull();
+
+        // the next login evicts the session now closest to expiry
+        UUID newest = login(Duration.ofHours(4), null, null);
+        assertThat(register(newest, Duration.ofHours(4), null, null)).isEqualTo(1);
+        assertThat(sessionRegistry.list(userId)).extracting(SessionInfo::id).containsExactly(longest.toString(), newest.toString());
+        assertThat(meterRegistry.counter("sessions.evicted").count()).isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.counter("sessions.redis.fallback").count()).isZero();
+    }
+
+    @Test
+    void aMissingSetIsRebuiltFromPostgres() {
+        // sessions this pod never registered, e.g. after a Redis flush
+        UUID first = login(Duration.ofHours(1), "10.0.0.1", "phone");
+        UUID second = login(Duration.ofHours(2), "10.0.0.2", "laptop");
+        assertThat(redis.hasKey(SessionRegistry.KEY_PREFIX + userId)).isFalse();
+
+        List<SessionInfo> sessions = sessionRegistry.list(userId);
+
+        assertThat(sessions).extracting(SessionInfo::id).containsExactly(first.toString(), second.toString());
+        assertThat(sessions.get(1).deviceInfo()).isEqualTo("laptop");
+        // rebuilt keys expire after reconcile-interval, so drift is corrected at least that often
+        assertThat(redis.getExpire(SessionRegistry.KEY_PREFIX + userId)).isBetween(1L, 600L);
+        assertThat(redis.getExpire(SessionRegistry.KEY_PREFIX + userId + ":info")).isBetween(1L, 600L);
+        assertThat(sessionRegistry.list(userId)).extracting(SessionInfo::id).containsExactly(first.toString(), second.toString());
+
+        // register on a missing set rebuilds it first, so the cap counts the sessions Postgres already holds
+        redis.delete(List.of(SessionRegistry.KEY_PREFIX + userId, SessionRegistry.KEY_PREFIX + userId + ":info"));
+        UUID third = login(Duration.ofHours(3), null, null);
+        assertThat(register(third, Duration.ofHours(3), null, null)).isEqualTo(1);
+        assertThat(families()).containsExactlyInAnyOrder(second, third);
+    }
+
+    @Test
+    void aUserWithoutSessionsIsNotRebuiltOnEveryRead() {
+        assertThat(sessionRegistry.list(userId)).isEmpty();
+        // the sentinel keeps the empty set present
+        assertThat(redis.opsForZSet().size(SessionRegistry.KEY_PREFIX + userId)).isEqualTo(1);
+
+        UUID session = login(Duration.ofHours(1), null, null);
+        // written behind the registry's back: not visible until registered or reconciled
+        assertThat(sessionRegistry.list(userId)).isEmpty();
+        assertThat(register(session, Duration.ofHours(1), null, null)).isZero();
+        assertThat(sessionRegistry.list(userId)).extracting(SessionInfo::id).containsExactly(session.toString());
+    }
+
+    @Test
+    void listReflectsRefreshedAndEndedSessions() {
+        UUID refreshed = login(Duration.ofHours(1), null, "phone");
+        UUID other = login(Duration.ofHours(2), null, "laptop");
+        register(refreshed, Duration.ofHours(1), null, "phone");
+        register(other, Duration.ofHours(2), null, "laptop");
+
+        Instant refreshedUntil = Instant.now().plus(Duration.ofHours(5)).truncatedTo(ChronoUnit.MILLIS);
+        sessionRegistry.touch(userId, refreshed, refreshedUntil);
+
+        List<SessionInfo> sessions = sessionRegistry.list(userId);
+        assertThat(sessions).extracting(SessionInfo::id).containsExactly(other.toString(), refreshed.toString());
+        assertThat(sessions.get(1).expiresAt()).isEqualTo(refreshedUntil);
+        assertThat(sessions.get(1).deviceInfo()).isEqualTo("phone");
+
+        // touching a family the set does not hold does not add it
+        sessionRegistry.touch(userId, UUID.randomUUID(), refreshedUntil);
+        assertThat(sessionRegistry.list(userId)).hasSize(2);
+
+        // an expired member is no longer listed
+        redis.opsForZSet().add(SessionRegistry.KEY_PREFIX + userId, other.toString(), Instant.now().minusSeconds(1).toEpochMilli());
+        assertThat(sessionRegistry.list(userId)).extracting(SessionInfo::id).containsExactly(refreshed.toString());
+
+        assertThat(sessionRegistry.revoke(userId, refreshed)).isTrue();
+        assertThat(sessionRegistry.list(userId)).isEmpty();
+    }
+
+    private int register(UUID familyId, Duration lifetime, String ipAddress, String deviceInfo) {
+        return sessionRegistry.register(userId, familyId, Instant.now().plus(lifetime), null, ipAddress, deviceInfo);
+    }
+
+    private UUID login(Duration lifetime, String ipAddress, String deviceInfo) {
+        UUID familyId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at, ip_address, device_info) " +
+                "VALUES (?, ?, ?, now() + ? * interval '1 second', ?, ?)",
+                userId, UUID.randomUUID().toString(), familyId, lifetime.toSeconds(), ipAddress, deviceInfo);
+        return familyId;
+    }
+
+    private List<UUID> families() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT family_id FROM observetask_users.jwt_refresh_tokens WHERE user_id = ?",
+                UUID.class, userId);
+    }
+}
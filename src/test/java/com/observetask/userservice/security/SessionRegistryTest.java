@@ -0,0 +1,96 @@
+package com.observetask.userservice.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.dto.SessionInfo;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The Postgres side of the registry: the cap still holds and sessions can be listed and revoked while Redis is down
+ */
+@JpaSliceTest
+@Import({SessionRegistry.class, SimpleMeterRegistry.class, SessionRegistryTest.UnreachableRedis.class})
+@TestPropertySource(properties = "sessions.max-per-user=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SessionRegistryTest {
+
+    @TestConfiguration
+    static class UnreachableRedis {
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", 1);
+            connectionFactory.afterPropertiesSet();
+            return new StringRedisTemplate(connectionFactory);
+        }
+    }
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Session', 'User')",
+                userId, "sessions-" + userId + "@example.test");
+    }
+
+    @Test
+    void loginBeyondTheCapEndsTheSessionsClosestToExpiry() {
+        UUID oldest = login(Duration.ofHours(1));
+        UUID rotated = login(Duration.ofHours(2));
+        // a refreshed family keeps its consumed tokens; they must not count as sessions
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at, used_at) " +
+                "VALUES (?, ?, ?, now() + interval '30 minutes', now())", userId, UUID.randomUUID().toString(), rotated);
+        UUID newest = login(Duration.ofHours(3));
+
+        assertThat(sessionRegistry.register(userId, newest, Instant.now().plus(Duration.ofHours(3)), null, null, null)).isEqualTo(1);
+
+        assertThat(sessionRegistry.list(userId)).extracting(SessionInfo::id)
+                .containsExactly(rotated.toString(), newest.toString());
+    }
+
+    @Test
+    void revokedSessionIsGoneAndCannotBeRevokedByAnotherUser() {
+        UUID session = login(Duration.ofHours(1));
+
+        assertThat(sessionRegistry.revoke(UUID.randomUUID(), session)).isFalse();
+        assertThat(sessionRegistry.revoke(userId, session)).isTrue();
+
+        List<SessionInfo> sessions = sessionRegistry.list(userId);
+        assertThat(sessions).isEmpty();
+    }
+
+    private UUID login(Duration lifetime) {
+        UUID familyId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at, device_info) " +
+                "VALUES (?, ?, ?, now() + ? * interval '1 second', 'test')",
+                userId, UUID.randomUUID().toString(), familyId, lifetime.toSeconds());
+        return familyId;
+    }
+}
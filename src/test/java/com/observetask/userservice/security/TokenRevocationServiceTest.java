@@ -0,0 +1,124 @@
+package com.observetask.userservice.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Redis is unreachable throughout: Postgres alone has to keep revocations enforced
+ */
+@JpaSliceTest
+@Import({TokenRevocationService.class, SimpleMeterRegistry.class, TokenRevocationServiceTest.UnreachableRedis.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationServiceTest {
+
+    @TestConfiguration
+    static class UnreachableRedis {
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", 1);
+            connectionFactory.afterPropertiesSet();
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        // Registers listeners but never connects
+        @Bean
+        RedisMessageListenerContainer redisMessageListenerContainer() {
+            return new RedisMessageListenerContainer() {
+                @Override
+                public void afterPropertiesSet() {
+                }
+
+                @Override
+                public void start() {
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @Test
+    void aRevocationIsRecordedAndEnforcedWithoutRedis() {
+        String jti = UUID.randomUUID().toString();
+        double database = lookups("database");
+
+        revocationService.revoke(jti, LocalDateTime.now().plusMinutes(10));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.jwt_blacklist WHERE token_jti = ?",
+                Long.class, jti)).isEqualTo(1);
+        assertThat(revocationService.isRevoked(jti)).isTrue();
+        assertThat(revocationService.isRevoked(jti)).isTrue();
+        assertThat(lookups("database")).isEqualTo(database + 2);
+    }
+
+    @Test
+    void aFilterHitWithoutABlacklistRowIsNotRevoked() {
+        // announced by another pod, but never committed to jwt_blacklist
+        String jti = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + 600_000;
+        revocationService.onMessage(new DefaultMessage(TokenRevocationService.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                (jti + " " + expiresAt).getBytes(StandardCharsets.UTF_8)), null);
+        double database = lookups("database");
+
+        assertThat(revocationService.isRevoked(jti)).isFalse();
+        assertThat(lookups("database")).isEqualTo(database + 1);
+    }
+
+    @Test
+    void idsNeverRevokedAreAnsweredByTheFilterAlone() {
+        double negatives = lookups("filter_negative");
+        double database = lookups("database");
+
+        assertThat(revocationService.isRevoked(UUID.randomUUID().toString())).isFalse();
+        assertThat(revocationService.isRevoked(null)).isFalse();
+
+        assertThat(lookups("filter_negative")).isEqualTo(negatives + 2);
+        assertThat(lookups("database")).isEqualTo(database);
+    }
+
+    @Test
+    void revocationsOfOtherPodsArriveThroughSync() {
+        revocationService.warmUp();
+        // written by another pod whose pub/sub message never arrived
+        String jti = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_blacklist (token_jti, expires_at) VALUES (?, now() + interval '10 minutes')",
+                jti);
+        assertThat(revocationService.isRevoked(jti)).isFalse();
+
+        revocationService.sync();
+
+        assertThat(revocationService.isRevoked(jti)).isTrue();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("jwt.revocation.lookups", "result", result).count();
+    }
+}
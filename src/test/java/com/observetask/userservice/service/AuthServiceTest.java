@@ -0,0 +1,151 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.cache.PrincipalCache;
+import com.observetask.userservice.config.JwtKeyStoreConfig;
+import com.observetask.userservice.config.PasswordEncoderConfig;
+import com.observetask.userservice.dto.LoginRequest;
+import com.observetask.userservice.dto.LoginResponse;
+import com.observetask.userservice.security.JwtUtils;
+import com.observetask.userservice.security.LoginRateLimiter;
+import com.observetask.userservice.security.SessionRegistry;
+import com.observetask.userservice.security.TokenRevocationService;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The login path end to end against the database, with Redis down and local rate limits only
+ */
+@JpaSliceTest
+@Import({AuthService.class, PasswordHashingService.class, PasswordEncoderConfig.class, RefreshTokenRotationService.class,
+        SessionRegistry.class, LoginRateLimiter.class, LoginTimingEqualizer.class, UserActivityTracker.class,
+        PrincipalCache.class, JwtUtils.class, JwtKeyStoreConfig.class, TokenRevocationService.class,
+        SimpleMeterRegistry.class, AuthServiceTest.UnreachableRedis.class})
+@TestPropertySource(properties = {"security.password.bcrypt-strength=5", "jwt.signing.store=memory",
+        "login.rate-limit.redis.enabled=false", "activity.flush-interval=PT1H"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceTest {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @TestConfiguration
+    static class UnreachableRedis {
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", 1);
+            connectionFactory.afterPropertiesSet();
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        // Registers listeners but never connects
+        @Bean
+        RedisMessageListenerContainer redisMessageListenerContainer() {
+            return new RedisMessageListenerContainer() {
+                @Override
+                public void afterPropertiesSet() {
+                }
+
+                @Override
+                public void start() {
+                }
+            };
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    private UUID userId;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        email = "login-" + userId + "@example.test";
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, password_hash, email_verified, first_name, last_name) " +
+                "VALUES (?, ?, ?, true, 'Login', 'User')", userId, email, passwordEncoder.encode(PASSWORD));
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, 'TEAM_MEMBER')",
+                userId, UUID.randomUUID());
+    }
+
+    @Test
+    void emailIsMatchedRegardlessOfCaseAndSurroundingSpace() {
+        LoginResponse response = authService.login(new LoginRequest("  " + email.toUpperCase() + " ", PASSWORD, null),
+                "10.0.0.1", "test");
+
+        assertThat(response.user().email()).isEqualTo(email);
+    }
+
+    @Test
+    void aMixedCaseAttemptDoesNotMarkTheUserUnknown() {
+        assertThatThrownBy(() -> authService.login(new LoginRequest(email.toUpperCase(), "wrong password", null),
+                "10.0.0.1", "test")).isInstanceOf(BadCredentialsException.class);
+
+        assertThat(authService.login(new LoginRequest(email, PASSWORD, null), "10.0.0.1", "test").accessToken()).isNotBlank();
+    }
+
+    @Test
+    void aHashBelowTheConfiguredCostIsReplacedOnLogin() {
+        String weak = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        jdbcTemplate.update("UPDATE observetask_users.users SET password_hash = ? WHERE id = ?", weak, userId);
+
+        authService.login(new LoginRequest(email, PASSWORD, null), "10.0.0.1", "test");
+
+        String stored = jdbcTemplate.queryForObject("SELECT password_hash FROM observetask_users.users WHERE id = ?",
+                String.class, userId);
+        assertThat(stored).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches(PASSWORD, stored)).isTrue();
+        assertThat(authService.login(new LoginRequest(email, PASSWORD, null), "10.0.0.1", "test").accessToken()).isNotBlank();
+    }
+
+    @Test
+    void anUnknownEmailIsRememberedUnderItsNormalizedForm() {
+        String unknown = "nobody-" + UUID.randomUUID() + "@example.test";
+        assertThatThrownBy(() -> authService.login(new LoginRequest(" " + unknown.toUpperCase(), PASSWORD, null),
+                "10.0.0.1", "test")).isInstanceOf(BadCredentialsException.class);
+
+        double cached = meterRegistry.counter("auth.login.rate_limited", "reason", "unknown_email").count();
+        assertThatThrownBy(() -> authService.login(new LoginRequest(unknown, PASSWORD, null), "10.0.0.1", "test"))
+                .isInstanceOf(BadCredentialsException.class);
+        // the lower-case spelling is rejected from the cache, without a lookup
+        assertThat(meterRegistry.counter("auth.login.rate_limited", "reason", "unknown_email").count()).isEqualTo(cached + 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.dto.BulkInviteRequest;
+import com.observetask.userservice.dto.BulkInviteResult;
+import com.observetask.userservice.dto.BulkInviteResult.Status;
+import com.observetask.userservice.event.DomainEventPublisher;
+import com.observetask.userservice.security.UserPrincipal;
+import com.observetask.userservice.support.JpaSliceTest;
+import com.observetask.userservice.sweeper.AdvisoryLock;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@JpaSliceTest
+@Import({InvitationService.class, DomainEventPublisher.class, AdvisoryLock.class, ObjectMapper.class,
+        LocalValidatorFactoryBean.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvitationServiceTest {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private InvitationService invitationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID organizationId;
+    private UserPrincipal admin;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        organizationId = UUID.randomUUID();
+        admin = UserPrincipal.builder().userId(UUID.randomUUID()).organizationId(organizationId).role("ORG_ADMIN")
+                .email("admin@example.test").isActive(true).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void largeImportReportsEveryRowWithOneDuplicateCheckPerChunk() throws Exception {
+        UUID memberId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Existing', 'Member')",
+                memberId, email(1));
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, 'TEAM_MEMBER')",
+                memberId, organizationId);
+        jdbcTemplate.update("INSERT INTO observetask_users.invitations (email, organization_id, role, token_digest, invited_by, expires_at) " +
+                "VALUES (?, ?, 'TEAM_MEMBER', sha256(convert_to(?, 'UTF8')), ?, now() + interval '1 day')", email(2), organizationId, UUID.randomUUID().toString(), admin.getUserId());
+
+        List<BulkInviteRequest.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            entries.add(new BulkInviteRequest.Entry(email(i), "team_member", "First" + i, "Last" + i));
+        }
+        entries.set(3, new BulkInviteRequest.Entry("not-an-email", "TEAM_MEMBER", null, null));
+        entries.set(4, new BulkInviteRequest.Entry(email(4), "SUPER_ADMIN", null, null));
+        entries.set(5, new BulkInviteRequest.Entry(email(0).toUpperCase(), "TEAM_MEMBER", null, null));
+
+        List<BulkInviteResult> results = invite(entries);
+
+        assertThat(results).hasSize(ROWS);
+        assertThat(results).extracting(BulkInviteResult::index).isSorted();
+        assertThat(results.get(0).status()).isEqualTo(Status.INVITED);
+        assertThat(results.get(0).token()).hasSizeGreaterThanOrEqualTo(43);
+        assertThat(results.get(1).status()).isEqualTo(Status.ALREADY_MEMBER);
+        assertThat(results.get(2).status()).isEqualTo(Status.ALREADY_INVITED);
+        assertThat(results.get(3).status()).isEqualTo(Status.INVALID);
+        assertThat(results.get(4).status()).isEqualTo(Status.INVALID);
+        assertThat(results.get(5).status()).isEqualTo(Status.DUPLICATE);
+
+        Map<Status, Long> byStatus = results.stream().collect(Collectors.groupingBy(BulkInviteResult::status, Collectors.counting()));
+        long invited = ROWS - 5;
+        assertThat(byStatus.get(Status.INVITED)).isEqualTo(invited);
+        assertThat(countRows("invitations", "organization_id = ? AND status = 'PENDING'")).isEqualTo(invited + 1);
+        // only the digest of the returned token is stored
+        assertThat(countRows("invitations", "organization_id = ? AND token_digest = sha256(convert_to('" +
+                results.get(0).token() + "', 'UTF8'))")).isEqualTo(1);
+        assertThat(countRows("outbox_events", "event_type = 'user.invited' AND aggregate_id IN " +
+                "(SELECT id FROM observetask_users.invitations WHERE organization_id = ?)")).isEqualTo(invited);
+
+        // one set-based duplicate check per chunk of 500; inserts are JDBC batches outside Hibernate
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(ROWS / InvitationService.CHUNK_SIZE);
+    }
+
+    @Test
+    void repeatedImportInvitesNobodyTwice() throws Exception {
+        List<BulkInviteRequest.Entry> entries = List.of(
+                new BulkInviteRequest.Entry(email(0), "TEAM_MEMBER", null, null),
+                new BulkInviteRequest.Entry(email(1), "TEAM_ADMIN", null, null));
+        invite(entries);
+
+        List<BulkInviteResult> second = invite(entries);
+
+        assertThat(second).extracting(BulkInviteResult::status).containsOnly(Status.ALREADY_INVITED);
+        assertThat(countRows("invitations", "organization_id = ?")).isEqualTo(2);
+    }
+
+    private List<BulkInviteResult> invite(List<BulkInviteRequest.Entry> entries) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        invitationService.inviteAll(organizationId, admin, entries, out);
+        return objectMapper.readerFor(BulkInviteResult.class).<BulkInviteResult>readValues(out.toByteArray()).readAll();
+    }
+
+    private long countRows(String table, String where) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users." + table + " WHERE " + where,
+                Long.class, organizationId);
+    }
+
+    private String email(int i) {
+        return "person" + i + "-" + organizationId + "@example.test";
+    }
+}
@@ -0,0 +1,154 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Logins for unknown emails must not be told apart from wrong passwords by their response times
+ *
+ * The password checks take a fixed random distribution of time instead of
+ * real BCrypt work: BCrypt's speed follows the build machine's load, which
+ * shifts between the rounds that fill the window and the rounds measured,
+ * and the test is about the padding matching the window, not about load.
+ * Both paths still wait on the scheduler the same way.
+ */
+class LoginTimingEqualizerTest {
+
+    // the production window; the measured rounds span it, so the padded path draws from them
+    private static final int WINDOW = 256;
+    private static final int ROUNDS = WINDOW;
+
+    private PasswordHashingService passwordHashingService;
+    private LoginTimingEqualizer equalizer;
+    private String storedHash;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingService = new PasswordHashingService(new TimedEncoder(), new SimpleMeterRegistry(),
+                1, 8, Duration.ofSeconds(5));
+        equalizer = new LoginTimingEqualizer(passwordHashingService, new SimpleMeterRegistry(), WINDOW);
+        storedHash = passwordHashingService.encode("correct horse battery staple");
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void unknownEmailsTakeAsLongAsWrongPasswords() {
+        // fill the window, so no sample predates the measured rounds by more than one window
+        for (int i = 0; i < WINDOW; i++) {
+            wrongPassword();
+        }
+
+        long[] known = new long[ROUNDS];
+        long[] unknown = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            known[i] = wrongPassword();
+            unknown[i] = unknownEmail();
+        }
+
+        // two-sample Kolmogorov-Smirnov: the critical D at alpha = 0.001 is 1.95 * sqrt(2 / n)
+        assertThat(kolmogorovSmirnov(known, unknown)).isLessThan(1.95 * Math.sqrt(2.0 / ROUNDS));
+    }
+
+    @Test
+    void firstUnknownEmailIsDelayedBeforeAnyRealCheck() {
+        long startedAt = System.nanoTime();
+        equalizer.delayAsVerification(startedAt);
+        long unknown = System.nanoTime() - startedAt;
+
+        assertThat(unknown).isGreaterThanOrEqualTo(wrongPassword() / 2);
+    }
+
+    @Test
+    void paddedLoginsEndOnTheirDeadlineOnAverage() {
+        long target = TimeUnit.MILLISECONDS.toNanos(3);
+        for (int i = 0; i < WINDOW; i++) {
+            equalizer.recordVerification(System.nanoTime() - target);
+        }
+        // let the lateness correction settle, then measure
+        for (int i = 0; i < 50; i++) {
+            unknownEmail();
+        }
+        long totalError = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            totalError += unknownEmail() - target;
+        }
+
+        // an uncorrected sleep is late on every call; a rare preemption spike moves the mean far less
+        assertThat(Math.abs(totalError / ROUNDS)).isLessThan(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private long wrongPassword() {
+        long startedAt = System.nanoTime();
+        passwordHashingService.verify("Tr0ub4dor&3", storedHash);
+        equalizer.recordVerification(startedAt);
+        return System.nanoTime() - startedAt;
+    }
+
+    private long unknownEmail() {
+        long startedAt = System.nanoTime();
+        equalizer.delayAsVerification(startedAt);
+        return System.nanoTime() - startedAt;
+    }
+
+    /**
+     * Checks take 20-40 ms, uniformly, whatever else the machine is doing
+     */
+    private static final class TimedEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            check();
+            return "timed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            check();
+            return encodedPassword.equals("timed:" + rawPassword);
+        }
+
+        private static void check() {
+            try {
+                TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextLong(20_000, 40_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static double kolmogorovSmirnov(long[] first, long[] second) {
+        long[] a = first.clone();
+        long[] b = second.clone();
+        Arrays.sort(a);
+        Arrays.sort(b);
+        int i = 0;
+        int j = 0;
+        double maxDistance = 0;
+        while (i < a.length && j < b.length) {
+            long value = Math.min(a[i], b[j]);
+            while (i < a.length && a[i] == value) {
+                i++;
+            }
+            while (j < b.length && b[j] == value) {
+                j++;
+            }
+            maxDistance = Math.max(maxDistance, Math.abs((double) i / a.length - (double) j / b.length));
+        }
+        return maxDistance;
+    }
+}
@@ -0,0 +1,118 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.entity.OrganizationCounters;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.repository.OrganizationCountersRepository;
+import com.observetask.userservice.repository.UserRepository;
+import com.observetask.userservice.support.JpaSliceTest;
+import com.observetask.userservice.sweeper.AdvisoryLock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The triggers keep organization_counters in step with every write path, and the reconciler repairs drift
+ */
+@JpaSliceTest
+@Import({OrganizationCounterReconciler.class, AdvisoryLock.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrganizationCounterReconcilerTest {
+
+    @Autowired
+    private OrganizationCounterReconciler reconciler;
+
+    @Autowired
+    private OrganizationCountersRepository countersRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID organizationId;
+
+    @BeforeEach
+    void setUp() {
+        organizationId = UUID.randomUUID();
+    }
+
+    @Test
+    void countersFollowMembershipsActivationAndInvitations() {
+        UUID admin = member(Role.ORG_ADMIN);
+        UUID first = member(Role.TEAM_MEMBER);
+        member(Role.TEAM_MEMBER);
+        invite("PENDING");
+        invite("PENDING");
+        invite("ACCEPTED");
+
+        OrganizationCounters counters = counters();
+        assertThat(counters.getActiveMembers()).isEqualTo(3);
+        assertThat(counters.getActiveMembers(Role.TEAM_MEMBER)).isEqualTo(2);
+        assertThat(counters.getPendingInvitations()).isEqualTo(2);
+
+        jdbcTemplate.update("UPDATE observetask_users.users SET is_active = false WHERE id = ?", first);
+        jdbcTemplate.update("UPDATE observetask_users.user_roles SET role = 'TEAM_ADMIN' WHERE user_id = ?", admin);
+        jdbcTemplate.update("UPDATE observetask_users.invitations SET status = 'REVOKED' " +
+                "WHERE organization_id = ? AND status = 'PENDING'", organizationId);
+
+        counters = counters();
+        assertThat(counters.getActiveMembers(Role.TEAM_MEMBER)).isEqualTo(1);
+        assertThat(counters.getActiveMembers(Role.ORG_ADMIN)).isZero();
+        assertThat(counters.getActiveMembers(Role.TEAM_ADMIN)).isEqualTo(1);
+        assertThat(counters.getPendingInvitations()).isZero();
+        assertThat(userRepository.countActiveUsersByOrganization(organizationId)).isEqualTo(2);
+
+        jdbcTemplate.update("UPDATE observetask_users.users SET is_active = true WHERE id = ?", first);
+        jdbcTemplate.update("DELETE FROM observetask_users.users WHERE id = ?", admin);
+
+        assertThat(userRepository.countActiveUsersByOrganization(organizationId)).isEqualTo(2);
+        assertThat(countersRepository.countCommittedSeats(organizationId)).isEqualTo(2);
+        assertThat(countersRepository.countCommittedSeats(UUID.randomUUID())).isZero();
+    }
+
+    @Test
+    void reconcileCorrectsDriftedCounters() {
+        member(Role.TEAM_ADMIN);
+        invite("PENDING");
+        jdbcTemplate.update("UPDATE observetask_users.organization_counters SET team_admins = 7, pending_invitations = 0 " +
+                "WHERE organization_id = ?", organizationId);
+
+        assertThat(reconciler.reconcile()).isGreaterThanOrEqualTo(1);
+
+        OrganizationCounters counters = counters();
+        assertThat(counters.getActiveMembers(Role.TEAM_ADMIN)).isEqualTo(1);
+        assertThat(counters.getPendingInvitations()).isEqualTo(1);
+        assertThat(reconciler.reconcile()).isZero();
+    }
+
+    private OrganizationCounters counters() {
+        return countersRepository.findById(organizationId).orElseThrow();
+    }
+
+    private UUID member(Role role) {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Count', 'User')",
+                userId, "counters-" + userId + "@example.test");
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, ?)",
+                userId, organizationId, role.name());
+        return userId;
+    }
+
+    private void invite(String status) {
+        jdbcTemplate.update("INSERT INTO observetask_users.invitations (email, organization_id, role, token_digest, status, invited_by, expires_at) " +
+                "VALUES (?, ?, 'TEAM_MEMBER', sha256(convert_to(?, 'UTF8')), ?, ?, now() + interval '1 day')",
+                "invitee-" + UUID.randomUUID() + "@example.test", organizationId, UUID.randomUUID().toString(), status, UUID.randomUUID());
+    }
+}
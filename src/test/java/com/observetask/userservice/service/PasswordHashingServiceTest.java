@@ -0,0 +1,158 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.observetask.userservice.controller.GlobalExceptionHandler;
+import com.observetask.userservice.dto.ErrorResponse;
+import com.observetask.userservice.exception.HashingCapacityExceededException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BlockingEncoder blockingEncoder;
+    private PasswordHashingService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        blockingEncoder = new BlockingEncoder();
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockingEncoder.release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void aFullQueueIsShedAtOnceAndAnsweredWith429() throws Exception {
+        // one hashing thread and one queue slot
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(30));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("running"));
+        assertThat(blockingEncoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("queued"));
+        awaitQueued(1);
+
+        long startedAt = System.nanoTime();
+        HashingCapacityExceededException shed = catchThrowableOfType(() -> service.encode("shed"),
+                HashingCapacityExceededException.class);
+        assertThat(shed).isNotNull();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(1));
+        assertThat(meterRegistry.counter("password.hashing.rejected").count()).isEqualTo(1);
+        ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler()
+                .handleHashingCapacityExceeded(shed, new MockHttpServletRequest("POST", "/auth/login"));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotBlank();
+        assertThat(response.getBody().code()).isEqualTo("TOO_MANY_REQUESTS");
+        assertThat(response.getBody().path()).isEqualTo("/auth/login");
+
+        // the accepted hashes still complete once the pool frees up
+        blockingEncoder.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:running");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:queued");
+    }
+
+    @Test
+    void aHashNotDoneWithinMaxWaitIsShed() throws Exception {
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 4, Duration.ofMillis(200));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("running"));
+        assertThat(blockingEncoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> service.verify("waiting", "hashed:waiting"))
+                .isInstanceOf(HashingCapacityExceededException.class)
+                .hasMessageContaining("timed out");
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isBetween(Duration.ofMillis(200), Duration.ofSeconds(5));
+        assertThatThrownBy(running::join).hasCauseInstanceOf(HashingCapacityExceededException.class);
+        assertThat(meterRegistry.counter("password.hashing.rejected").count()).isEqualTo(2);
+
+        // the abandoned task was cancelled and does not hold up the next caller
+        blockingEncoder.release.countDown();
+        assertThat(service.encode("next")).isEqualTo("hashed:next");
+        assertThat(blockingEncoder.matchCalls).isZero();
+    }
+
+    @Test
+    void aMatchBelowTheCurrentCostIsReencoded() {
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+        service = new PasswordHashingService(new BCryptPasswordEncoder(5), meterRegistry, 1, 4, Duration.ofSeconds(30));
+
+        PasswordHashingService.Verification upgraded = service.verify("secret", weak);
+        assertThat(upgraded.matches()).isTrue();
+        assertThat(upgraded.needsUpgrade()).isTrue();
+        assertThat(upgraded.upgradedHash()).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder(5).matches("secret", upgraded.upgradedHash())).isTrue();
+
+        PasswordHashingService.Verification current = service.verify("secret", upgraded.upgradedHash());
+        assertThat(current.matches()).isTrue();
+        assertThat(current.needsUpgrade()).isFalse();
+
+        // a wrong password never yields a new hash
+        PasswordHashingService.Verification mismatch = service.verify("guess", weak);
+        assertThat(mismatch.matches()).isFalse();
+        assertThat(mismatch.needsUpgrade()).isFalse();
+        assertThat(meterRegistry.counter("password.hashing.upgraded").count()).isEqualTo(1);
+    }
+
+    private void awaitQueued(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.hashing.queue.size").gauge().value() < size) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Holds every hash until released, so the pool can be saturated on purpose
+     */
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile int matchCalls;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            await();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            matchCalls++;
+            await();
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+
+        private void await() {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observetask.userservice.dto.ProvisionedIdentity;
+import com.observetask.userservice.dto.ProvisioningSummary;
+import com.observetask.userservice.entity.AuthProvider;
+import com.observetask.userservice.entity.Role;
+import com.observetask.userservice.event.DomainEventPublisher;
+import com.observetask.userservice.support.JpaSliceTest;
+import com.observetask.userservice.sweeper.AdvisoryLock;
+
+@JpaSliceTest
+@Import({ProvisioningService.class, DomainEventPublisher.class, AdvisoryLock.class, ObjectMapper.class,
+        LocalValidatorFactoryBean.class})
+@TestPropertySource(properties = "provisioning.chunk-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProvisioningServiceTest {
+
+    @Autowired
+    private ProvisioningService provisioningService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID organizationId;
+
+    @BeforeEach
+    void setUp() {
+        organizationId = UUID.randomUUID();
+    }
+
+    @Test
+    void deltaSyncCreatesUpdatesAndDeactivatesByExternalId() {
+        sync(false, List.of(identity(0, true), identity(1, true), identity(2, true)));
+        UUID otherId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Local', 'Owner')",
+                otherId, email(9));
+
+        ProvisioningSummary summary = sync(false, List.of(
+                new ProvisionedIdentity(externalId(0), email(0), "Renamed", "Person", true, null),
+                identity(1, false),
+                identity(2, true),
+                identity(9, true)));
+
+        assertThat(summary.updated()).isEqualTo(1);
+        assertThat(summary.deactivated()).isEqualTo(1);
+        assertThat(summary.created()).isZero();
+        assertThat(summary.rejected()).isEqualTo(1);
+        assertThat(summary.rejections()).singleElement()
+                .satisfies(rejection -> assertThat(rejection.row()).isEqualTo(3));
+        assertThat(jdbcTemplate.queryForObject("SELECT first_name FROM observetask_users.users WHERE external_id = ?",
+                String.class, externalId(0))).isEqualTo("Renamed");
+        assertThat(activeUsers()).isEqualTo(2);
+        assertThat(countRows("user_roles ur", "ur.organization_id = ?")).isEqualTo(2);
+        // the deprovisioned user had no other membership: removed here, then deactivated
+        assertThat(jdbcTemplate.queryForObject("SELECT is_active FROM observetask_users.users WHERE external_id = ?",
+                Boolean.class, externalId(1))).isFalse();
+        // 3 created, 1 updated, 1 membership removed, 1 deactivated
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.outbox_events e " +
+                "WHERE e.aggregate_id IN (SELECT u.id FROM observetask_users.users u WHERE u.external_id LIKE ?)",
+                Long.class, "saml|" + organizationId + "-%")).isEqualTo(3 + 1 + 2);
+    }
+
+    @Test
+    void identitiesOfOtherOrganizationsAreOnlyAddedAsMembers() {
+        UUID otherOrganization = organizationId;
+        sync(false, List.of(identity(0, true), identity(1, true)));
+        ProvisionedIdentity foreign = identity(0, true);
+        ProvisionedIdentity foreignDeprovisioned = identity(1, false);
+        organizationId = UUID.randomUUID();
+
+        ProvisioningSummary summary = sync(false, List.of(
+                new ProvisionedIdentity(foreign.externalId(), "taken-over-" + organizationId + "@example.test",
+                        "Taken", "Over", true, null),
+                foreignDeprovisioned));
+
+        assertThat(summary.updated()).isEqualTo(1);
+        assertThat(summary.deactivated()).isZero();
+        // the account is left as its own organization provisioned it
+        assertThat(jdbcTemplate.queryForObject("SELECT first_name || ' ' || email FROM observetask_users.users WHERE external_id = ?",
+                String.class, foreign.externalId())).isEqualTo("First0 " + "person0-" + otherOrganization + "@example.test");
+        assertThat(jdbcTemplate.queryForObject("SELECT is_active FROM observetask_users.users WHERE external_id = ?",
+                Boolean.class, foreignDeprovisioned.externalId())).isTrue();
+        assertThat(countRows("user_roles ur", "ur.organization_id = ?")).isEqualTo(1);
+    }
+
+    @Test
+    void deprovisioningRemovesOnlyThisOrganizationsMembership() {
+        UUID otherOrganization = organizationId;
+        List<ProvisionedIdentity> shared = List.of(identity(0, true), identity(1, true));
+        sync(false, shared);
+        organizationId = UUID.randomUUID();
+        // this organization's directory lists the same identities
+        sync(false, shared);
+
+        ProvisioningSummary summary = sync(true, List.of());
+
+        assertThat(summary.deactivated()).isEqualTo(2);
+        assertThat(countRows("user_roles ur", "ur.organization_id = ?")).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.users u " +
+                "JOIN observetask_users.user_roles ur ON ur.user_id = u.id AND ur.organization_id = ? WHERE u.is_active",
+                Long.class, otherOrganization)).isEqualTo(2);
+    }
+
+    @Test
+    void fullSyncDeactivatesMembersMissingFromTheFeed() {
+        sync(false, IntStream.range(0, 5).mapToObj(i -> identity(i, true)).toList());
+
+        ProvisioningSummary summary = sync(true, List.of(identity(0, true), identity(3, true)));
+
+        assertThat(summary.status()).isEqualTo("COMPLETED");
+        assertThat(summary.deactivated()).isEqualTo(3);
+        assertThat(activeUsers()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.provisioning_run_identities " +
+                "WHERE run_id = ?::uuid", Long.class, summary.runId())).isZero();
+    }
+
+    @Test
+    void interruptedRunResumesAfterItsCheckpoint() {
+        UUID runId = UUID.randomUUID();
+        List<ProvisionedIdentity> feed = IntStream.range(0, 5).mapToObj(i -> identity(i, true)).toList();
+
+        // the connection drops while the second chunk is being read
+        assertThatThrownBy(() -> provisioningService.sync(organizationId, AuthProvider.SAML, runId, true,
+                Role.ORG_ADMIN, failingAfter(feed, 3))).isInstanceOf(IllegalStateException.class);
+        assertThat(activeUsers()).isEqualTo(2);
+
+        ProvisioningSummary resumed = provisioningService.sync(organizationId, AuthProvider.SAML, runId, true,
+                Role.ORG_ADMIN, feed.iterator());
+
+        assertThat(resumed.resumedFromRow()).isEqualTo(2);
+        assertThat(resumed.processedRows()).isEqualTo(5);
+        assertThat(resumed.created()).isEqualTo(5);
+        assertThat(resumed.deactivated()).isZero();
+        assertThat(activeUsers()).isEqualTo(5);
+
+        ProvisioningSummary repeated = provisioningService.sync(organizationId, AuthProvider.SAML, runId, true,
+                Role.ORG_ADMIN, feed.iterator());
+        assertThat(repeated.created()).isEqualTo(5);
+        assertThat(countRows("user_roles ur", "ur.organization_id = ?")).isEqualTo(5);
+    }
+
+    private ProvisioningSummary sync(boolean fullSync, List<ProvisionedIdentity> feed) {
+        return provisioningService.sync(organizationId, AuthProvider.SAML, UUID.randomUUID(), fullSync,
+                Role.ORG_ADMIN, feed.iterator());
+    }
+
+    private static Iterator<ProvisionedIdentity> failingAfter(List<ProvisionedIdentity> feed, int rows) {
+        Iterator<ProvisionedIdentity> delegate = feed.iterator();
+        return new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public ProvisionedIdentity next() {
+                if (read++ == rows) {
+                    throw new IllegalStateException("Feed interrupted");
+                }
+                return delegate.next();
+            }
+        };
+    }
+
+    private long activeUsers() {
+        return countRows("users u", "u.is_active AND u.id IN (SELECT ur.user_id FROM observetask_users.user_roles ur " +
+                "WHERE ur.organization_id = ?)");
+    }
+
+    private long countRows(String table, String where) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users." + table + " WHERE " + where,
+                Long.class, organizationId);
+    }
+
+    private ProvisionedIdentity identity(int i, boolean active) {
+        return new ProvisionedIdentity(externalId(i), email(i).toUpperCase(), " First" + i, "Last" + i, active, null);
+    }
+
+    private String externalId(int i) {
+        return "saml|" + organizationId + "-" + i;
+    }
+
+    private String email(int i) {
+        return "person" + i + "-" + organizationId + "@example.test";
+    }
+}
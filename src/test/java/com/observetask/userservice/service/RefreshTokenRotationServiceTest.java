@@ -0,0 +1,95 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.security.JwtUtils;
+import com.observetask.userservice.service.RefreshTokenRotationService.Outcome;
+import com.observetask.userservice.service.RefreshTokenRotationService.Rotation;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JpaSliceTest
+@Import({RefreshTokenRotationService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenRotationServiceTest {
+
+    @Autowired
+    private RefreshTokenRotationService rotationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID userId;
+    private UUID organizationId;
+    private UUID familyId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        organizationId = UUID.randomUUID();
+        familyId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Refresh', 'User')",
+                userId, "refresh-" + userId + "@example.test");
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, 'TEAM_ADMIN')",
+                userId, organizationId);
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at) " +
+                "VALUES (?, ?, ?, now() + interval '1 day')", userId, hash("login"), familyId);
+    }
+
+    @Test
+    void rotationConsumesTheTokenAndReturnsThePrincipal() {
+        Rotation rotation = rotate("login", "second", null);
+
+        assertThat(rotation.outcome()).isEqualTo(Outcome.ROTATED);
+        assertThat(rotation.principal().getUserId()).isEqualTo(userId);
+        assertThat(rotation.principal().getOrganizationId()).isEqualTo(organizationId);
+        assertThat(rotation.principal().getRole()).isEqualTo("TEAM_ADMIN");
+        assertThat(rotate("second", "third", organizationId).outcome()).isEqualTo(Outcome.ROTATED);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.jwt_refresh_tokens " +
+                "WHERE family_id = ? AND used_at IS NULL", Long.class, familyId)).isEqualTo(1);
+    }
+
+    @Test
+    void reuseAfterTheGraceWindowRevokesTheFamily() {
+        rotate("login", "second", null);
+        // a retry right after the rotation is rejected but does not revoke anything
+        assertThat(rotate("login", "retry", null).outcome()).isEqualTo(Outcome.REJECTED);
+        jdbcTemplate.update("UPDATE observetask_users.jwt_refresh_tokens SET used_at = now() - interval '1 minute' " +
+                "WHERE token_hash = ?", hash("login"));
+
+        assertThat(rotate("login", "stolen", null).outcome()).isEqualTo(Outcome.REUSED);
+
+        assertThat(rotate("second", "third", null).outcome()).isEqualTo(Outcome.REJECTED);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.jwt_refresh_tokens WHERE family_id = ?",
+                Long.class, familyId)).isZero();
+    }
+
+    @Test
+    void rejectedRotationLeavesTheTokenUsable() {
+        assertThat(rotate("login", "second", UUID.randomUUID()).outcome()).isEqualTo(Outcome.REJECTED);
+
+        assertThat(rotate("login", "third", organizationId).outcome()).isEqualTo(Outcome.ROTATED);
+    }
+
+    private Rotation rotate(String token, String successor, UUID organizationId) {
+        return rotationService.rotate(hash(token), hash(successor), Instant.now().plus(Duration.ofDays(1)),
+                organizationId, "127.0.0.1", "test");
+    }
+
+    private String hash(String token) {
+        return JwtUtils.hashRefreshToken(token + "-" + userId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.observetask.userservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.repository.InactiveMember;
+import com.observetask.userservice.repository.UserRepository;
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JpaSliceTest
+@Import({UserActivityTracker.class, SimpleMeterRegistry.class})
+// batches of 2 so a flush of a few users spans several statements; no scheduled flush during the test
+@TestPropertySource(properties = {"activity.batch-size=2", "activity.flush-interval=PT1H"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserActivityTrackerTest {
+
+    @Autowired
+    private UserActivityTracker userActivityTracker;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void touchesAreWrittenOncePerUserWithoutChangingUpdatedAt() {
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(insertUser(UUID.randomUUID(), true));
+        }
+        for (int round = 0; round < 3; round++) {
+            users.forEach(userActivityTracker::touch);
+        }
+
+        assertThat(userActivityTracker.flush()).isGreaterThanOrEqualTo(5);
+
+        for (UUID userId : users) {
+            assertThat(jdbcTemplate.queryForObject("SELECT last_active_at > now() - interval '1 minute' " +
+                    "FROM observetask_users.users WHERE id = ?", Boolean.class, userId)).isTrue();
+            // activity is not a profile change
+            assertThat(jdbcTemplate.queryForObject("SELECT updated_at < now() - interval '1 day' " +
+                    "FROM observetask_users.users WHERE id = ?", Boolean.class, userId)).isTrue();
+        }
+
+        // written within the resolution: further touches are not recorded again
+        users.forEach(userActivityTracker::touch);
+        assertThat(userActivityTracker.flush()).isZero();
+    }
+
+    @Test
+    void aFlushNeverMovesActivityBackwards() {
+        UUID userId = insertUser(UUID.randomUUID(), true);
+        jdbcTemplate.update("UPDATE observetask_users.users SET last_active_at = now() + interval '1 day' WHERE id = ?", userId);
+
+        userActivityTracker.touch(userId);
+        userActivityTracker.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT last_active_at > now() + interval '23 hours' " +
+                "FROM observetask_users.users WHERE id = ?", Boolean.class, userId)).isTrue();
+    }
+
+    @Test
+    void inactiveMembersAreListedLongestInactiveFirst() {
+        UUID organizationId = UUID.randomUUID();
+        UUID recent = insertMember(organizationId, true);
+        UUID neverSeen = insertMember(organizationId, true);
+        UUID idle = insertMember(organizationId, true);
+        UUID deactivated = insertMember(organizationId, false);
+        insertMember(UUID.randomUUID(), true);
+
+        // created 90 days ago and never seen since; idle was last seen 40 days ago
+        jdbcTemplate.update("UPDATE observetask_users.users SET created_at = now() - interval '90 days' WHERE id IN (?, ?, ?)",
+                neverSeen, idle, deactivated);
+        jdbcTemplate.update("UPDATE observetask_users.users SET last_active_at = now() - interval '40 days' WHERE id = ?", idle);
+        userActivityTracker.touch(recent);
+        userActivityTracker.flush();
+
+        List<InactiveMember> inactive = userRepository.findInactiveMembers(organizationId,
+                LocalDateTime.now().minusDays(30), Limit.of(10));
+
+        assertThat(inactive).extracting(InactiveMember::userId).containsExactly(neverSeen, idle);
+        assertThat(inactive.get(0).lastActiveAt()).isNull();
+        assertThat(inactive.get(1).lastActiveAt()).isBefore(LocalDateTime.now().minusDays(39));
+        assertThat(userRepository.findInactiveMembers(organizationId, LocalDateTime.now().minusDays(30), Limit.of(1)))
+                .extracting(InactiveMember::userId).containsExactly(neverSeen);
+    }
+
+    private UUID insertUser(UUID userId, boolean active) {
+        // updated_at in the past, to see that activity leaves it alone
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name, is_active, updated_at) " +
+                "VALUES (?, ?, 'Active', 'User', ?, now() - interval '2 days')", userId, "activity-" + userId + "@example.test", active);
+        return userId;
+    }
+
+    private UUID insertMember(UUID organizationId, boolean active) {
+        UUID userId = insertUser(UUID.randomUUID(), active);
+        jdbcTemplate.update("INSERT INTO observetask_users.user_roles (user_id, organization_id, role) VALUES (?, ?, 'TEAM_MEMBER')",
+                userId, organizationId);
+        return userId;
+    }
+}
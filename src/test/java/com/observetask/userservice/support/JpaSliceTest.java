@@ -0,0 +1,31 @@
+package com.observetask.userservice.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.observetask.userservice.cache.InvitationEntityListener;
+import com.observetask.userservice.cache.PrincipalCacheEntityListener;
+import com.observetask.userservice.security.RegisteredEmailListener;
+
+/**
+ * JPA slice (entities, repositories, Flyway) on embedded PostgreSQL with Hibernate statistics on
+ * PostgreSQL refuses to run as root, so the slice is skipped in root-owned build containers
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfiguration.class, PrincipalCacheEntityListener.class, InvitationEntityListener.class,
+        RegisteredEmailListener.class})
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "PostgreSQL cannot run as root")
+public @interface JpaSliceTest {
+}
@@ -0,0 +1,114 @@
+package com.observetask.userservice.sweeper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.observetask.userservice.support.JpaSliceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JpaSliceTest
+@Import({PartitionMaintenance.class, AdvisoryLock.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "partitions.create-ahead=P20D")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PartitionMaintenanceTest {
+
+    @Autowired
+    private PartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @Test
+    void attachesPartitionsAheadThatBehaveLikeTheParent() {
+        partitionMaintenance.maintain(Instant.now());
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertThat(partitions("jwt_refresh_tokens")).contains(
+                PartitionMaintenance.partitionName("jwt_refresh_tokens", today),
+                PartitionMaintenance.partitionName("jwt_refresh_tokens", today.plusDays(28)));
+        assertThat(partitions("jwt_blacklist")).contains(PartitionMaintenance.partitionName("jwt_blacklist", today.plusDays(28)));
+
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO observetask_users.users (id, email, first_name, last_name) VALUES (?, ?, 'Part', 'User')",
+                userId, "partitions-" + userId + "@example.test");
+        assertThat(jdbcTemplate.update("INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at) " +
+                "VALUES (?, ?, ?, now() + interval '25 days')", userId, UUID.randomUUID().toString(), UUID.randomUUID())).isEqualTo(1);
+        // the foreign key to users was cloned onto the attached partition
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO observetask_users.jwt_refresh_tokens (user_id, token_hash, family_id, expires_at) " +
+                "VALUES (?, ?, ?, now() + interval '25 days')", UUID.randomUUID(), UUID.randomUUID().toString(), UUID.randomUUID()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        jdbcTemplate.update("DELETE FROM observetask_users.users WHERE id = ?", userId);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM observetask_users.jwt_refresh_tokens WHERE user_id = ?",
+                Integer.class, userId)).isZero();
+    }
+
+    @Test
+    void dropsPartitionsOfDaysThatHavePassed() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS observetask_users.jwt_blacklist_p20000101 PARTITION OF observetask_users.jwt_blacklist " +
+                "FOR VALUES FROM ('2000-01-01 00:00:00+00') TO ('2000-01-02 00:00:00+00')");
+        jdbcTemplate.update("INSERT INTO observetask_users.jwt_blacklist (token_jti, expires_at) VALUES (?, '2000-01-01 12:00:00+00')",
+                UUID.randomUUID().toString());
+
+        partitionMaintenance.maintain(Instant.now());
+
+        assertThat(partitions("jwt_blacklist")).doesNotContain("jwt_blacklist_p20000101")
+                .contains(PartitionMaintenance.partitionName("jwt_blacklist", LocalDate.now(ZoneOffset.UTC)));
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('observetask_users.jwt_blacklist_p20000101') IS NULL", Boolean.class))
+                .isTrue();
+    }
+
+    @Test
+    void aPartitionThatCannotBeAttachedIsCountedAndRetried() {
+        LocalDate lastDay = LocalDate.now(ZoneOffset.UTC).plusDays(28);
+        String partition = PartitionMaintenance.partitionName("jwt_blacklist", lastDay);
+        partitionMaintenance.maintain(Instant.now());
+        // days this far ahead hold no tokens yet; replace the partition with a table of another shape
+        jdbcTemplate.execute("ALTER TABLE observetask_users.jwt_blacklist DETACH PARTITION observetask_users." + partition);
+        jdbcTemplate.execute("DROP TABLE observetask_users." + partition);
+        jdbcTemplate.execute("CREATE TABLE observetask_users." + partition + " (unrelated INTEGER)");
+        double failures = meterRegistry.counter("partitions.attach.failures", "table", "jwt_blacklist").count();
+
+        partitionMaintenance.maintain(Instant.now());
+
+        assertThat(partitions("jwt_blacklist")).doesNotContain(partition);
+        assertThat(meterRegistry.counter("partitions.attach.failures", "table", "jwt_blacklist").count()).isEqualTo(failures + 1);
+        // the other table attached its partitions as usual
+        assertThat(meterRegistry.counter("partitions.attach.failures", "table", "jwt_refresh_tokens").count()).isZero();
+
+        jdbcTemplate.execute("DROP TABLE observetask_users." + partition);
+        partitionMaintenance.maintain(Instant.now());
+        assertThat(partitions("jwt_blacklist")).contains(partition);
+    }
+
+    @Test
+    void partitionDaysAreReadBackFromTheirNames() {
+        assertThat(PartitionMaintenance.dayOf("jwt_blacklist", "jwt_blacklist_p20261017")).isEqualTo(LocalDate.of(2026, 10, 17));
+        assertThat(PartitionMaintenance.dayOf("jwt_blacklist", "jwt_blacklist_archive")).isNull();
+        assertThat(PartitionMaintenance.dayOf("jwt_refresh_tokens", "jwt_blacklist_p20261017")).isNull();
+    }
+
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = CAST(? AS regclass)", String.class, "observetask_users." + table);
+    }
+}